@@ -0,0 +1,107 @@
+package org.maplibre.maplibregl;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The Flutter asset images that styles ask for by name, decoded once per process and display
+ * density and shared by every map.
+ *
+ * <p>A missing style image used to be looked up afresh each time: the resolution-aware paths were
+ * rebuilt, {@code openFd} was tried on each until one opened, and the asset was decoded again, on
+ * every style load of every map. Here a decoded image is kept by asset name and density bucket, the
+ * {@code ceil} of the density that picks the candidate paths, in an LRU cache bounded in bytes. A
+ * path that does not open is remembered too, so the variants an app does not ship are not tried
+ * again, and neither is a name that is not an asset at all.
+ *
+ * <p>Sharing one bitmap between maps is safe because the style copies its pixels when it is added.
+ */
+final class AssetBitmapCache {
+  private static final int MAX_BYTES =
+      (int) Math.min(Runtime.getRuntime().maxMemory() / 32, 32 * 1024 * 1024);
+  private static final int MAX_MISSING = 512;
+
+  private static final LruCache<String, Bitmap> bitmaps =
+      new LruCache<String, Bitmap>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+          return bitmap.getByteCount();
+        }
+      };
+
+  /** Asset paths, and cache keys, that were looked up and not found. Values are unused. */
+  private static final LruCache<String, Boolean> missing = new LruCache<>(MAX_MISSING);
+
+  private AssetBitmapCache() {}
+
+  /**
+   * The image asset {@code imageId} in the highest resolution variant at or below the density, or
+   * null if there is none.
+   */
+  static Bitmap get(AssetManager assets, String imageId, float density) {
+    final int bucket = (int) Math.ceil(density);
+    final String key = bucket + "/" + imageId;
+    final Bitmap cached = bitmaps.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    if (missing.get(key) != null) {
+      return null;
+    }
+
+    // "On devices with a device pixel ratio of 1.8, the asset .../2.0x/my_icon.png would be chosen.
+    // For a device pixel ratio of 2.7, the asset .../3.0x/my_icon.png would be chosen."
+    // Source: https://flutter.dev/docs/development/ui/assets-and-images#resolution-aware
+    for (int i = bucket; i > 0; i--) {
+      final String assetPath =
+          MapLibreMapsPlugin.flutterAssets.getAssetFilePathByName(variant(imageId, i));
+      if (missing.get(assetPath) != null) {
+        continue;
+      }
+      final Bitmap bitmap = decode(assets, assetPath);
+      if (bitmap != null) {
+        bitmaps.put(key, bitmap);
+        return bitmap;
+      }
+    }
+    missing.put(key, Boolean.TRUE);
+    return null;
+  }
+
+  /** Gives memory back as {@link ComponentCallbacks2#onTrimMemory} asks. */
+  static void trimMemory(int level) {
+    if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+        || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      bitmaps.evictAll();
+    } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+        || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      bitmaps.trimToSize(bitmaps.maxSize() / 2);
+    }
+  }
+
+  // The asset name of the given resolution variant: the name itself at 1x, and
+  // <directory>/<ratio>x/<image name> above, with the ratio as 2.0, 3.0, ...
+  private static String variant(String imageId, int ratio) {
+    if (ratio == 1) {
+      return imageId;
+    }
+    final int slash = imageId.lastIndexOf('/');
+    return imageId.substring(0, slash + 1) + ((float) ratio) + "x/" + imageId.substring(slash + 1);
+  }
+
+  private static Bitmap decode(AssetManager assets, String assetPath) {
+    try (AssetFileDescriptor descriptor = assets.openFd(assetPath);
+        InputStream stream = descriptor.createInputStream()) {
+      return BitmapFactory.decodeStream(stream);
+    } catch (IOException e) {
+      missing.put(assetPath, Boolean.TRUE);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package org.maplibre.maplibregl;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.BinaryCodec;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.maplibre.android.camera.CameraPosition;
+
+/**
+ * Sends camera moves to Dart as small binary messages on a channel of their own, at most {@code
+ * maxEventsPerSecond} of them, and only with the fields that moved by at least their threshold.
+ *
+ * <p>With trackCameraPosition on, every native camera change became a camera#onMove method call
+ * carrying the whole camera position, up to 120 a second during a fling. Here a move is one flag
+ * byte followed by the changed fields as little-endian doubles: the flags are {@link #TARGET}
+ * (latitude, longitude), {@link #ZOOM}, {@link #BEARING} and {@link #TILT}, written in that order.
+ * The first message after {@link #setThrottle} carries every field, and Dart applies each later one
+ * to the position it has.
+ *
+ * <p>A move that comes too soon after the last message is sent once the interval is up, so the
+ * camera Dart sees never stays behind where it stopped. {@link #flush()} sends it right away, which
+ * the controller does before camera#onIdle so that no move arrives after it.
+ *
+ * <p>All methods are called on the main thread.
+ */
+final class CameraMoveStream {
+  static final int TARGET = 1;
+  static final int ZOOM = 1 << 1;
+  static final int BEARING = 1 << 2;
+  static final int TILT = 1 << 3;
+  private static final int ALL = TARGET | ZOOM | BEARING | TILT;
+
+  /** Width of the world in dp at zoom 0; MapLibre tiles are 512 dp. */
+  private static final double WORLD_SIZE_AT_ZOOM_0 = 512;
+  private static final double MAX_LATITUDE = 85.0511287798;
+
+  /** Where the camera is now, or null when there is no map. */
+  interface CameraSource {
+    CameraPosition current();
+  }
+
+  /** How the stream thins out camera moves; see CameraMoveThrottle on the Dart side. */
+  static final class Throttle {
+    /** Minimum time between two messages; 0 for no limit. */
+    final long minIntervalMillis;
+
+    final double minZoomDelta;
+    final double minBearingDelta;
+    final double minTiltDelta;
+    /** In dp on screen, at the current zoom. */
+    final double minTargetDelta;
+
+    Throttle(
+        Integer maxEventsPerSecond,
+        double minZoomDelta,
+        double minBearingDelta,
+        double minTiltDelta,
+        double minTargetDelta) {
+      this.minIntervalMillis =
+          maxEventsPerSecond == null || maxEventsPerSecond <= 0 ? 0 : 1000 / maxEventsPerSecond;
+      this.minZoomDelta = minZoomDelta;
+      this.minBearingDelta = minBearingDelta;
+      this.minTiltDelta = minTiltDelta;
+      this.minTargetDelta = minTargetDelta;
+    }
+  }
+
+  private final BasicMessageChannel<ByteBuffer> channel;
+  private final CameraSource source;
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Runnable trailingSend =
+      () -> {
+        trailingPending = false;
+        send();
+      };
+
+  private Throttle throttle;
+  private boolean trailingPending = false;
+  private long lastSentAt;
+
+  /** What Dart was last sent; meaningless until hasSent. */
+  private boolean hasSent = false;
+
+  private double sentLatitude;
+  private double sentLongitude;
+  private double sentZoom;
+  private double sentBearing;
+  private double sentTilt;
+
+  CameraMoveStream(BinaryMessenger messenger, String channelName, CameraSource source) {
+    this.channel = new BasicMessageChannel<>(messenger, channelName, BinaryCodec.INSTANCE);
+    this.source = source;
+  }
+
+  /** Whether moves go out here rather than as camera#onMove calls. */
+  boolean isEnabled() {
+    return throttle != null;
+  }
+
+  /** Sets the throttle, or turns the stream off with null. The next message carries every field. */
+  void setThrottle(Throttle throttle) {
+    release();
+    this.throttle = throttle;
+  }
+
+  void onCameraMove() {
+    if (throttle == null || trailingPending) {
+      return;
+    }
+    final long sinceLast = SystemClock.uptimeMillis() - lastSentAt;
+    if (hasSent && sinceLast < throttle.minIntervalMillis) {
+      trailingPending = true;
+      handler.postDelayed(trailingSend, throttle.minIntervalMillis - sinceLast);
+      return;
+    }
+    send();
+  }
+
+  /** Sends a move held back by the rate limit now. */
+  void flush() {
+    if (trailingPending) {
+      handler.removeCallbacks(trailingSend);
+      trailingPending = false;
+      send();
+    }
+  }
+
+  /** Drops a held-back move and forgets what Dart was sent. */
+  void release() {
+    handler.removeCallbacks(trailingSend);
+    trailingPending = false;
+    hasSent = false;
+  }
+
+  private void send() {
+    final CameraPosition position = throttle == null ? null : source.current();
+    if (position == null || position.target == null) {
+      return;
+    }
+    final double latitude = position.target.getLatitude();
+    final double longitude = position.target.getLongitude();
+    final int fields = hasSent ? changedFields(position, latitude, longitude) : ALL;
+    if (fields == 0) {
+      return;
+    }
+
+    final ByteBuffer message =
+        ByteBuffer.allocateDirect(1 + 5 * 8).order(ByteOrder.LITTLE_ENDIAN);
+    message.put((byte) fields);
+    if ((fields & TARGET) != 0) {
+      message.putDouble(latitude);
+      message.putDouble(longitude);
+      sentLatitude = latitude;
+      sentLongitude = longitude;
+    }
+    if ((fields & ZOOM) != 0) {
+      message.putDouble(position.zoom);
+      sentZoom = position.zoom;
+    }
+    if ((fields & BEARING) != 0) {
+      message.putDouble(position.bearing);
+      sentBearing = position.bearing;
+    }
+    if ((fields & TILT) != 0) {
+      message.putDouble(position.tilt);
+      sentTilt = position.tilt;
+    }
+    hasSent = true;
+    lastSentAt = SystemClock.uptimeMillis();
+    channel.send(message);
+  }
+
+  // The fields that moved by at least their threshold since they were last
+  // sent. One that moved less keeps its sent value, so slow drift still shows
+  // once it adds up.
+  private int changedFields(CameraPosition position, double latitude, double longitude) {
+    int fields = 0;
+    if (moved(sentZoom, position.zoom, throttle.minZoomDelta)) {
+      fields |= ZOOM;
+    }
+    final double bearingDelta = Math.abs(position.bearing - sentBearing) % 360;
+    if (moved(0, Math.min(bearingDelta, 360 - bearingDelta), throttle.minBearingDelta)) {
+      fields |= BEARING;
+    }
+    if (moved(sentTilt, position.tilt, throttle.minTiltDelta)) {
+      fields |= TILT;
+    }
+    if (moved(0, targetDelta(position.zoom, latitude, longitude), throttle.minTargetDelta)) {
+      fields |= TARGET;
+    }
+    return fields;
+  }
+
+  private static boolean moved(double from, double to, double threshold) {
+    final double delta = Math.abs(to - from);
+    return threshold <= 0 ? delta > 0 : delta >= threshold;
+  }
+
+  // How far the target moved on screen, in dp at the given zoom.
+  private double targetDelta(double zoom, double latitude, double longitude) {
+    final double worldSize = WORLD_SIZE_AT_ZOOM_0 * Math.pow(2, zoom);
+    double dx = Math.abs(longitude - sentLongitude) % 360;
+    dx = Math.min(dx, 360 - dx) / 360 * worldSize;
+    final double dy = (mercatorY(latitude) - mercatorY(sentLatitude)) * worldSize;
+    return Math.hypot(dx, dy);
+  }
+
+  private static double mercatorY(double latitude) {
+    final double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+    final double sin = Math.sin(Math.toRadians(clamped));
+    return Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+  }
+}
@@ -18,7 +18,6 @@ import org.maplibre.android.geometry.LatLngBounds;
 import org.maplibre.android.maps.MapLibreMap;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +31,15 @@ class Convert {
   }
 
   static CameraPosition toCameraPosition(Object o) {
+    if (o instanceof double[]) {
+      final double[] data = (double[]) o;
+      return new CameraPosition.Builder()
+          .target(new LatLng(data[0], data[1]))
+          .zoom(data[2])
+          .bearing(data[3])
+          .tilt(data[4])
+          .build();
+    }
     final Map<?, ?> data = toMap(o);
     final CameraPosition.Builder builder = new CameraPosition.Builder();
     builder.bearing(toFloat(data.get("bearing")));
@@ -102,23 +110,35 @@ class Convert {
     return ((Number) o).intValue();
   }
 
-  static Object toJson(CameraPosition position) {
+  /**
+   * The camera as {@code [latitude, longitude, zoom, bearing, tilt]}, which the codec sends as a
+   * Float64List without boxing a value or building a map.
+   */
+  static double[] toArray(CameraPosition position) {
     if (position == null) {
       return null;
     }
-    final Map<String, Object> data = new HashMap<>();
-    data.put("bearing", position.bearing);
-    data.put("target", toJson(position.target));
-    data.put("tilt", position.tilt);
-    data.put("zoom", position.zoom);
-    return data;
+    return new double[] {
+      position.target.getLatitude(),
+      position.target.getLongitude(),
+      position.zoom,
+      position.bearing,
+      position.tilt
+    };
   }
 
-  private static Object toJson(LatLng latLng) {
-    return Arrays.asList(latLng.getLatitude(), latLng.getLongitude());
+  /** The bounds as {@code [south, west, north, east]}, the corners in LatLng order. */
+  static double[] toArray(LatLngBounds bounds) {
+    return new double[] {
+      bounds.getLatSouth(), bounds.getLonWest(), bounds.getLatNorth(), bounds.getLonEast()
+    };
   }
 
   static LatLng toLatLng(Object o) {
+    if (o instanceof double[]) {
+      final double[] data = (double[]) o;
+      return new LatLng(data[0], data[1]);
+    }
     final List<?> data = toList(o);
     return new LatLng(toDouble(data.get(0)), toDouble(data.get(1)));
   }
@@ -127,6 +147,10 @@ class Convert {
     if (o == null) {
       return null;
     }
+    if (o instanceof double[]) {
+      final double[] data = (double[]) o;
+      return LatLngBounds.from(data[2], data[3], data[0], data[1]);
+    }
     final List<?> data = toList(o);
     LatLng[] boundsArray = new LatLng[] {toLatLng(data.get(0)), toLatLng(data.get(1))};
     List<LatLng> bounds = Arrays.asList(boundsArray);
@@ -146,10 +170,25 @@ static LocationEngineRequest toLocationEngineRequest(Object o) {
           .build();
 }
 
+  /**
+   * Reads a list of {@code [latitude, longitude]} pairs, or the same pairs laid out flat in a
+   * double[], as Dart sends them on Android.
+   */
   static List<LatLng> toLatLngList(Object o, boolean flippedOrder) {
     if (o == null) {
       return null;
     }
+    if (o instanceof double[]) {
+      final double[] data = (double[]) o;
+      final List<LatLng> latLngList = new ArrayList<>(data.length / 2);
+      for (int i = 0; i + 1 < data.length; i += 2) {
+        latLngList.add(
+            flippedOrder
+                ? new LatLng(data[i + 1], data[i])
+                : new LatLng(data[i], data[i + 1]));
+      }
+      return latLngList;
+    }
     final List<?> data = toList(o);
     List<LatLng> latLngList = new ArrayList<>();
     for (int i = 0; i < data.size(); i++) {
@@ -341,5 +380,32 @@ static LocationEngineRequest toLocationEngineRequest(Object o) {
     if (featureTapsTriggersMapClick != null) {
       sink.setFeatureTapsTriggersMapClick(toBoolean(featureTapsTriggersMapClick));
     }
+    final Object tapTolerance = data.get("tapTolerance");
+    if (tapTolerance != null) {
+      sink.setTapTolerance(toFloat(tapTolerance));
+    }
+    final Object tapCandidateCount = data.get("tapCandidateCount");
+    if (tapCandidateCount != null) {
+      sink.setTapCandidateCount(toInt(tapCandidateCount));
+    }
+    final Object cameraMoveThrottle = data.get("cameraMoveThrottle");
+    if (cameraMoveThrottle != null) {
+      sink.setCameraMoveThrottle(toCameraMoveThrottle(cameraMoveThrottle));
+    }
+  }
+
+  // [maxEventsPerSecond, minZoomDelta, minBearingDelta, minTiltDelta,
+  // minTargetDelta], or an empty list for no throttle.
+  private static CameraMoveStream.Throttle toCameraMoveThrottle(Object o) {
+    final List<?> data = toList(o);
+    if (data.isEmpty()) {
+      return null;
+    }
+    return new CameraMoveStream.Throttle(
+        data.get(0) == null ? null : toInt(data.get(0)),
+        toDouble(data.get(1)),
+        toDouble(data.get(2)),
+        toDouble(data.get(3)),
+        toDouble(data.get(4)));
   }
 }
@@ -0,0 +1,73 @@
+package org.maplibre.maplibregl;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.flutter.plugin.common.MethodCall;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.maplibre.geojson.Feature;
+
+/**
+ * Which parts of each feature a feature query answers with, from its {@code includeGeometry} and
+ * {@code properties} arguments.
+ *
+ * <p>A tap handler usually needs a feature's id and one or two attributes, while the reply carried
+ * every property and the full geometry, serializing polygons that were thrown away on arrival.
+ * Features are trimmed here, before they are serialized, so what is left out is never encoded.
+ */
+final class FeatureProjection {
+  static final FeatureProjection ALL = new FeatureProjection(true, null);
+
+  private final boolean includeGeometry;
+  /** The property keys to keep, or null to keep every property. */
+  private final Set<String> properties;
+
+  private FeatureProjection(boolean includeGeometry, Set<String> properties) {
+    this.includeGeometry = includeGeometry;
+    this.properties = properties;
+  }
+
+  /** Reads the projection a query asked for. Both arguments are optional. */
+  static FeatureProjection fromArguments(MethodCall call) {
+    final Boolean includeGeometry = call.argument("includeGeometry");
+    final List<String> properties = call.argument("properties");
+    if (!Boolean.FALSE.equals(includeGeometry) && properties == null) {
+      return ALL;
+    }
+    return new FeatureProjection(
+        !Boolean.FALSE.equals(includeGeometry),
+        properties == null ? null : new HashSet<>(properties));
+  }
+
+  /** {@code features} with only the requested parts, or the list itself when that is all of it. */
+  List<Feature> apply(List<Feature> features) {
+    if (this == ALL || features == null) {
+      return features;
+    }
+    final List<Feature> projected = new ArrayList<>(features.size());
+    for (Feature feature : features) {
+      projected.add(
+          Feature.fromGeometry(
+              includeGeometry ? feature.geometry() : null,
+              projectProperties(feature.properties()),
+              feature.id()));
+    }
+    return projected;
+  }
+
+  private JsonObject projectProperties(JsonObject source) {
+    if (properties == null || source == null) {
+      return source;
+    }
+    final JsonObject projected = new JsonObject();
+    for (String key : properties) {
+      final JsonElement value = source.get(key);
+      if (value != null) {
+        projected.add(key, value);
+      }
+    }
+    return projected;
+  }
+}
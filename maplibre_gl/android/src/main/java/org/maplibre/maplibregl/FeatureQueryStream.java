@@ -0,0 +1,104 @@
+package org.maplibre.maplibregl;
+
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+import java.util.List;
+import java.util.Map;
+import org.maplibre.geojson.Feature;
+
+/**
+ * Hands the result of one map#querySourceFeaturesStream to Dart over an EventChannel of its own,
+ * one chunk of at most {@code chunkSize} features per map#querySourceFeaturesStream#next.
+ *
+ * <p>map#querySourceFeatures answered a dense vector source with a single reply holding a JSON
+ * string per feature, all of it built at once and held twice while it crossed the channel. The
+ * query itself still runs in one go, but here only the chunk Dart asked for is serialized, and Dart
+ * asks for the next one when it has taken the last, so a paused or slow consumer holds back the
+ * rest rather than having it queued up.
+ *
+ * <p>Cancelling the Dart subscription releases the features. All methods are called on the main
+ * thread.
+ */
+final class FeatureQueryStream implements EventChannel.StreamHandler {
+
+  /** Serializes a chunk of features as the reply of a feature query. */
+  interface ChunkEncoder {
+    Map<String, Object> encode(List<Feature> chunk);
+  }
+
+  /** Told when a stream is done with, so its owner can forget it. */
+  interface ReleaseListener {
+    void onReleased(String channelName);
+  }
+
+  private final String channelName;
+  private final EventChannel channel;
+  private final int chunkSize;
+  private final ChunkEncoder encoder;
+  private final ReleaseListener releaseListener;
+  private List<Feature> features;
+  private EventChannel.EventSink sink;
+  private int next = 0;
+  /** A chunk was asked for before Dart had started listening. */
+  private boolean chunkRequested = false;
+
+  FeatureQueryStream(
+      BinaryMessenger messenger,
+      String channelName,
+      List<Feature> features,
+      int chunkSize,
+      ChunkEncoder encoder,
+      ReleaseListener releaseListener) {
+    this.channelName = channelName;
+    this.features = features;
+    this.chunkSize = chunkSize;
+    this.encoder = encoder;
+    this.releaseListener = releaseListener;
+    this.channel = new EventChannel(messenger, channelName);
+    channel.setStreamHandler(this);
+  }
+
+  @Override
+  public void onListen(Object arguments, EventChannel.EventSink events) {
+    sink = events;
+    if (chunkRequested) {
+      chunkRequested = false;
+      sendNextChunk();
+    }
+  }
+
+  @Override
+  public void onCancel(Object arguments) {
+    release();
+  }
+
+  /** Sends the next chunk, ending the stream after the last one. */
+  void sendNextChunk() {
+    if (features == null) {
+      return;
+    }
+    // The request and the listen travel on different channels, so the first
+    // request may overtake the listen.
+    if (sink == null) {
+      chunkRequested = true;
+      return;
+    }
+    final int end = Math.min(next + chunkSize, features.size());
+    final List<Feature> chunk = features.subList(next, end);
+    next = end;
+    sink.success(encoder.encode(chunk));
+    if (next >= features.size()) {
+      // Dart cancels once it sees the end, which is what releases the channel.
+      features = null;
+      sink.endOfStream();
+    }
+  }
+
+  /** Drops the features and the channel; further requests are ignored. */
+  void release() {
+    features = null;
+    sink = null;
+    channel.setStreamHandler(null);
+    releaseListener.onReleased(channelName);
+  }
+}
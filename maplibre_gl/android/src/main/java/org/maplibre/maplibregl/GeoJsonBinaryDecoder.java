@@ -0,0 +1,190 @@
+package org.maplibre.maplibregl;
+
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.maplibre.geojson.Feature;
+import org.maplibre.geojson.FeatureCollection;
+import org.maplibre.geojson.Geometry;
+import org.maplibre.geojson.GeometryCollection;
+import org.maplibre.geojson.LineString;
+import org.maplibre.geojson.MultiLineString;
+import org.maplibre.geojson.MultiPoint;
+import org.maplibre.geojson.MultiPolygon;
+import org.maplibre.geojson.Point;
+import org.maplibre.geojson.Polygon;
+
+/**
+ * Reads the packed GeoJSON layout written by {@code encodeGeoJsonBinary} in
+ * maplibre_gl_platform_interface, whose doc comment describes the layout.
+ *
+ * <p>The JSON path parses the string into a Gson tree and then walks it again to build the
+ * features. Here the features are built while reading: coordinates are read as doubles straight
+ * into {@link Point}s, and each string is decoded once from the string table however many times
+ * it is referenced.
+ */
+final class GeoJsonBinaryDecoder {
+
+  // The tags of the layout, which GeoJsonBinaryEncoder writes with.
+  static final int VERSION = 1;
+
+  static final int GEOMETRY_NONE = 0;
+  static final int GEOMETRY_POINT = 1;
+  static final int GEOMETRY_MULTI_POINT = 2;
+  static final int GEOMETRY_LINE_STRING = 3;
+  static final int GEOMETRY_MULTI_LINE_STRING = 4;
+  static final int GEOMETRY_POLYGON = 5;
+  static final int GEOMETRY_MULTI_POLYGON = 6;
+  static final int GEOMETRY_COLLECTION = 7;
+
+  static final int VALUE_NULL = 0;
+  static final int VALUE_FALSE = 1;
+  static final int VALUE_TRUE = 2;
+  static final int VALUE_INT = 3;
+  static final int VALUE_DOUBLE = 4;
+  static final int VALUE_STRING = 5;
+  static final int VALUE_JSON = 6;
+
+  private GeoJsonBinaryDecoder() {}
+
+  /**
+   * Decodes {@code bytes} into a collection. The feature list is a mutable {@link ArrayList},
+   * like the one Gson builds, since source#setFeature replaces entries in place.
+   *
+   * @throws IllegalArgumentException when the bytes are not in a layout this version reads.
+   */
+  static FeatureCollection decode(byte[] bytes) {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    final int version = buffer.get() & 0xff;
+    if (version != VERSION) {
+      throw new IllegalArgumentException("Unsupported binary GeoJSON version " + version);
+    }
+
+    final String[] strings = new String[buffer.getInt()];
+    for (int i = 0; i < strings.length; i++) {
+      final int length = buffer.getInt();
+      strings[i] = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + length);
+    }
+
+    final int featureCount = buffer.getInt();
+    final List<Feature> features = new ArrayList<>(featureCount);
+    for (int i = 0; i < featureCount; i++) {
+      features.add(readFeature(buffer, strings));
+    }
+    return FeatureCollection.fromFeatures(features);
+  }
+
+  private static Feature readFeature(ByteBuffer buffer, String[] strings) {
+    final String id = buffer.get() != 0 ? strings[buffer.getInt()] : null;
+    final Geometry geometry = readGeometry(buffer, strings);
+
+    final int propertyCount = buffer.getInt();
+    final JsonObject properties = new JsonObject();
+    for (int i = 0; i < propertyCount; i++) {
+      final String key = strings[buffer.getInt()];
+      readValue(buffer, strings, properties, key);
+    }
+    return Feature.fromGeometry(geometry, properties, id);
+  }
+
+  private static Geometry readGeometry(ByteBuffer buffer, String[] strings) {
+    final int type = buffer.get() & 0xff;
+    switch (type) {
+      case GEOMETRY_NONE:
+        return null;
+      case GEOMETRY_POINT:
+        return readPositions(buffer).get(0);
+      case GEOMETRY_MULTI_POINT:
+        return MultiPoint.fromLngLats(readPositions(buffer));
+      case GEOMETRY_LINE_STRING:
+        return LineString.fromLngLats(readPositions(buffer));
+      case GEOMETRY_MULTI_LINE_STRING:
+        return MultiLineString.fromLngLats(readPositionLists(buffer));
+      case GEOMETRY_POLYGON:
+        return Polygon.fromLngLats(readPositionLists(buffer));
+      case GEOMETRY_MULTI_POLYGON:
+        {
+          final int count = buffer.getInt();
+          final List<List<List<Point>>> polygons = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            polygons.add(readPositionLists(buffer));
+          }
+          return MultiPolygon.fromLngLats(polygons);
+        }
+      case GEOMETRY_COLLECTION:
+        {
+          final int count = buffer.getInt();
+          final List<Geometry> geometries = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            geometries.add(readGeometry(buffer, strings));
+          }
+          return GeometryCollection.fromGeometries(geometries);
+        }
+      default:
+        throw new IllegalArgumentException("Unknown binary GeoJSON geometry type " + type);
+    }
+  }
+
+  private static List<List<Point>> readPositionLists(ByteBuffer buffer) {
+    final int count = buffer.getInt();
+    final List<List<Point>> lists = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      lists.add(readPositions(buffer));
+    }
+    return lists;
+  }
+
+  private static List<Point> readPositions(ByteBuffer buffer) {
+    final int count = buffer.getInt();
+    final boolean hasAltitude = buffer.get() == 3;
+    final List<Point> points = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final double longitude = buffer.getDouble();
+      final double latitude = buffer.getDouble();
+      // Dart writes NaN for the positions of a mixed sequence that have no
+      // altitude, which keeps them two-dimensional here as in the JSON.
+      final double altitude = hasAltitude ? buffer.getDouble() : Double.NaN;
+      points.add(
+          Double.isNaN(altitude)
+              ? Point.fromLngLat(longitude, latitude)
+              : Point.fromLngLat(longitude, latitude, altitude));
+    }
+    return points;
+  }
+
+  private static void readValue(
+      ByteBuffer buffer, String[] strings, JsonObject target, String key) {
+    final int tag = buffer.get() & 0xff;
+    switch (tag) {
+      case VALUE_NULL:
+        target.add(key, JsonNull.INSTANCE);
+        break;
+      case VALUE_FALSE:
+        target.addProperty(key, false);
+        break;
+      case VALUE_TRUE:
+        target.addProperty(key, true);
+        break;
+      case VALUE_INT:
+        target.addProperty(key, buffer.getLong());
+        break;
+      case VALUE_DOUBLE:
+        target.addProperty(key, buffer.getDouble());
+        break;
+      case VALUE_STRING:
+        target.addProperty(key, strings[buffer.getInt()]);
+        break;
+      case VALUE_JSON:
+        target.add(key, JsonParser.parseString(strings[buffer.getInt()]));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown binary GeoJSON value tag " + tag);
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package org.maplibre.maplibregl;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.maplibre.geojson.Feature;
+import org.maplibre.geojson.Geometry;
+import org.maplibre.geojson.GeometryCollection;
+import org.maplibre.geojson.LineString;
+import org.maplibre.geojson.MultiLineString;
+import org.maplibre.geojson.MultiPoint;
+import org.maplibre.geojson.MultiPolygon;
+import org.maplibre.geojson.Point;
+import org.maplibre.geojson.Polygon;
+
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.GEOMETRY_COLLECTION;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.GEOMETRY_LINE_STRING;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.GEOMETRY_MULTI_LINE_STRING;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.GEOMETRY_MULTI_POINT;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.GEOMETRY_MULTI_POLYGON;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.GEOMETRY_NONE;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.GEOMETRY_POINT;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.GEOMETRY_POLYGON;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.VALUE_DOUBLE;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.VALUE_FALSE;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.VALUE_INT;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.VALUE_JSON;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.VALUE_NULL;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.VALUE_STRING;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.VALUE_TRUE;
+import static org.maplibre.maplibregl.GeoJsonBinaryDecoder.VERSION;
+
+/**
+ * Writes features in the packed layout {@link GeoJsonBinaryDecoder} reads, for feature-query
+ * replies. Dart reads it back with {@code decodeGeoJsonBinaryFeatures} in
+ * maplibre_gl_platform_interface, whose encoder documents the layout.
+ *
+ * <p>The JSON reply serializes every feature to its own string, which Dart then parses again.
+ * Here coordinates are written as doubles and each distinct string, property keys included, is
+ * written once however many features use it, which dense queries repeat a lot.
+ */
+final class GeoJsonBinaryEncoder {
+
+  /** Index of each string in the table, in the order the strings were first written. */
+  private final Map<String, Integer> stringIndex = new HashMap<>();
+  private final List<String> strings = new ArrayList<>();
+  private ByteBuffer body = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+  private GeoJsonBinaryEncoder() {}
+
+  static byte[] encode(List<Feature> features) {
+    return new GeoJsonBinaryEncoder().write(features);
+  }
+
+  private byte[] write(List<Feature> features) {
+    reserve(4);
+    body.putInt(features.size());
+    for (Feature feature : features) {
+      writeFeature(feature);
+    }
+
+    final byte[][] encodedStrings = new byte[strings.size()][];
+    int headerSize = 1 + 4;
+    for (int i = 0; i < encodedStrings.length; i++) {
+      encodedStrings[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+      headerSize += 4 + encodedStrings[i].length;
+    }
+    final ByteBuffer out =
+        ByteBuffer.allocate(headerSize + body.position()).order(ByteOrder.LITTLE_ENDIAN);
+    out.put((byte) VERSION);
+    out.putInt(encodedStrings.length);
+    for (byte[] string : encodedStrings) {
+      out.putInt(string.length);
+      out.put(string);
+    }
+    out.put(body.array(), 0, body.position());
+    return out.array();
+  }
+
+  private void writeFeature(Feature feature) {
+    final String id = feature.id();
+    reserve(1);
+    if (id == null) {
+      body.put((byte) 0);
+    } else {
+      body.put((byte) 1);
+      writeString(id);
+    }
+
+    writeGeometry(feature.geometry());
+
+    final JsonObject properties = feature.properties();
+    reserve(4);
+    if (properties == null) {
+      body.putInt(0);
+      return;
+    }
+    body.putInt(properties.size());
+    for (Map.Entry<String, JsonElement> property : properties.entrySet()) {
+      writeString(property.getKey());
+      writeValue(property.getValue());
+    }
+  }
+
+  private void writeGeometry(Geometry geometry) {
+    reserve(1);
+    if (geometry instanceof Point) {
+      body.put((byte) GEOMETRY_POINT);
+      final List<Point> points = new ArrayList<>(1);
+      points.add((Point) geometry);
+      writePositions(points);
+    } else if (geometry instanceof MultiPoint) {
+      body.put((byte) GEOMETRY_MULTI_POINT);
+      writePositions(((MultiPoint) geometry).coordinates());
+    } else if (geometry instanceof LineString) {
+      body.put((byte) GEOMETRY_LINE_STRING);
+      writePositions(((LineString) geometry).coordinates());
+    } else if (geometry instanceof MultiLineString) {
+      body.put((byte) GEOMETRY_MULTI_LINE_STRING);
+      writePositionLists(((MultiLineString) geometry).coordinates());
+    } else if (geometry instanceof Polygon) {
+      body.put((byte) GEOMETRY_POLYGON);
+      writePositionLists(((Polygon) geometry).coordinates());
+    } else if (geometry instanceof MultiPolygon) {
+      body.put((byte) GEOMETRY_MULTI_POLYGON);
+      final List<List<List<Point>>> polygons = ((MultiPolygon) geometry).coordinates();
+      reserve(4);
+      body.putInt(polygons.size());
+      for (List<List<Point>> polygon : polygons) {
+        writePositionLists(polygon);
+      }
+    } else if (geometry instanceof GeometryCollection) {
+      body.put((byte) GEOMETRY_COLLECTION);
+      final List<Geometry> geometries = ((GeometryCollection) geometry).geometries();
+      reserve(4);
+      body.putInt(geometries.size());
+      for (Geometry child : geometries) {
+        writeGeometry(child);
+      }
+    } else {
+      // No geometry, or a kind the layout has no tag for, which the JSON
+      // reply cannot carry either.
+      body.put((byte) GEOMETRY_NONE);
+    }
+  }
+
+  private void writePositionLists(List<List<Point>> lists) {
+    reserve(4);
+    body.putInt(lists.size());
+    for (List<Point> positions : lists) {
+      writePositions(positions);
+    }
+  }
+
+  private void writePositions(List<Point> positions) {
+    boolean hasAltitude = false;
+    for (Point point : positions) {
+      if (point.hasAltitude()) {
+        hasAltitude = true;
+        break;
+      }
+    }
+    final int dimensions = hasAltitude ? 3 : 2;
+    reserve(4 + 1 + positions.size() * dimensions * 8);
+    body.putInt(positions.size());
+    body.put((byte) dimensions);
+    for (Point point : positions) {
+      body.putDouble(point.longitude());
+      body.putDouble(point.latitude());
+      if (hasAltitude) {
+        body.putDouble(point.hasAltitude() ? point.altitude() : Double.NaN);
+      }
+    }
+  }
+
+  private void writeValue(JsonElement value) {
+    reserve(1 + 8);
+    if (value == null || value.isJsonNull()) {
+      body.put((byte) VALUE_NULL);
+    } else if (!value.isJsonPrimitive()) {
+      body.put((byte) VALUE_JSON);
+      writeString(value.toString());
+    } else {
+      final JsonPrimitive primitive = value.getAsJsonPrimitive();
+      if (primitive.isBoolean()) {
+        body.put((byte) (primitive.getAsBoolean() ? VALUE_TRUE : VALUE_FALSE));
+      } else if (primitive.isNumber()) {
+        writeNumber(primitive);
+      } else {
+        body.put((byte) VALUE_STRING);
+        writeString(primitive.getAsString());
+      }
+    }
+  }
+
+  // Whole numbers stay ints, as jsonDecode would read them from the JSON
+  // reply: a number written without a fraction or exponent that fits a long.
+  private void writeNumber(JsonPrimitive primitive) {
+    final Number number = primitive.getAsNumber();
+    if (number instanceof Integer || number instanceof Long || number instanceof Short
+        || number instanceof Byte) {
+      body.put((byte) VALUE_INT);
+      body.putLong(number.longValue());
+      return;
+    }
+    if (!(number instanceof Double) && !(number instanceof Float)) {
+      try {
+        final long whole = Long.parseLong(number.toString());
+        body.put((byte) VALUE_INT);
+        body.putLong(whole);
+        return;
+      } catch (NumberFormatException e) {
+        // Has a fraction or an exponent, or is out of range: a double.
+      }
+    }
+    body.put((byte) VALUE_DOUBLE);
+    body.putDouble(number.doubleValue());
+  }
+
+  private void writeString(String value) {
+    Integer index = stringIndex.get(value);
+    if (index == null) {
+      index = strings.size();
+      stringIndex.put(value, index);
+      strings.add(value);
+    }
+    reserve(4);
+    body.putInt(index);
+  }
+
+  private void reserve(int count) {
+    if (body.remaining() >= count) {
+      return;
+    }
+    int capacity = body.capacity() * 2;
+    while (capacity - body.position() < count) {
+      capacity *= 2;
+    }
+    final ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    grown.put(body.array(), 0, body.position());
+    body = grown;
+  }
+}
@@ -0,0 +1,140 @@
+package org.maplibre.maplibregl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.maplibre.geojson.Feature;
+import org.maplibre.geojson.FeatureCollection;
+
+/**
+ * The features last written to one GeoJSON source, indexed by feature id.
+ *
+ * <p>Replacing or removing a feature by id is O(1): the index points at its slot in the list, and
+ * a removal only clears that slot. Cleared slots are compacted in {@link #toFeatureCollection()},
+ * which has to walk every feature anyway to hand them to the SDK. Features keep the order they were
+ * added in, which is also the order they are drawn in.
+ *
+ * <p>Features without an id are kept but cannot be addressed. When several features share an id,
+ * the first one is the one addressed, as a linear scan would find it.
+ */
+final class GeoJsonFeatureStore {
+  private final ArrayList<Feature> features;
+  private final Map<String, Integer> indexById;
+  private int clearedSlots = 0;
+
+  /**
+   * Indexes the features of {@code collection}. A mutable {@link ArrayList}, which both the Gson
+   * and the binary path produce, is taken over rather than copied.
+   */
+  GeoJsonFeatureStore(FeatureCollection collection) {
+    final List<Feature> source = collection.features();
+    if (source instanceof ArrayList) {
+      features = (ArrayList<Feature>) source;
+    } else {
+      features = source == null ? new ArrayList<>() : new ArrayList<>(source);
+    }
+    indexById = new HashMap<>(features.size() * 4 / 3 + 1);
+    reindex();
+  }
+
+  boolean contains(String id) {
+    return id != null && indexById.containsKey(id);
+  }
+
+  /** Replaces the feature with the same id, or appends {@code feature} when there is none. */
+  void upsert(Feature feature) {
+    final String id = feature.id();
+    final Integer index = id == null ? null : indexById.get(id);
+    if (index != null) {
+      features.set(index, feature);
+      return;
+    }
+    if (id != null) {
+      indexById.put(id, features.size());
+    }
+    features.add(feature);
+  }
+
+  /** Removes the feature with {@code id}. Returns whether there was one. */
+  boolean remove(String id) {
+    final Integer index = id == null ? null : indexById.remove(id);
+    if (index == null) {
+      return false;
+    }
+    features.set(index, null);
+    clearedSlots++;
+    return true;
+  }
+
+  /**
+   * Applies {@code diff}: added features are upserted, updated features replace the feature with
+   * the same id and are ignored when there is none, and removed ids are removed. Returns whether
+   * anything changed, so the caller can skip the source update when nothing did.
+   */
+  boolean apply(Diff diff) {
+    boolean changed = false;
+    for (Feature feature : diff.added) {
+      upsert(feature);
+      changed = true;
+    }
+    for (Feature feature : diff.updated) {
+      if (contains(feature.id())) {
+        upsert(feature);
+        changed = true;
+      }
+    }
+    for (String id : diff.removed) {
+      changed |= remove(id);
+    }
+    return changed;
+  }
+
+  int size() {
+    return features.size() - clearedSlots;
+  }
+
+  /**
+   * The current features, in order. The collection holds a copy of the store's list, as it may be
+   * kept past the next change, by the {@link GeoJsonUpdateCoalescer} until the next frame; the
+   * copy is of references only, small next to the conversion {@code setGeoJson} makes of it.
+   */
+  FeatureCollection toFeatureCollection() {
+    if (clearedSlots > 0) {
+      int write = 0;
+      for (int read = 0; read < features.size(); read++) {
+        final Feature feature = features.get(read);
+        if (feature != null) {
+          features.set(write++, feature);
+        }
+      }
+      features.subList(write, features.size()).clear();
+      clearedSlots = 0;
+      reindex();
+    }
+    return FeatureCollection.fromFeatures(new ArrayList<>(features));
+  }
+
+  /** The parsed payload of one source#applyFeatureDiff call. */
+  static final class Diff {
+    final List<Feature> added;
+    final List<Feature> updated;
+    final List<String> removed;
+
+    Diff(List<Feature> added, List<Feature> updated, List<String> removed) {
+      this.added = added;
+      this.updated = updated;
+      this.removed = removed;
+    }
+  }
+
+  private void reindex() {
+    indexById.clear();
+    for (int i = 0; i < features.size(); i++) {
+      final String id = features.get(i).id();
+      if (id != null && !indexById.containsKey(id)) {
+        indexById.put(id, i);
+      }
+    }
+  }
+}
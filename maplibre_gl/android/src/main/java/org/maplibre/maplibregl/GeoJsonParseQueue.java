@@ -0,0 +1,166 @@
+package org.maplibre.maplibregl;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Parses GeoJSON source writes on a worker thread and commits them on the main thread.
+ *
+ * <p>Parsing a large payload inline in {@code onMethodCall} stalls the main looper, and with it
+ * rendering and gestures, for as long as the parse takes. Here only the commit runs on the main
+ * thread, and the method-channel reply goes to the committer, which answers it once the source
+ * holds the data; the controller's commits hand it on to its {@link GeoJsonUpdateCoalescer}.
+ *
+ * <p>Writes for a source are committed in the order they were submitted, because the worker is a
+ * single thread. A write that replaces the whole source supersedes every earlier write for that
+ * source: those are dropped instead of parsed, or instead of committed if they were already being
+ * parsed, so a burst of updates applies only the newest payload. A dropped write is answered when
+ * it is dropped, which is right before the write that superseded it is committed.
+ *
+ * <p>Small payloads are parsed inline when nothing is queued for their source, since the hop to the
+ * worker and back would cost them a frame for nothing.
+ *
+ * <p>All methods are called on the main thread.
+ */
+final class GeoJsonParseQueue {
+  private static final String TAG = "GeoJsonParseQueue";
+
+  /** Payloads up to this many bytes or chars are parsed inline when they can be. */
+  private static final int INLINE_PARSE_LIMIT = 16 * 1024;
+
+  interface Parser<T> {
+    T parse() throws Exception;
+  }
+
+  interface Committer<T> {
+    /** Commits {@code parsed}, and answers {@code result} once the source holds it. */
+    void commit(T parsed, MethodChannel.Result result);
+  }
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            final Thread thread = new Thread(runnable, "maplibre-geojson-parse");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  /** Sequence number of the newest write replacing each source. Read from the worker. */
+  private final Map<String, Long> latestReplacement = new ConcurrentHashMap<>();
+  /** Writes submitted to the worker and not yet committed or dropped, per source. */
+  private final Map<String, Integer> queuedWrites = new HashMap<>();
+
+  private long nextSequence = 0;
+  private volatile boolean disposed = false;
+
+  /**
+   * Parses and commits one write to {@code sourceId}. The committer answers {@code result}; a write
+   * that fails to parse or is dropped is answered here.
+   *
+   * @param replacesSource whether the write replaces the whole source, superseding earlier ones.
+   * @param payloadSize size of the raw payload in bytes or chars, to decide on parsing inline.
+   */
+  <T> void submit(
+      String sourceId,
+      boolean replacesSource,
+      int payloadSize,
+      Parser<T> parser,
+      Committer<T> committer,
+      MethodChannel.Result result) {
+    submit(sourceId, replacesSource, payloadSize, parser, committer, null, result);
+  }
+
+  /**
+   * As above, running {@code onParseError} on the main thread, before {@code result} is answered,
+   * when the payload does not parse and no newer write has superseded it.
+   */
+  <T> void submit(
+      String sourceId,
+      boolean replacesSource,
+      int payloadSize,
+      Parser<T> parser,
+      Committer<T> committer,
+      Runnable onParseError,
+      MethodChannel.Result result) {
+    final long sequence = nextSequence++;
+    if (replacesSource) {
+      latestReplacement.put(sourceId, sequence);
+    }
+
+    if (payloadSize <= INLINE_PARSE_LIMIT && !queuedWrites.containsKey(sourceId)) {
+      T parsed = null;
+      try {
+        parsed = parser.parse();
+      } catch (Exception e) {
+        Log.e(TAG, "Error parsing GeoJSON for source '" + sourceId + "'", e);
+      }
+      if (parsed != null) {
+        committer.commit(parsed, result);
+      } else {
+        if (onParseError != null) {
+          onParseError.run();
+        }
+        result.success(null);
+      }
+      return;
+    }
+
+    final Integer queued = queuedWrites.get(sourceId);
+    queuedWrites.put(sourceId, queued == null ? 1 : queued + 1);
+    executor.execute(
+        () -> {
+          T parsed = null;
+          boolean parseFailed = false;
+          if (!disposed && !isSuperseded(sourceId, sequence)) {
+            try {
+              parsed = parser.parse();
+            } catch (Exception e) {
+              Log.e(TAG, "Error parsing GeoJSON for source '" + sourceId + "'", e);
+            }
+            parseFailed = parsed == null;
+          }
+          final T committed = parsed;
+          final boolean failed = parseFailed;
+          mainHandler.post(
+              () -> {
+                final Integer remaining = queuedWrites.get(sourceId);
+                if (remaining == null || remaining <= 1) {
+                  queuedWrites.remove(sourceId);
+                } else {
+                  queuedWrites.put(sourceId, remaining - 1);
+                }
+                final boolean current = !disposed && !isSuperseded(sourceId, sequence);
+                if (committed != null && current) {
+                  committer.commit(committed, result);
+                } else {
+                  if (failed && current && onParseError != null) {
+                    onParseError.run();
+                  }
+                  result.success(null);
+                }
+              });
+        });
+  }
+
+  private boolean isSuperseded(String sourceId, long sequence) {
+    final Long latest = latestReplacement.get(sourceId);
+    return latest != null && latest > sequence;
+  }
+
+  /**
+   * Stops committing. Writes still queued are answered without being parsed, so nothing on the
+   * Dart side is left waiting.
+   */
+  void dispose() {
+    disposed = true;
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,129 @@
+package org.maplibre.maplibregl;
+
+import android.view.Choreographer;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.maplibre.geojson.FeatureCollection;
+
+/**
+ * Holds the latest data for each GeoJSON source and hands it to the source once per frame.
+ *
+ * <p>Every {@code GeoJsonSource#setGeoJson} makes MapLibre serialize the whole collection and
+ * re-tile it, however soon the next one follows. When Dart sends several updates for one source
+ * within a frame, only the last can ever be drawn, so the earlier ones are dropped here instead of
+ * reaching the SDK. Pending data is flushed from a {@link Choreographer} frame callback, so it
+ * lands right before the frame it is drawn in.
+ *
+ * <p>Each update comes with the method-channel reply of the write that made it, and the reply is
+ * only sent once the data has been handed to the source, so a Dart caller awaiting a write still
+ * resumes after the source holds it. A dropped update is answered along with the one that
+ * superseded it.
+ *
+ * <p>All methods are called on the main thread.
+ */
+final class GeoJsonUpdateCoalescer implements Choreographer.FrameCallback {
+
+  interface Sink {
+    /** Hands {@code collection} to the source with {@code sourceId}. */
+    void flush(String sourceId, FeatureCollection collection);
+  }
+
+  /** The data queued for a source, and the replies waiting for it to be handed over. */
+  private static final class Update {
+    FeatureCollection collection;
+    final List<MethodChannel.Result> results = new ArrayList<>(1);
+  }
+
+  private final Sink sink;
+  private final PerformanceCounters counters;
+  /** Insertion-ordered, so sources are flushed in the order they were first updated. */
+  private final Map<String, Update> pending = new LinkedHashMap<>();
+  private boolean frameScheduled = false;
+
+  GeoJsonUpdateCoalescer(Sink sink, PerformanceCounters counters) {
+    this.sink = sink;
+    this.counters = counters;
+  }
+
+  /**
+   * Queues {@code collection} for the next frame, replacing what was queued for the source, and
+   * answers {@code result} once it has been handed over.
+   */
+  void schedule(String sourceId, FeatureCollection collection, MethodChannel.Result result) {
+    counters.increment(PerformanceCounters.GEOJSON_UPDATES_SCHEDULED);
+    Update update = pending.get(sourceId);
+    if (update == null) {
+      update = new Update();
+      pending.put(sourceId, update);
+    } else {
+      counters.increment(PerformanceCounters.GEOJSON_UPDATES_DROPPED);
+    }
+    update.collection = collection;
+    update.results.add(result);
+    if (!frameScheduled) {
+      frameScheduled = true;
+      Choreographer.getInstance().postFrameCallback(this);
+    }
+  }
+
+  /**
+   * Hands the data queued for {@code sourceId} to the source right away. Called before anything
+   * that reads the source, so it never observes data older than what Dart last sent.
+   */
+  void flushNow(String sourceId) {
+    final Update update = pending.remove(sourceId);
+    if (update != null) {
+      flush(sourceId, update);
+    }
+  }
+
+  /** Forgets the data queued for {@code sourceId}, as when the source is removed. */
+  void discard(String sourceId) {
+    final Update update = pending.remove(sourceId);
+    if (update != null) {
+      answer(update);
+    }
+  }
+
+  /**
+   * Forgets everything queued and stops listening for frames. The replies still waiting are
+   * answered, so nothing on the Dart side is left waiting.
+   */
+  void cancel() {
+    final List<Update> updates = new ArrayList<>(pending.values());
+    pending.clear();
+    if (frameScheduled) {
+      frameScheduled = false;
+      Choreographer.getInstance().removeFrameCallback(this);
+    }
+    for (Update update : updates) {
+      answer(update);
+    }
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    frameScheduled = false;
+    // The sink may schedule again; copying first keeps that for the next frame.
+    final Map<String, Update> updates = new LinkedHashMap<>(pending);
+    pending.clear();
+    for (Map.Entry<String, Update> update : updates.entrySet()) {
+      flush(update.getKey(), update.getValue());
+    }
+  }
+
+  private void flush(String sourceId, Update update) {
+    counters.increment(PerformanceCounters.GEOJSON_UPDATES_FLUSHED);
+    sink.flush(sourceId, update.collection);
+    answer(update);
+  }
+
+  private static void answer(Update update) {
+    for (MethodChannel.Result result : update.results) {
+      result.success(null);
+    }
+  }
+}
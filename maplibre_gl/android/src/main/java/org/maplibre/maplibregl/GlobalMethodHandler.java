@@ -18,6 +18,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 import java.util.Map;
 
 class GlobalMethodHandler implements MethodChannel.MethodCallHandler {
@@ -91,6 +92,10 @@ class GlobalMethodHandler implements MethodChannel.MethodCallHandler {
         Map<String, String> headers = (Map<String, String>) methodCall.argument("headers");
         MapLibreHttpRequestUtil.setHttpHeaders(headers, result);
         break;
+      case "setHttpClientOptions":
+        MapLibreHttpRequestUtil.setClientOptions(
+            (Map<String, Object>) methodCall.arguments, result);
+        break;
       case "downloadOfflineRegion#setup":
         String channelName = methodCall.argument("channelName");
         // Prepare args
@@ -156,6 +161,35 @@ class GlobalMethodHandler implements MethodChannel.MethodCallHandler {
           MapLibreHttpRequestUtil.setMaxConcurrentRequests(maxRequests, maxRequestsPerHost, result);
           break;
         }
+      case "snapshot#renderBatch":
+        {
+          Map<String, Object> arguments = (Map<String, Object>) methodCall.arguments;
+          String styleString = methodCall.argument("styleString");
+          List<?> views = methodCall.argument("views");
+          if (styleString == null || styleString.isEmpty() || views == null || views.isEmpty()) {
+            result.error("INVALID_ARGUMENT", "A style and at least one view are required", null);
+            break;
+          }
+          Number pixelRatio = methodCall.argument("pixelRatio");
+          try {
+            new SnapshotBatch(
+                context,
+                messenger,
+                methodCall.argument("channelName"),
+                styleString,
+                SnapshotBatch.toViews(
+                    views,
+                    methodCall.<Number>argument("width").intValue(),
+                    methodCall.<Number>argument("height").intValue()),
+                SnapshotEncoding.from(arguments),
+                pixelRatio != null ? pixelRatio.floatValue() : null);
+          } catch (IllegalArgumentException | ClassCastException e) {
+            result.error("INVALID_ARGUMENT", e.getMessage(), null);
+            break;
+          }
+          result.success(null);
+          break;
+        }
       case "preWarm":
         // MapLibreUtils.getMapLibre(context) at line 67 already triggers
         // MapLibre.getInstance(context) on every method call. This case
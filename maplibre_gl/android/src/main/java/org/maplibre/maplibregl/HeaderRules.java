@@ -0,0 +1,147 @@
+package org.maplibre.maplibregl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import okhttp3.Request;
+
+/**
+ * A set of headers, and the URL filters that pick the requests they go on, ready for the header
+ * interceptor of {@link MapLibreHttpRequestUtil}. Immutable, and read on OkHttp's threads.
+ *
+ * <p>The filters used to be compiled with {@link Pattern#matches} for every request. Here they are
+ * compiled once, and the common {@code literal.*} form becomes a plain prefix test. The remaining
+ * regular expressions are matched against each URL; tile URLs are nearly all distinct, so caching
+ * the decisions per URL would miss almost always, and lock on every OkHttp thread to do it.
+ */
+final class HeaderRules {
+  static final HeaderRules EMPTY = new HeaderRules(null, null);
+
+  /** The headers as they were given. */
+  final Map<String, String> headers;
+  /** The header names, blank ones left out. */
+  final String[] names;
+  /** The value of each of {@link #names}, or null where the header is removed instead. */
+  final String[] values;
+  /** Filters of the form {@code literal.*}, as the literal. */
+  final String[] prefixes;
+  /** The other filters. */
+  final Pattern[] patterns;
+
+  /**
+   * @param filter regular expressions a URL has to match one of in full, or null or empty for the
+   *     headers to go on every request
+   * @throws java.util.regex.PatternSyntaxException if a filter is not a valid regular expression
+   */
+  HeaderRules(Map<String, String> headers, List<String> filter) {
+    final Map<String, String> copy = new HashMap<>();
+    final List<String> names = new ArrayList<>();
+    final List<String> values = new ArrayList<>();
+    if (headers != null) {
+      for (Map.Entry<String, String> header : headers.entrySet()) {
+        copy.put(header.getKey(), header.getValue());
+        if (header.getKey() == null || header.getKey().trim().isEmpty()) {
+          continue;
+        }
+        names.add(header.getKey());
+        final String value = header.getValue();
+        values.add(value == null || value.trim().isEmpty() ? null : value);
+      }
+    }
+    this.headers = Collections.unmodifiableMap(copy);
+    this.names = names.toArray(new String[0]);
+    this.values = values.toArray(new String[0]);
+
+    final List<String> prefixes = new ArrayList<>();
+    final List<Pattern> patterns = new ArrayList<>();
+    if (filter != null) {
+      for (String regex : filter) {
+        final String prefix = literalPrefix(regex);
+        if (prefix != null) {
+          prefixes.add(prefix);
+        } else {
+          patterns.add(Pattern.compile(regex));
+        }
+      }
+    }
+    this.prefixes = prefixes.toArray(new String[0]);
+    this.patterns = patterns.toArray(new Pattern[0]);
+  }
+
+  boolean isEmpty() {
+    return names.length == 0;
+  }
+
+  /**
+   * Puts the headers on the request if they apply to its URL, through {@code builder}, or through
+   * a new builder of the request if that is null. Returns the builder used, or {@code builder} as
+   * it was if the headers do not apply.
+   */
+  Request.Builder applyTo(Request request, String url, Request.Builder builder) {
+    if (names.length == 0 || !matches(url)) {
+      return builder;
+    }
+    if (builder == null) {
+      builder = request.newBuilder();
+    }
+    for (int i = 0; i < names.length; i++) {
+      if (values[i] == null) {
+        builder.removeHeader(names[i]);
+      } else {
+        builder.header(names[i], values[i]);
+      }
+    }
+    return builder;
+  }
+
+  /** Whether the headers apply to the URL: with no filters they apply to every one. */
+  boolean matches(String url) {
+    if (prefixes.length == 0 && patterns.length == 0) {
+      return true;
+    }
+    for (String prefix : prefixes) {
+      if (url.startsWith(prefix)) {
+        return true;
+      }
+    }
+    for (Pattern pattern : patterns) {
+      if (pattern.matcher(url).matches()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // The literal a regular expression of the form "<literal>.*" matches a URL
+  // by, or null if it has any other form. Only backslash escapes of
+  // punctuation count as literal; "." matches anything but line breaks, which
+  // a URL cannot hold.
+  static String literalPrefix(String regex) {
+    if (!regex.endsWith(".*") || regex.endsWith("\\.*")) {
+      return null;
+    }
+    final StringBuilder literal = new StringBuilder();
+    final int end = regex.length() - 2;
+    for (int i = 0; i < end; i++) {
+      final char c = regex.charAt(i);
+      if (c == '\\') {
+        if (i + 1 >= end) {
+          return null;
+        }
+        final char escaped = regex.charAt(++i);
+        if (Character.isLetterOrDigit(escaped)) {
+          return null;
+        }
+        literal.append(escaped);
+      } else if ("[](){}.*+?^$|".indexOf(c) >= 0) {
+        return null;
+      } else {
+        literal.append(c);
+      }
+    }
+    return literal.toString();
+  }
+}
@@ -0,0 +1,178 @@
+package org.maplibre.maplibregl;
+
+import java.util.Map;
+
+/**
+ * Everything the plugin configures on the OkHttp client MapLibre makes its requests with: the
+ * headers of setHttpHeaders and of map#setCustomHeaders, the dispatcher limits of
+ * setOfflineMaxConcurrentRequests, and the connection settings of setHttpClientOptions.
+ *
+ * <p>Immutable; a change makes a new config through one of the {@code with} methods, and {@link
+ * MapLibreHttpRequestUtil#update} swaps it in whole, so OkHttp's threads never see half of one.
+ */
+final class HttpClientConfig {
+  static final HttpClientConfig DEFAULT =
+      new HttpClientConfig(HeaderRules.EMPTY, HeaderRules.EMPTY, null, null, ClientOptions.DEFAULT);
+
+  /** Headers for every request, from setHttpHeaders. */
+  final HeaderRules globalHeaders;
+  /** Headers for the requests matching their filters, from map#setCustomHeaders. */
+  final HeaderRules customHeaders;
+  /** Dispatcher limits, or null for OkHttp's defaults. */
+  final Integer maxRequests;
+  final Integer maxRequestsPerHost;
+  final ClientOptions options;
+
+  private HttpClientConfig(
+      HeaderRules globalHeaders,
+      HeaderRules customHeaders,
+      Integer maxRequests,
+      Integer maxRequestsPerHost,
+      ClientOptions options) {
+    this.globalHeaders = globalHeaders;
+    this.customHeaders = customHeaders;
+    this.maxRequests = maxRequests;
+    this.maxRequestsPerHost = maxRequestsPerHost;
+    this.options = options;
+  }
+
+  HttpClientConfig withGlobalHeaders(HeaderRules headers) {
+    return new HttpClientConfig(headers, customHeaders, maxRequests, maxRequestsPerHost, options);
+  }
+
+  HttpClientConfig withCustomHeaders(HeaderRules headers) {
+    return new HttpClientConfig(globalHeaders, headers, maxRequests, maxRequestsPerHost, options);
+  }
+
+  HttpClientConfig withDispatcherLimits(Integer maxRequests, Integer maxRequestsPerHost) {
+    return new HttpClientConfig(
+        globalHeaders, customHeaders, maxRequests, maxRequestsPerHost, options);
+  }
+
+  HttpClientConfig withOptions(ClientOptions options) {
+    return new HttpClientConfig(
+        globalHeaders, customHeaders, maxRequests, maxRequestsPerHost, options);
+  }
+
+  /**
+   * The settings that need a new client to change, each null for OkHttp's default. Times are in
+   * milliseconds.
+   */
+  static final class ClientOptions {
+    static final ClientOptions DEFAULT =
+        new ClientOptions(null, null, null, null, null, null, null);
+
+    final Integer maxIdleConnections;
+    final Long keepAliveMillis;
+    final Long connectTimeoutMillis;
+    final Long readTimeoutMillis;
+    final Long writeTimeoutMillis;
+    /** False to speak HTTP/1.1 only. */
+    final Boolean http2;
+    /** How often to ping an idle HTTP/2 connection, to notice when it is gone. */
+    final Long pingIntervalMillis;
+
+    private ClientOptions(
+        Integer maxIdleConnections,
+        Long keepAliveMillis,
+        Long connectTimeoutMillis,
+        Long readTimeoutMillis,
+        Long writeTimeoutMillis,
+        Boolean http2,
+        Long pingIntervalMillis) {
+      this.maxIdleConnections = maxIdleConnections;
+      this.keepAliveMillis = keepAliveMillis;
+      this.connectTimeoutMillis = connectTimeoutMillis;
+      this.readTimeoutMillis = readTimeoutMillis;
+      this.writeTimeoutMillis = writeTimeoutMillis;
+      this.http2 = http2;
+      this.pingIntervalMillis = pingIntervalMillis;
+    }
+
+    /**
+     * Reads the arguments of setHttpClientOptions.
+     *
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    static ClientOptions from(Map<String, Object> arguments) {
+      if (arguments == null) {
+        return DEFAULT;
+      }
+      final Integer maxIdleConnections = toInteger(arguments.get("maxIdleConnections"));
+      if (maxIdleConnections != null && maxIdleConnections < 0) {
+        throw new IllegalArgumentException(
+            "maxIdleConnections must be >= 0 (got " + maxIdleConnections + ")");
+      }
+      final Long keepAliveMillis = toLong(arguments.get("keepAliveMillis"));
+      if (keepAliveMillis != null && keepAliveMillis <= 0) {
+        throw new IllegalArgumentException(
+            "keepAliveMillis must be > 0 (got " + keepAliveMillis + ")");
+      }
+      return new ClientOptions(
+          maxIdleConnections,
+          keepAliveMillis,
+          toTimeout(arguments, "connectTimeoutMillis"),
+          toTimeout(arguments, "readTimeoutMillis"),
+          toTimeout(arguments, "writeTimeoutMillis"),
+          (Boolean) arguments.get("http2"),
+          toTimeout(arguments, "pingIntervalMillis"));
+    }
+
+    /** Whether the connection pool of the one can serve the other. */
+    boolean samePool(ClientOptions other) {
+      return equal(maxIdleConnections, other.maxIdleConnections)
+          && equal(keepAliveMillis, other.keepAliveMillis);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ClientOptions)) {
+        return false;
+      }
+      final ClientOptions other = (ClientOptions) o;
+      return samePool(other)
+          && equal(connectTimeoutMillis, other.connectTimeoutMillis)
+          && equal(readTimeoutMillis, other.readTimeoutMillis)
+          && equal(writeTimeoutMillis, other.writeTimeoutMillis)
+          && equal(http2, other.http2)
+          && equal(pingIntervalMillis, other.pingIntervalMillis);
+    }
+
+    @Override
+    public int hashCode() {
+      return java.util.Arrays.hashCode(
+          new Object[] {
+            maxIdleConnections,
+            keepAliveMillis,
+            connectTimeoutMillis,
+            readTimeoutMillis,
+            writeTimeoutMillis,
+            http2,
+            pingIntervalMillis
+          });
+    }
+
+    private static Long toTimeout(Map<String, Object> arguments, String key) {
+      final Long millis = toLong(arguments.get(key));
+      if (millis != null && millis < 0) {
+        throw new IllegalArgumentException(key + " must be >= 0 (got " + millis + ")");
+      }
+      return millis;
+    }
+
+    private static Integer toInteger(Object value) {
+      return value != null ? ((Number) value).intValue() : null;
+    }
+
+    private static Long toLong(Object value) {
+      return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private static boolean equal(Object a, Object b) {
+      return a == null ? b == null : a.equals(b);
+    }
+  }
+}
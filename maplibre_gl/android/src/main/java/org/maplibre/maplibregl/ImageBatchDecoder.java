@@ -0,0 +1,151 @@
+package org.maplibre.maplibregl;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes the images of a style#addImages call in parallel on a shared worker pool and hands them
+ * back together on the main thread, so that the style takes them in one step.
+ *
+ * <p>Decoding inline in {@code onMethodCall}, one style#addImage call per icon, kept the main thread
+ * busy for as long as all of them took in turn. Here the workers decode straight into {@link
+ * Bitmap.Config#ARGB_8888}, which is what the style stores, so it has nothing to convert.
+ *
+ * <p>The style copies the pixels of an image when it is added, so the bitmaps are free afterwards.
+ * {@link #recycle} keeps them, up to {@link #MAX_POOLED_BYTES}, and later decodes draw into one that
+ * is large enough through {@link BitmapFactory.Options#inBitmap} instead of allocating.
+ */
+final class ImageBatchDecoder {
+  private static final String TAG = "ImageBatchDecoder";
+
+  private static final int MAX_POOLED_BYTES = 4 * 1024 * 1024;
+
+  interface Callback {
+    /** Called on the main thread with one bitmap per image, null where decoding failed. */
+    void onDecoded(Bitmap[] bitmaps);
+  }
+
+  private static final ExecutorService executor =
+      Executors.newFixedThreadPool(
+          Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+          new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+              final Thread thread =
+                  new Thread(runnable, "maplibre-image-decode-" + count.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+  private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  /** Bitmaps the style is done with, to decode into. Guarded by itself, as is pooledBytes. */
+  private static final List<Bitmap> pool = new ArrayList<>();
+
+  private static int pooledBytes = 0;
+
+  private ImageBatchDecoder() {}
+
+  static void decode(List<byte[]> images, Callback callback) {
+    final int size = images.size();
+    final Bitmap[] bitmaps = new Bitmap[size];
+    if (size == 0) {
+      callback.onDecoded(bitmaps);
+      return;
+    }
+    final AtomicInteger remaining = new AtomicInteger(size);
+    for (int i = 0; i < size; i++) {
+      final int index = i;
+      final byte[] bytes = images.get(i);
+      executor.execute(
+          () -> {
+            try {
+              bitmaps[index] = decode(bytes);
+            } catch (Throwable t) {
+              // An OutOfMemoryError on a large image included: the image is
+              // skipped like one that does not decode, and the batch still ends.
+              Log.w(TAG, "Could not decode image " + index + ": " + t);
+              bitmaps[index] = null;
+            } finally {
+              if (remaining.decrementAndGet() == 0) {
+                mainHandler.post(() -> callback.onDecoded(bitmaps));
+              }
+            }
+          });
+    }
+  }
+
+  /** Takes back bitmaps whose pixels have been copied, to decode later images into. */
+  static void recycle(Collection<Bitmap> bitmaps) {
+    synchronized (pool) {
+      for (Bitmap bitmap : bitmaps) {
+        final int bytes = bitmap.getAllocationByteCount();
+        if (!bitmap.isMutable() || pooledBytes + bytes > MAX_POOLED_BYTES) {
+          continue;
+        }
+        pool.add(bitmap);
+        pooledBytes += bytes;
+      }
+    }
+  }
+
+  private static Bitmap decode(byte[] bytes) {
+    if (bytes == null) {
+      return null;
+    }
+    final BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+    if (options.outWidth <= 0 || options.outHeight <= 0) {
+      return null;
+    }
+
+    options.inJustDecodeBounds = false;
+    options.inScaled = false;
+    options.inDensity = 0;
+    options.inTargetDensity = 0;
+    options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+    options.inMutable = true;
+    options.inBitmap = take(options.outWidth * options.outHeight * 4);
+    try {
+      return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+    } catch (IllegalArgumentException e) {
+      // The pooled bitmap did not fit after all; decode into a new one.
+      Log.w(TAG, "Could not reuse a bitmap: " + e.getMessage());
+      options.inBitmap = null;
+      return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+    }
+  }
+
+  // The smallest pooled bitmap holding at least byteCount bytes, or null.
+  private static Bitmap take(int byteCount) {
+    synchronized (pool) {
+      int best = -1;
+      for (int i = 0; i < pool.size(); i++) {
+        final int bytes = pool.get(i).getAllocationByteCount();
+        if (bytes >= byteCount
+            && (best < 0 || bytes < pool.get(best).getAllocationByteCount())) {
+          best = i;
+        }
+      }
+      if (best < 0) {
+        return null;
+      }
+      final Bitmap bitmap = pool.remove(best);
+      pooledBytes -= bitmap.getAllocationByteCount();
+      return bitmap;
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package org.maplibre.maplibregl;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import io.flutter.plugin.common.BasicMessageChannel;
+import io.flutter.plugin.common.BinaryCodec;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import org.maplibre.android.maps.Style;
+import org.maplibre.android.style.sources.ImageSource;
+import org.maplibre.android.style.sources.Source;
+
+/**
+ * Receives image source frames, for animating an image source such as a radar loop, as binary
+ * messages on a channel of their own, and swaps them into the source.
+ *
+ * <p>style#updateImageSource decodes every frame into a new bitmap on the main thread, which at 10
+ * frames a second leaves tens of megabytes of garbage a second behind. Here the message handler runs
+ * on a background task queue and reads the frame straight from the message buffer, which is not
+ * copied on the way in, into one of a few pooled bitmaps: encoded images through {@link
+ * BitmapFactory.Options#inBitmap}, and raw premultiplied RGBA with no decode at all. Only {@link
+ * ImageSource#setImage}, which copies the pixels out, runs on the main thread; the bitmap goes back
+ * to the pool right after.
+ *
+ * <p>A frame is, little-endian: a kind byte ({@link #ENCODED} or {@link #RGBA}), the UTF-8 length
+ * of the source id as an int32 and the id itself, for {@link #RGBA} the width and height as int32s,
+ * and the image bytes for the rest. The reply is a status byte followed by the decode and commit
+ * times of the frame in nanoseconds as int64s, which are also added to the {@link
+ * PerformanceCounters}.
+ */
+final class ImageSourceFrames {
+  private static final String TAG = "ImageSourceFrames";
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  static final int ENCODED = 0;
+  static final int RGBA = 1;
+
+  static final int OK = 0;
+  static final int STYLE_NOT_READY = 1;
+  static final int SOURCE_NOT_FOUND = 2;
+  static final int INVALID_IMAGE = 3;
+
+  /** One frame decoding while one is committed, and one spare. */
+  private static final int MAX_POOLED = 3;
+
+  /** The style frames go to, or null while none is fully loaded. Called on the main thread. */
+  interface StyleSource {
+    Style current();
+  }
+
+  private final BasicMessageChannel<ByteBuffer> channel;
+  private final StyleSource styleSource;
+  private final PerformanceCounters counters;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  /** Bitmaps free to decode into. Guarded by itself. */
+  private final ArrayDeque<Bitmap> pool = new ArrayDeque<>();
+
+  private volatile boolean released = false;
+
+  ImageSourceFrames(
+      BinaryMessenger messenger,
+      String channelName,
+      StyleSource styleSource,
+      PerformanceCounters counters) {
+    this.styleSource = styleSource;
+    this.counters = counters;
+    this.channel =
+        new BasicMessageChannel<>(
+            messenger,
+            channelName,
+            BinaryCodec.INSTANCE_DIRECT,
+            messenger.makeBackgroundTaskQueue());
+    channel.setMessageHandler(this::onFrame);
+  }
+
+  void release() {
+    released = true;
+    channel.setMessageHandler(null);
+    synchronized (pool) {
+      pool.clear();
+    }
+  }
+
+  // On the background task queue. The message buffer is only valid until this
+  // returns, so the frame is read out of it here.
+  private void onFrame(ByteBuffer message, BasicMessageChannel.Reply<ByteBuffer> reply) {
+    final long decodeStart = SystemClock.elapsedRealtimeNanos();
+    String sourceId = null;
+    Bitmap bitmap = null;
+    try {
+      message.order(ByteOrder.LITTLE_ENDIAN);
+      final int kind = message.get();
+      final byte[] id = new byte[message.getInt()];
+      message.get(id);
+      sourceId = new String(id, UTF_8);
+      bitmap = kind == RGBA ? readRgba(message) : decode(message);
+    } catch (RuntimeException e) {
+      Log.e(TAG, "Could not read an image source frame for " + sourceId, e);
+    }
+    final long decodeNanos = SystemClock.elapsedRealtimeNanos() - decodeStart;
+    if (bitmap == null) {
+      reply.reply(status(INVALID_IMAGE, decodeNanos, 0));
+      return;
+    }
+
+    final String id = sourceId;
+    final Bitmap frame = bitmap;
+    mainHandler.post(
+        () -> {
+          final long commitStart = SystemClock.elapsedRealtimeNanos();
+          final int status = commit(id, frame);
+          final long commitNanos = SystemClock.elapsedRealtimeNanos() - commitStart;
+          recycle(frame);
+          if (status == OK) {
+            counters.increment(PerformanceCounters.IMAGE_FRAMES);
+            counters.add(PerformanceCounters.IMAGE_FRAME_DECODE_NANOS, decodeNanos);
+            counters.add(PerformanceCounters.IMAGE_FRAME_COMMIT_NANOS, commitNanos);
+          }
+          reply.reply(status(status, decodeNanos, commitNanos));
+        });
+  }
+
+  private int commit(String sourceId, Bitmap frame) {
+    final Style style = released ? null : styleSource.current();
+    if (style == null) {
+      return STYLE_NOT_READY;
+    }
+    final Source source = style.getSource(sourceId);
+    if (!(source instanceof ImageSource)) {
+      return SOURCE_NOT_FOUND;
+    }
+    ((ImageSource) source).setImage(frame);
+    return OK;
+  }
+
+  private Bitmap readRgba(ByteBuffer message) {
+    final int width = message.getInt();
+    final int height = message.getInt();
+    if (width <= 0 || height <= 0 || message.remaining() < width * height * 4) {
+      return null;
+    }
+    Bitmap bitmap = take(width * height * 4);
+    if (bitmap == null) {
+      bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    } else {
+      bitmap.reconfigure(width, height, Bitmap.Config.ARGB_8888);
+    }
+    bitmap.copyPixelsFromBuffer(message);
+    return bitmap;
+  }
+
+  private Bitmap decode(ByteBuffer message) {
+    final int start = message.position();
+    final BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeStream(new ByteBufferInputStream(message), null, options);
+    if (options.outWidth <= 0 || options.outHeight <= 0) {
+      return null;
+    }
+
+    message.position(start);
+    options.inJustDecodeBounds = false;
+    options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+    options.inMutable = true;
+    options.inBitmap = take(options.outWidth * options.outHeight * 4);
+    try {
+      return BitmapFactory.decodeStream(new ByteBufferInputStream(message), null, options);
+    } catch (IllegalArgumentException e) {
+      // The pooled bitmap did not fit after all; decode into a new one.
+      message.position(start);
+      options.inBitmap = null;
+      return BitmapFactory.decodeStream(new ByteBufferInputStream(message), null, options);
+    }
+  }
+
+  // A pooled bitmap holding at least byteCount bytes, or null.
+  private Bitmap take(int byteCount) {
+    synchronized (pool) {
+      for (Bitmap bitmap : pool) {
+        if (bitmap.getAllocationByteCount() >= byteCount) {
+          pool.remove(bitmap);
+          return bitmap;
+        }
+      }
+      return null;
+    }
+  }
+
+  private void recycle(Bitmap bitmap) {
+    if (released || !bitmap.isMutable()) {
+      return;
+    }
+    synchronized (pool) {
+      if (pool.size() >= MAX_POOLED) {
+        pool.removeFirst();
+      }
+      pool.addLast(bitmap);
+    }
+  }
+
+  private static ByteBuffer status(int status, long decodeNanos, long commitNanos) {
+    final ByteBuffer reply = ByteBuffer.allocateDirect(1 + 8 + 8).order(ByteOrder.LITTLE_ENDIAN);
+    reply.put((byte) status);
+    reply.putLong(decodeNanos);
+    reply.putLong(commitNanos);
+    return reply;
+  }
+
+  /** Reads the rest of a buffer without copying it into an array first. */
+  private static final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      final int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package org.maplibre.maplibregl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.maplibre.android.maps.Style;
+import org.maplibre.android.style.layers.CircleLayer;
+import org.maplibre.android.style.layers.FillExtrusionLayer;
+import org.maplibre.android.style.layers.FillLayer;
+import org.maplibre.android.style.layers.Layer;
+import org.maplibre.android.style.layers.LineLayer;
+import org.maplibre.android.style.layers.SymbolLayer;
+
+/**
+ * The interactive layers of the style, topmost first, worked out once and kept until the style or
+ * its layers change.
+ *
+ * <p>Every tap and every drag start looks for the topmost interactive feature under the finger. That
+ * copied {@link Style#getLayers()}, filtered and reversed it each time, then queried the layers one
+ * by one. The order only changes when layers are added, removed or moved, so it is kept here,
+ * along with the source each of those layers draws.
+ *
+ * <p>The controller calls {@link #invalidate()} whenever it changes the style, which covers every
+ * change to the set of interactive layers as well. Like {@link StyleJsonIndex}, the order is also
+ * worked out again when asked about a different {@link Style} than it was built from.
+ *
+ * <p>All methods are called on the main thread.
+ */
+final class InteractiveLayerOrder {
+  private static final String[] NONE = new String[0];
+
+  private Style orderedStyle;
+  private String[] topDown;
+  private String[] sourceIds;
+
+  /** Drops the order; the next lookup reads the style's layers again. */
+  void invalidate() {
+    orderedStyle = null;
+    topDown = null;
+    sourceIds = null;
+  }
+
+  /**
+   * The ids of the style's layers that are in {@code interactiveLayerIds}, topmost first.
+   *
+   * @throws IllegalStateException if the style is no longer valid, as {@link Style#getLayers()}
+   *     does.
+   */
+  String[] topDown(Style style, Set<String> interactiveLayerIds) {
+    if (style == orderedStyle && topDown != null) {
+      return topDown;
+    }
+    if (interactiveLayerIds.isEmpty()) {
+      return NONE;
+    }
+    final List<Layer> layers = style.getLayers();
+    final List<String> ids = new ArrayList<>(interactiveLayerIds.size());
+    final List<String> sources = new ArrayList<>(interactiveLayerIds.size());
+    for (int i = layers.size() - 1; i >= 0; i--) {
+      final Layer layer = layers.get(i);
+      final String id = layer.getId();
+      if (interactiveLayerIds.contains(id)) {
+        ids.add(id);
+        sources.add(sourceId(layer));
+      }
+    }
+    topDown = ids.toArray(NONE);
+    sourceIds = sources.toArray(NONE);
+    orderedStyle = style;
+    return topDown;
+  }
+
+  /**
+   * The source drawn by each layer of the last {@link #topDown} answer, in the same order, or null
+   * where the layer has none.
+   */
+  String[] sourceIds() {
+    return sourceIds != null ? sourceIds : NONE;
+  }
+
+  // The layer types addSymbolLayer and its siblings can make interactive.
+  private static String sourceId(Layer layer) {
+    if (layer instanceof SymbolLayer) {
+      return ((SymbolLayer) layer).getSourceId();
+    } else if (layer instanceof LineLayer) {
+      return ((LineLayer) layer).getSourceId();
+    } else if (layer instanceof FillLayer) {
+      return ((FillLayer) layer).getSourceId();
+    } else if (layer instanceof FillExtrusionLayer) {
+      return ((FillExtrusionLayer) layer).getSourceId();
+    } else if (layer instanceof CircleLayer) {
+      return ((CircleLayer) layer).getSourceId();
+    }
+    return null;
+  }
+}
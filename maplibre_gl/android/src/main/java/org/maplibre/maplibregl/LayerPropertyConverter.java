@@ -3,13 +3,19 @@
 
 package org.maplibre.maplibregl;
 
+import android.util.Log;
+
 import org.maplibre.android.style.expressions.Expression;
 import org.maplibre.android.style.layers.PropertyFactory;
 import org.maplibre.android.style.layers.PropertyValue;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
@@ -19,754 +25,546 @@ import com.google.gson.JsonPrimitive;
 import static org.maplibre.maplibregl.Convert.toMap;
 
 class LayerPropertyConverter {
+  private static final String TAG = "LayerPropertyConverter";
+
+  /** Builds one property from its value, as both the Gson tree and the expression. */
+  interface PropertyBuilder {
+    PropertyValue build(JsonElement jsonElement, Expression expression);
+  }
+
+  // Gson is thread-safe, so one instance serves every call.
+  private static final Gson GSON = new Gson();
+  private static final PropertyValueCache CACHE = new PropertyValueCache();
+
+  /**
+   * The unknown properties already logged, as "layerType/name". Animations convert their
+   * properties every frame, so each is only logged the first time.
+   */
+  private static final Set<String> REPORTED_UNKNOWN =
+      Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  private static final Map<String, PropertyBuilder> SYMBOL_PROPERTIES = symbolProperties();
+
   static PropertyValue[] interpretSymbolLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("symbol", o, SYMBOL_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "icon-opacity":
-          properties.add(PropertyFactory.iconOpacity(expression));
-          break;
-        case "icon-color":
-          properties.add(PropertyFactory.iconColor(expression));
-          break;
-        case "icon-halo-color":
-          properties.add(PropertyFactory.iconHaloColor(expression));
-          break;
-        case "icon-halo-width":
-          properties.add(PropertyFactory.iconHaloWidth(expression));
-          break;
-        case "icon-halo-blur":
-          properties.add(PropertyFactory.iconHaloBlur(expression));
-          break;
-        case "icon-translate":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.iconTranslate(floatArray));
-            } else {
-              properties.add(PropertyFactory.iconTranslate(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.iconTranslate(expression));
-          }
-          break;
-        case "icon-translate-anchor":
-          properties.add(PropertyFactory.iconTranslateAnchor(expression));
-          break;
-        case "text-opacity":
-          properties.add(PropertyFactory.textOpacity(expression));
-          break;
-        case "text-color":
-          properties.add(PropertyFactory.textColor(expression));
-          break;
-        case "text-halo-color":
-          properties.add(PropertyFactory.textHaloColor(expression));
-          break;
-        case "text-halo-width":
-          properties.add(PropertyFactory.textHaloWidth(expression));
-          break;
-        case "text-halo-blur":
-          properties.add(PropertyFactory.textHaloBlur(expression));
-          break;
-        case "text-translate":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.textTranslate(floatArray));
-            } else {
-              properties.add(PropertyFactory.textTranslate(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.textTranslate(expression));
-          }
-          break;
-        case "text-translate-anchor":
-          properties.add(PropertyFactory.textTranslateAnchor(expression));
-          break;
-        case "symbol-placement":
-          properties.add(PropertyFactory.symbolPlacement(expression));
-          break;
-        case "symbol-spacing":
-          properties.add(PropertyFactory.symbolSpacing(expression));
-          break;
-        case "symbol-avoid-edges":
-          properties.add(PropertyFactory.symbolAvoidEdges(expression));
-          break;
-        case "symbol-sort-key":
-          properties.add(PropertyFactory.symbolSortKey(expression));
-          break;
-        case "symbol-z-order":
-          properties.add(PropertyFactory.symbolZOrder(expression));
-          break;
-        case "icon-allow-overlap":
-          properties.add(PropertyFactory.iconAllowOverlap(expression));
-          break;
-        case "icon-ignore-placement":
-          properties.add(PropertyFactory.iconIgnorePlacement(expression));
-          break;
-        case "icon-optional":
-          properties.add(PropertyFactory.iconOptional(expression));
-          break;
-        case "icon-rotation-alignment":
-          properties.add(PropertyFactory.iconRotationAlignment(expression));
-          break;
-        case "icon-size":
-          properties.add(PropertyFactory.iconSize(expression));
-          break;
-        case "icon-text-fit":
-          properties.add(PropertyFactory.iconTextFit(expression));
-          break;
-        case "icon-text-fit-padding":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.iconTextFitPadding(floatArray));
-            } else {
-              properties.add(PropertyFactory.iconTextFitPadding(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.iconTextFitPadding(expression));
-          }
-          break;
-        case "icon-image":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.iconImage(jsonElement.getAsString()));
-          } else {
-            properties.add(PropertyFactory.iconImage(expression));
-          }
-          break;
-        case "icon-rotate":
-          properties.add(PropertyFactory.iconRotate(expression));
-          break;
-        case "icon-padding":
-          properties.add(PropertyFactory.iconPadding(expression));
-          break;
-        case "icon-keep-upright":
-          properties.add(PropertyFactory.iconKeepUpright(expression));
-          break;
-        case "icon-offset":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.iconOffset(floatArray));
-            } else {
-              properties.add(PropertyFactory.iconOffset(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.iconOffset(expression));
-          }
-          break;
-        case "icon-anchor":
-          properties.add(PropertyFactory.iconAnchor(expression));
-          break;
-        case "icon-pitch-alignment":
-          properties.add(PropertyFactory.iconPitchAlignment(expression));
-          break;
-        case "text-pitch-alignment":
-          properties.add(PropertyFactory.textPitchAlignment(expression));
-          break;
-        case "text-rotation-alignment":
-          properties.add(PropertyFactory.textRotationAlignment(expression));
-          break;
-        case "text-field":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.textField(jsonElement.getAsString()));
-          } else {
-            properties.add(PropertyFactory.textField(expression));
-          }
-          break;
-        case "text-font":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final String[] stringArray = convertJsonToStringArray(jsonElement);
-            if (stringArray != null) {
-              properties.add(PropertyFactory.textFont(stringArray));
-            } else {
-              properties.add(PropertyFactory.textFont(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.textFont(expression));
-          }
-          break;
-        case "text-size":
-          properties.add(PropertyFactory.textSize(expression));
-          break;
-        case "text-max-width":
-          properties.add(PropertyFactory.textMaxWidth(expression));
-          break;
-        case "text-line-height":
-          properties.add(PropertyFactory.textLineHeight(expression));
-          break;
-        case "text-letter-spacing":
-          properties.add(PropertyFactory.textLetterSpacing(expression));
-          break;
-        case "text-justify":
-          properties.add(PropertyFactory.textJustify(expression));
-          break;
-        case "text-radial-offset":
-          properties.add(PropertyFactory.textRadialOffset(expression));
-          break;
-        case "text-variable-anchor":
-          properties.add(PropertyFactory.textVariableAnchor(expression));
-          break;
-        case "text-variable-anchor-offset":
-          properties.add(PropertyFactory.textVariableAnchorOffset(expression));
-          break;
-        case "text-anchor":
-          properties.add(PropertyFactory.textAnchor(expression));
-          break;
-        case "text-max-angle":
-          properties.add(PropertyFactory.textMaxAngle(expression));
-          break;
-        case "text-writing-mode":
-          properties.add(PropertyFactory.textWritingMode(expression));
-          break;
-        case "text-rotate":
-          properties.add(PropertyFactory.textRotate(expression));
-          break;
-        case "text-padding":
-          properties.add(PropertyFactory.textPadding(expression));
-          break;
-        case "text-keep-upright":
-          properties.add(PropertyFactory.textKeepUpright(expression));
-          break;
-        case "text-transform":
-          properties.add(PropertyFactory.textTransform(expression));
-          break;
-        case "text-offset":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.textOffset(floatArray));
-            } else {
-              properties.add(PropertyFactory.textOffset(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.textOffset(expression));
-          }
-          break;
-        case "text-allow-overlap":
-          properties.add(PropertyFactory.textAllowOverlap(expression));
-          break;
-        case "text-ignore-placement":
-          properties.add(PropertyFactory.textIgnorePlacement(expression));
-          break;
-        case "text-optional":
-          properties.add(PropertyFactory.textOptional(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> symbolProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("icon-opacity", (jsonElement, expression) -> PropertyFactory.iconOpacity(expression));
+    properties.put("icon-color", (jsonElement, expression) -> PropertyFactory.iconColor(expression));
+    properties.put("icon-halo-color", (jsonElement, expression) -> PropertyFactory.iconHaloColor(expression));
+    properties.put("icon-halo-width", (jsonElement, expression) -> PropertyFactory.iconHaloWidth(expression));
+    properties.put("icon-halo-blur", (jsonElement, expression) -> PropertyFactory.iconHaloBlur(expression));
+    properties.put("icon-translate", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.iconTranslate(floatArray);
+        } else {
+          return PropertyFactory.iconTranslate(expression);
+        }
+      } else {
+        return PropertyFactory.iconTranslate(expression);
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+    });
+    properties.put("icon-translate-anchor", (jsonElement, expression) -> PropertyFactory.iconTranslateAnchor(expression));
+    properties.put("text-opacity", (jsonElement, expression) -> PropertyFactory.textOpacity(expression));
+    properties.put("text-color", (jsonElement, expression) -> PropertyFactory.textColor(expression));
+    properties.put("text-halo-color", (jsonElement, expression) -> PropertyFactory.textHaloColor(expression));
+    properties.put("text-halo-width", (jsonElement, expression) -> PropertyFactory.textHaloWidth(expression));
+    properties.put("text-halo-blur", (jsonElement, expression) -> PropertyFactory.textHaloBlur(expression));
+    properties.put("text-translate", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.textTranslate(floatArray);
+        } else {
+          return PropertyFactory.textTranslate(expression);
+        }
+      } else {
+        return PropertyFactory.textTranslate(expression);
+      }
+    });
+    properties.put("text-translate-anchor", (jsonElement, expression) -> PropertyFactory.textTranslateAnchor(expression));
+    properties.put("symbol-placement", (jsonElement, expression) -> PropertyFactory.symbolPlacement(expression));
+    properties.put("symbol-spacing", (jsonElement, expression) -> PropertyFactory.symbolSpacing(expression));
+    properties.put("symbol-avoid-edges", (jsonElement, expression) -> PropertyFactory.symbolAvoidEdges(expression));
+    properties.put("symbol-sort-key", (jsonElement, expression) -> PropertyFactory.symbolSortKey(expression));
+    properties.put("symbol-z-order", (jsonElement, expression) -> PropertyFactory.symbolZOrder(expression));
+    properties.put("icon-allow-overlap", (jsonElement, expression) -> PropertyFactory.iconAllowOverlap(expression));
+    properties.put("icon-ignore-placement", (jsonElement, expression) -> PropertyFactory.iconIgnorePlacement(expression));
+    properties.put("icon-optional", (jsonElement, expression) -> PropertyFactory.iconOptional(expression));
+    properties.put("icon-rotation-alignment", (jsonElement, expression) -> PropertyFactory.iconRotationAlignment(expression));
+    properties.put("icon-size", (jsonElement, expression) -> PropertyFactory.iconSize(expression));
+    properties.put("icon-text-fit", (jsonElement, expression) -> PropertyFactory.iconTextFit(expression));
+    properties.put("icon-text-fit-padding", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.iconTextFitPadding(floatArray);
+        } else {
+          return PropertyFactory.iconTextFitPadding(expression);
+        }
+      } else {
+        return PropertyFactory.iconTextFitPadding(expression);
+      }
+    });
+    properties.put("icon-image", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.iconImage(jsonElement.getAsString());
+      } else {
+        return PropertyFactory.iconImage(expression);
+      }
+    });
+    properties.put("icon-rotate", (jsonElement, expression) -> PropertyFactory.iconRotate(expression));
+    properties.put("icon-padding", (jsonElement, expression) -> PropertyFactory.iconPadding(expression));
+    properties.put("icon-keep-upright", (jsonElement, expression) -> PropertyFactory.iconKeepUpright(expression));
+    properties.put("icon-offset", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.iconOffset(floatArray);
+        } else {
+          return PropertyFactory.iconOffset(expression);
+        }
+      } else {
+        return PropertyFactory.iconOffset(expression);
+      }
+    });
+    properties.put("icon-anchor", (jsonElement, expression) -> PropertyFactory.iconAnchor(expression));
+    properties.put("icon-pitch-alignment", (jsonElement, expression) -> PropertyFactory.iconPitchAlignment(expression));
+    properties.put("text-pitch-alignment", (jsonElement, expression) -> PropertyFactory.textPitchAlignment(expression));
+    properties.put("text-rotation-alignment", (jsonElement, expression) -> PropertyFactory.textRotationAlignment(expression));
+    properties.put("text-field", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.textField(jsonElement.getAsString());
+      } else {
+        return PropertyFactory.textField(expression);
+      }
+    });
+    properties.put("text-font", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final String[] stringArray = convertJsonToStringArray(jsonElement);
+        if (stringArray != null) {
+          return PropertyFactory.textFont(stringArray);
+        } else {
+          return PropertyFactory.textFont(expression);
+        }
+      } else {
+        return PropertyFactory.textFont(expression);
+      }
+    });
+    properties.put("text-size", (jsonElement, expression) -> PropertyFactory.textSize(expression));
+    properties.put("text-max-width", (jsonElement, expression) -> PropertyFactory.textMaxWidth(expression));
+    properties.put("text-line-height", (jsonElement, expression) -> PropertyFactory.textLineHeight(expression));
+    properties.put("text-letter-spacing", (jsonElement, expression) -> PropertyFactory.textLetterSpacing(expression));
+    properties.put("text-justify", (jsonElement, expression) -> PropertyFactory.textJustify(expression));
+    properties.put("text-radial-offset", (jsonElement, expression) -> PropertyFactory.textRadialOffset(expression));
+    properties.put("text-variable-anchor", (jsonElement, expression) -> PropertyFactory.textVariableAnchor(expression));
+    properties.put("text-variable-anchor-offset", (jsonElement, expression) -> PropertyFactory.textVariableAnchorOffset(expression));
+    properties.put("text-anchor", (jsonElement, expression) -> PropertyFactory.textAnchor(expression));
+    properties.put("text-max-angle", (jsonElement, expression) -> PropertyFactory.textMaxAngle(expression));
+    properties.put("text-writing-mode", (jsonElement, expression) -> PropertyFactory.textWritingMode(expression));
+    properties.put("text-rotate", (jsonElement, expression) -> PropertyFactory.textRotate(expression));
+    properties.put("text-padding", (jsonElement, expression) -> PropertyFactory.textPadding(expression));
+    properties.put("text-keep-upright", (jsonElement, expression) -> PropertyFactory.textKeepUpright(expression));
+    properties.put("text-transform", (jsonElement, expression) -> PropertyFactory.textTransform(expression));
+    properties.put("text-offset", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.textOffset(floatArray);
+        } else {
+          return PropertyFactory.textOffset(expression);
+        }
+      } else {
+        return PropertyFactory.textOffset(expression);
+      }
+    });
+    properties.put("text-allow-overlap", (jsonElement, expression) -> PropertyFactory.textAllowOverlap(expression));
+    properties.put("text-ignore-placement", (jsonElement, expression) -> PropertyFactory.textIgnorePlacement(expression));
+    properties.put("text-optional", (jsonElement, expression) -> PropertyFactory.textOptional(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
+      }
+      return null;
+    });
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> CIRCLE_PROPERTIES = circleProperties();
+
   static PropertyValue[] interpretCircleLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("circle", o, CIRCLE_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "circle-radius":
-          properties.add(PropertyFactory.circleRadius(expression));
-          break;
-        case "circle-color":
-          properties.add(PropertyFactory.circleColor(expression));
-          break;
-        case "circle-blur":
-          properties.add(PropertyFactory.circleBlur(expression));
-          break;
-        case "circle-opacity":
-          properties.add(PropertyFactory.circleOpacity(expression));
-          break;
-        case "circle-translate":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.circleTranslate(floatArray));
-            } else {
-              properties.add(PropertyFactory.circleTranslate(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.circleTranslate(expression));
-          }
-          break;
-        case "circle-translate-anchor":
-          properties.add(PropertyFactory.circleTranslateAnchor(expression));
-          break;
-        case "circle-pitch-scale":
-          properties.add(PropertyFactory.circlePitchScale(expression));
-          break;
-        case "circle-pitch-alignment":
-          properties.add(PropertyFactory.circlePitchAlignment(expression));
-          break;
-        case "circle-stroke-width":
-          properties.add(PropertyFactory.circleStrokeWidth(expression));
-          break;
-        case "circle-stroke-color":
-          properties.add(PropertyFactory.circleStrokeColor(expression));
-          break;
-        case "circle-stroke-opacity":
-          properties.add(PropertyFactory.circleStrokeOpacity(expression));
-          break;
-        case "circle-sort-key":
-          properties.add(PropertyFactory.circleSortKey(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> circleProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("circle-radius", (jsonElement, expression) -> PropertyFactory.circleRadius(expression));
+    properties.put("circle-color", (jsonElement, expression) -> PropertyFactory.circleColor(expression));
+    properties.put("circle-blur", (jsonElement, expression) -> PropertyFactory.circleBlur(expression));
+    properties.put("circle-opacity", (jsonElement, expression) -> PropertyFactory.circleOpacity(expression));
+    properties.put("circle-translate", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.circleTranslate(floatArray);
+        } else {
+          return PropertyFactory.circleTranslate(expression);
+        }
+      } else {
+        return PropertyFactory.circleTranslate(expression);
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+    });
+    properties.put("circle-translate-anchor", (jsonElement, expression) -> PropertyFactory.circleTranslateAnchor(expression));
+    properties.put("circle-pitch-scale", (jsonElement, expression) -> PropertyFactory.circlePitchScale(expression));
+    properties.put("circle-pitch-alignment", (jsonElement, expression) -> PropertyFactory.circlePitchAlignment(expression));
+    properties.put("circle-stroke-width", (jsonElement, expression) -> PropertyFactory.circleStrokeWidth(expression));
+    properties.put("circle-stroke-color", (jsonElement, expression) -> PropertyFactory.circleStrokeColor(expression));
+    properties.put("circle-stroke-opacity", (jsonElement, expression) -> PropertyFactory.circleStrokeOpacity(expression));
+    properties.put("circle-sort-key", (jsonElement, expression) -> PropertyFactory.circleSortKey(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
+      }
+      return null;
+    });
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> LINE_PROPERTIES = lineProperties();
+
   static PropertyValue[] interpretLineLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("line", o, LINE_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "line-opacity":
-          properties.add(PropertyFactory.lineOpacity(expression));
-          break;
-        case "line-color":
-          properties.add(PropertyFactory.lineColor(expression));
-          break;
-        case "line-translate":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.lineTranslate(floatArray));
-            } else {
-              properties.add(PropertyFactory.lineTranslate(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.lineTranslate(expression));
-          }
-          break;
-        case "line-translate-anchor":
-          properties.add(PropertyFactory.lineTranslateAnchor(expression));
-          break;
-        case "line-width":
-          properties.add(PropertyFactory.lineWidth(expression));
-          break;
-        case "line-gap-width":
-          properties.add(PropertyFactory.lineGapWidth(expression));
-          break;
-        case "line-offset":
-          properties.add(PropertyFactory.lineOffset(expression));
-          break;
-        case "line-blur":
-          properties.add(PropertyFactory.lineBlur(expression));
-          break;
-        case "line-dasharray":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.lineDasharray(floatArray));
-            } else {
-              properties.add(PropertyFactory.lineDasharray(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.lineDasharray(expression));
-          }
-          break;
-        case "line-pattern":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.linePattern(jsonElement.getAsString()));
-          } else {
-            properties.add(PropertyFactory.linePattern(expression));
-          }
-          break;
-        case "line-gradient":
-          properties.add(PropertyFactory.lineGradient(expression));
-          break;
-        case "line-cap":
-          properties.add(PropertyFactory.lineCap(expression));
-          break;
-        case "line-join":
-          properties.add(PropertyFactory.lineJoin(expression));
-          break;
-        case "line-miter-limit":
-          properties.add(PropertyFactory.lineMiterLimit(expression));
-          break;
-        case "line-round-limit":
-          properties.add(PropertyFactory.lineRoundLimit(expression));
-          break;
-        case "line-sort-key":
-          properties.add(PropertyFactory.lineSortKey(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> lineProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("line-opacity", (jsonElement, expression) -> PropertyFactory.lineOpacity(expression));
+    properties.put("line-color", (jsonElement, expression) -> PropertyFactory.lineColor(expression));
+    properties.put("line-translate", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.lineTranslate(floatArray);
+        } else {
+          return PropertyFactory.lineTranslate(expression);
+        }
+      } else {
+        return PropertyFactory.lineTranslate(expression);
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+    });
+    properties.put("line-translate-anchor", (jsonElement, expression) -> PropertyFactory.lineTranslateAnchor(expression));
+    properties.put("line-width", (jsonElement, expression) -> PropertyFactory.lineWidth(expression));
+    properties.put("line-gap-width", (jsonElement, expression) -> PropertyFactory.lineGapWidth(expression));
+    properties.put("line-offset", (jsonElement, expression) -> PropertyFactory.lineOffset(expression));
+    properties.put("line-blur", (jsonElement, expression) -> PropertyFactory.lineBlur(expression));
+    properties.put("line-dasharray", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.lineDasharray(floatArray);
+        } else {
+          return PropertyFactory.lineDasharray(expression);
+        }
+      } else {
+        return PropertyFactory.lineDasharray(expression);
+      }
+    });
+    properties.put("line-pattern", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.linePattern(jsonElement.getAsString());
+      } else {
+        return PropertyFactory.linePattern(expression);
+      }
+    });
+    properties.put("line-gradient", (jsonElement, expression) -> PropertyFactory.lineGradient(expression));
+    properties.put("line-cap", (jsonElement, expression) -> PropertyFactory.lineCap(expression));
+    properties.put("line-join", (jsonElement, expression) -> PropertyFactory.lineJoin(expression));
+    properties.put("line-miter-limit", (jsonElement, expression) -> PropertyFactory.lineMiterLimit(expression));
+    properties.put("line-round-limit", (jsonElement, expression) -> PropertyFactory.lineRoundLimit(expression));
+    properties.put("line-sort-key", (jsonElement, expression) -> PropertyFactory.lineSortKey(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
+      }
+      return null;
+    });
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> FILL_PROPERTIES = fillProperties();
+
   static PropertyValue[] interpretFillLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("fill", o, FILL_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "fill-antialias":
-          properties.add(PropertyFactory.fillAntialias(expression));
-          break;
-        case "fill-opacity":
-          properties.add(PropertyFactory.fillOpacity(expression));
-          break;
-        case "fill-color":
-          properties.add(PropertyFactory.fillColor(expression));
-          break;
-        case "fill-outline-color":
-          properties.add(PropertyFactory.fillOutlineColor(expression));
-          break;
-        case "fill-translate":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.fillTranslate(floatArray));
-            } else {
-              properties.add(PropertyFactory.fillTranslate(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.fillTranslate(expression));
-          }
-          break;
-        case "fill-translate-anchor":
-          properties.add(PropertyFactory.fillTranslateAnchor(expression));
-          break;
-        case "fill-pattern":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.fillPattern(jsonElement.getAsString()));
-          } else {
-            properties.add(PropertyFactory.fillPattern(expression));
-          }
-          break;
-        case "fill-sort-key":
-          properties.add(PropertyFactory.fillSortKey(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> fillProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("fill-antialias", (jsonElement, expression) -> PropertyFactory.fillAntialias(expression));
+    properties.put("fill-opacity", (jsonElement, expression) -> PropertyFactory.fillOpacity(expression));
+    properties.put("fill-color", (jsonElement, expression) -> PropertyFactory.fillColor(expression));
+    properties.put("fill-outline-color", (jsonElement, expression) -> PropertyFactory.fillOutlineColor(expression));
+    properties.put("fill-translate", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.fillTranslate(floatArray);
+        } else {
+          return PropertyFactory.fillTranslate(expression);
+        }
+      } else {
+        return PropertyFactory.fillTranslate(expression);
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+    });
+    properties.put("fill-translate-anchor", (jsonElement, expression) -> PropertyFactory.fillTranslateAnchor(expression));
+    properties.put("fill-pattern", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.fillPattern(jsonElement.getAsString());
+      } else {
+        return PropertyFactory.fillPattern(expression);
+      }
+    });
+    properties.put("fill-sort-key", (jsonElement, expression) -> PropertyFactory.fillSortKey(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
+      }
+      return null;
+    });
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> FILL_EXTRUSION_PROPERTIES = fillExtrusionProperties();
+
   static PropertyValue[] interpretFillExtrusionLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("fill-extrusion", o, FILL_EXTRUSION_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "fill-extrusion-opacity":
-          properties.add(PropertyFactory.fillExtrusionOpacity(expression));
-          break;
-        case "fill-extrusion-color":
-          properties.add(PropertyFactory.fillExtrusionColor(expression));
-          break;
-        case "fill-extrusion-translate":
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            final Float[] floatArray = convertJsonToFloatArray(jsonElement);
-            if (floatArray != null) {
-              properties.add(PropertyFactory.fillExtrusionTranslate(floatArray));
-            } else {
-              properties.add(PropertyFactory.fillExtrusionTranslate(expression));
-            }
-          } else {
-            properties.add(PropertyFactory.fillExtrusionTranslate(expression));
-          }
-          break;
-        case "fill-extrusion-translate-anchor":
-          properties.add(PropertyFactory.fillExtrusionTranslateAnchor(expression));
-          break;
-        case "fill-extrusion-pattern":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.fillExtrusionPattern(jsonElement.getAsString()));
-          } else {
-            properties.add(PropertyFactory.fillExtrusionPattern(expression));
-          }
-          break;
-        case "fill-extrusion-height":
-          properties.add(PropertyFactory.fillExtrusionHeight(expression));
-          break;
-        case "fill-extrusion-base":
-          properties.add(PropertyFactory.fillExtrusionBase(expression));
-          break;
-        case "fill-extrusion-vertical-gradient":
-          properties.add(PropertyFactory.fillExtrusionVerticalGradient(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        case "fill-extrusion-rounded-corner-distance":
-          properties.add(PropertyFactory.fillExtrusionRoundedCornerDistance(expression));
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> fillExtrusionProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("fill-extrusion-opacity", (jsonElement, expression) -> PropertyFactory.fillExtrusionOpacity(expression));
+    properties.put("fill-extrusion-color", (jsonElement, expression) -> PropertyFactory.fillExtrusionColor(expression));
+    properties.put("fill-extrusion-translate", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonArray()) {
+        final Float[] floatArray = convertJsonToFloatArray(jsonElement);
+        if (floatArray != null) {
+          return PropertyFactory.fillExtrusionTranslate(floatArray);
+        } else {
+          return PropertyFactory.fillExtrusionTranslate(expression);
+        }
+      } else {
+        return PropertyFactory.fillExtrusionTranslate(expression);
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+    });
+    properties.put("fill-extrusion-translate-anchor", (jsonElement, expression) -> PropertyFactory.fillExtrusionTranslateAnchor(expression));
+    properties.put("fill-extrusion-pattern", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.fillExtrusionPattern(jsonElement.getAsString());
+      } else {
+        return PropertyFactory.fillExtrusionPattern(expression);
+      }
+    });
+    properties.put("fill-extrusion-height", (jsonElement, expression) -> PropertyFactory.fillExtrusionHeight(expression));
+    properties.put("fill-extrusion-base", (jsonElement, expression) -> PropertyFactory.fillExtrusionBase(expression));
+    properties.put("fill-extrusion-vertical-gradient", (jsonElement, expression) -> PropertyFactory.fillExtrusionVerticalGradient(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
+      }
+      return null;
+    });
+    properties.put("fill-extrusion-rounded-corner-distance", (jsonElement, expression) -> PropertyFactory.fillExtrusionRoundedCornerDistance(expression));
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> RASTER_PROPERTIES = rasterProperties();
+
   static PropertyValue[] interpretRasterLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("raster", o, RASTER_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "raster-opacity":
-          properties.add(PropertyFactory.rasterOpacity(expression));
-          break;
-        case "raster-hue-rotate":
-          properties.add(PropertyFactory.rasterHueRotate(expression));
-          break;
-        case "raster-brightness-min":
-          properties.add(PropertyFactory.rasterBrightnessMin(expression));
-          break;
-        case "raster-brightness-max":
-          properties.add(PropertyFactory.rasterBrightnessMax(expression));
-          break;
-        case "raster-saturation":
-          properties.add(PropertyFactory.rasterSaturation(expression));
-          break;
-        case "raster-contrast":
-          properties.add(PropertyFactory.rasterContrast(expression));
-          break;
-        case "raster-resampling":
-          properties.add(PropertyFactory.rasterResampling(expression));
-          break;
-        case "raster-fade-duration":
-          properties.add(PropertyFactory.rasterFadeDuration(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> rasterProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("raster-opacity", (jsonElement, expression) -> PropertyFactory.rasterOpacity(expression));
+    properties.put("raster-hue-rotate", (jsonElement, expression) -> PropertyFactory.rasterHueRotate(expression));
+    properties.put("raster-brightness-min", (jsonElement, expression) -> PropertyFactory.rasterBrightnessMin(expression));
+    properties.put("raster-brightness-max", (jsonElement, expression) -> PropertyFactory.rasterBrightnessMax(expression));
+    properties.put("raster-saturation", (jsonElement, expression) -> PropertyFactory.rasterSaturation(expression));
+    properties.put("raster-contrast", (jsonElement, expression) -> PropertyFactory.rasterContrast(expression));
+    properties.put("raster-resampling", (jsonElement, expression) -> PropertyFactory.rasterResampling(expression));
+    properties.put("raster-fade-duration", (jsonElement, expression) -> PropertyFactory.rasterFadeDuration(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+      return null;
+    });
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> HILLSHADE_PROPERTIES = hillshadeProperties();
+
   static PropertyValue[] interpretHillshadeLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("hillshade", o, HILLSHADE_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "hillshade-illumination-direction": {
-          final Float[] numberArray = wrapValueAsArray(jsonElement);
-          if (numberArray != null) {
-            properties.add(PropertyFactory.hillshadeIlluminationDirection(numberArray));
-          } else {
-            properties.add(PropertyFactory.hillshadeIlluminationDirection(expression));
-          }
-        }
-          break;
-        case "hillshade-illumination-altitude": {
-          final Float[] numberArray = wrapValueAsArray(jsonElement);
-          if (numberArray != null) {
-            properties.add(PropertyFactory.hillshadeIlluminationAltitude(numberArray));
-          } else {
-            properties.add(PropertyFactory.hillshadeIlluminationAltitude(expression));
-          }
-        }
-          break;
-        case "hillshade-illumination-anchor":
-          properties.add(PropertyFactory.hillshadeIlluminationAnchor(expression));
-          break;
-        case "hillshade-exaggeration":
-          properties.add(PropertyFactory.hillshadeExaggeration(expression));
-          break;
-        case "hillshade-shadow-color": {
-          final String[] colorArray = wrapColorAsArray(jsonElement);
-          if (colorArray != null) {
-            properties.add(PropertyFactory.hillshadeShadowColor(colorArray));
-          } else {
-            properties.add(PropertyFactory.hillshadeShadowColor(expression));
-          }
-        }
-          break;
-        case "hillshade-highlight-color": {
-          final String[] colorArray = wrapColorAsArray(jsonElement);
-          if (colorArray != null) {
-            properties.add(PropertyFactory.hillshadeHighlightColor(colorArray));
-          } else {
-            properties.add(PropertyFactory.hillshadeHighlightColor(expression));
-          }
-        }
-          break;
-        case "hillshade-accent-color":
-          properties.add(PropertyFactory.hillshadeAccentColor(expression));
-          break;
-        case "hillshade-method":
-          properties.add(PropertyFactory.hillshadeMethod(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> hillshadeProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("hillshade-illumination-direction", (jsonElement, expression) -> {
+      final Float[] numberArray = wrapValueAsArray(jsonElement);
+      if (numberArray != null) {
+        return PropertyFactory.hillshadeIlluminationDirection(numberArray);
+      } else {
+        return PropertyFactory.hillshadeIlluminationDirection(expression);
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+    });
+    properties.put("hillshade-illumination-altitude", (jsonElement, expression) -> {
+      final Float[] numberArray = wrapValueAsArray(jsonElement);
+      if (numberArray != null) {
+        return PropertyFactory.hillshadeIlluminationAltitude(numberArray);
+      } else {
+        return PropertyFactory.hillshadeIlluminationAltitude(expression);
+      }
+    });
+    properties.put("hillshade-illumination-anchor", (jsonElement, expression) -> PropertyFactory.hillshadeIlluminationAnchor(expression));
+    properties.put("hillshade-exaggeration", (jsonElement, expression) -> PropertyFactory.hillshadeExaggeration(expression));
+    properties.put("hillshade-shadow-color", (jsonElement, expression) -> {
+      final String[] colorArray = wrapColorAsArray(jsonElement);
+      if (colorArray != null) {
+        return PropertyFactory.hillshadeShadowColor(colorArray);
+      } else {
+        return PropertyFactory.hillshadeShadowColor(expression);
+      }
+    });
+    properties.put("hillshade-highlight-color", (jsonElement, expression) -> {
+      final String[] colorArray = wrapColorAsArray(jsonElement);
+      if (colorArray != null) {
+        return PropertyFactory.hillshadeHighlightColor(colorArray);
+      } else {
+        return PropertyFactory.hillshadeHighlightColor(expression);
+      }
+    });
+    properties.put("hillshade-accent-color", (jsonElement, expression) -> PropertyFactory.hillshadeAccentColor(expression));
+    properties.put("hillshade-method", (jsonElement, expression) -> PropertyFactory.hillshadeMethod(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
+      }
+      return null;
+    });
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> HEATMAP_PROPERTIES = heatmapProperties();
+
   static PropertyValue[] interpretHeatmapLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("heatmap", o, HEATMAP_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "heatmap-radius":
-          properties.add(PropertyFactory.heatmapRadius(expression));
-          break;
-        case "heatmap-weight":
-          properties.add(PropertyFactory.heatmapWeight(expression));
-          break;
-        case "heatmap-intensity":
-          properties.add(PropertyFactory.heatmapIntensity(expression));
-          break;
-        case "heatmap-color":
-          properties.add(PropertyFactory.heatmapColor(expression));
-          break;
-        case "heatmap-opacity":
-          properties.add(PropertyFactory.heatmapOpacity(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> heatmapProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("heatmap-radius", (jsonElement, expression) -> PropertyFactory.heatmapRadius(expression));
+    properties.put("heatmap-weight", (jsonElement, expression) -> PropertyFactory.heatmapWeight(expression));
+    properties.put("heatmap-intensity", (jsonElement, expression) -> PropertyFactory.heatmapIntensity(expression));
+    properties.put("heatmap-color", (jsonElement, expression) -> PropertyFactory.heatmapColor(expression));
+    properties.put("heatmap-opacity", (jsonElement, expression) -> PropertyFactory.heatmapOpacity(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+      return null;
+    });
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> COLOR_RELIEF_PROPERTIES = colorReliefProperties();
+
   static PropertyValue[] interpretColorReliefLayerProperties(Object o) {
-    final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    return interpretProperties("color-relief", o, COLOR_RELIEF_PROPERTIES);
+  }
 
-    for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "color-relief-opacity":
-          properties.add(PropertyFactory.colorReliefOpacity(expression));
-          break;
-        case "color-relief-color":
-          properties.add(PropertyFactory.colorReliefColor(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
-          }
-          break;
-        default:
-          break;
+  private static Map<String, PropertyBuilder> colorReliefProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("color-relief-opacity", (jsonElement, expression) -> PropertyFactory.colorReliefOpacity(expression));
+    properties.put("color-relief-color", (jsonElement, expression) -> PropertyFactory.colorReliefColor(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
       }
-    }
-
-    return properties.toArray(new PropertyValue[properties.size()]);
+      return null;
+    });
+    return properties;
   }
 
+  private static final Map<String, PropertyBuilder> BACKGROUND_PROPERTIES = backgroundProperties();
+
   static PropertyValue[] interpretBackgroundLayerProperties(Object o) {
+    return interpretProperties("background", o, BACKGROUND_PROPERTIES);
+  }
+
+  private static Map<String, PropertyBuilder> backgroundProperties() {
+    final Map<String, PropertyBuilder> properties = new HashMap<>();
+    properties.put("background-color", (jsonElement, expression) -> PropertyFactory.backgroundColor(expression));
+    properties.put("background-pattern", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.backgroundPattern(jsonElement.getAsString());
+      } else {
+        return PropertyFactory.backgroundPattern(expression);
+      }
+    });
+    properties.put("background-opacity", (jsonElement, expression) -> PropertyFactory.backgroundOpacity(expression));
+    properties.put("visibility", (jsonElement, expression) -> {
+      if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
+        return PropertyFactory.visibility(jsonElement.getAsString());
+      }
+      return null;
+    });
+    return properties;
+  }
+
+  // Converts each entry of a layer#setProperties map through the cache, so a
+  // value sent before skips the Gson tree and the expression conversion.
+  // Names are resolved with one lookup in the layer type's table; those the
+  // layer type does not have are logged together and dropped.
+  private static PropertyValue[] interpretProperties(
+      String layerType, Object o, Map<String, PropertyBuilder> builders) {
     final Map<String, Object> data = (Map<String, Object>) toMap(o);
-    final List<PropertyValue> properties = new LinkedList();
-    final Gson gson = new Gson();
+    final List<PropertyValue> properties = new ArrayList<>(data.size());
+    List<String> unknown = null;
 
     for (Map.Entry<String, Object> entry : data.entrySet()) {
-      final JsonElement jsonElement = entry.getValue() != null ? gson.toJsonTree(entry.getValue()) : null;
-      Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
-      switch (entry.getKey()) {
-        case "background-color":
-          properties.add(PropertyFactory.backgroundColor(expression));
-          break;
-        case "background-pattern":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.backgroundPattern(jsonElement.getAsString()));
-          } else {
-            properties.add(PropertyFactory.backgroundPattern(expression));
-          }
-          break;
-        case "background-opacity":
-          properties.add(PropertyFactory.backgroundOpacity(expression));
-          break;
-        case "visibility":
-          if (jsonElement != null && jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString()) {
-            properties.add(PropertyFactory.visibility(jsonElement.getAsString()));
+      final PropertyBuilder builder = builders.get(entry.getKey());
+      if (builder == null) {
+        if (REPORTED_UNKNOWN.add(layerType + "/" + entry.getKey())) {
+          if (unknown == null) {
+            unknown = new ArrayList<>();
           }
-          break;
-        default:
-          break;
+          unknown.add(entry.getKey());
+        }
+        continue;
+      }
+      final PropertyValue property =
+          CACHE.get(layerType, entry.getKey(), entry.getValue(), (name, value) -> build(builder, value));
+      if (property != null) {
+        properties.add(property);
       }
     }
 
+    if (unknown != null) {
+      Log.w(TAG, "Ignoring properties " + layerType + " layers do not have: " + unknown);
+    }
     return properties.toArray(new PropertyValue[properties.size()]);
   }
 
+  private static PropertyValue build(PropertyBuilder builder, Object value) {
+    final JsonElement jsonElement = value != null ? GSON.toJsonTree(value) : null;
+    final Expression expression = jsonElement != null ? Expression.Converter.convert(jsonElement) : null;
+    return builder.build(jsonElement, expression);
+  }
+
   private static boolean isNumber(JsonElement element) {
     return element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
   }
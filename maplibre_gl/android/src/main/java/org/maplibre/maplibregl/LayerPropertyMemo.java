@@ -0,0 +1,72 @@
+package org.maplibre.maplibregl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The raw property values last applied to each layer through layer#setProperties, by layer id.
+ *
+ * <p>Animating a layer from Dart sends every property on every frame, though usually only one or
+ * two of them change. Comparing against the values last applied lets the controller convert and
+ * push only the changed ones, which saves the conversion, the JNI calls and the style
+ * re-evaluation for the rest. The raw values are what Flutter's standard codec decodes, which all
+ * compare by value.
+ *
+ * <p>The memo only knows about writes that went through it. Anything else that changes a layer's
+ * properties, or replaces the layer, has to {@link #forget} it, or a later write of the old value
+ * would be skipped.
+ *
+ * <p>All methods are called on the main thread.
+ */
+final class LayerPropertyMemo {
+  private final Map<String, Map<String, Object>> appliedByLayer = new HashMap<>();
+
+  /** The entries of {@code properties} whose value differs from the one last applied. */
+  Map<String, Object> changed(String layerId, Map<String, Object> properties) {
+    final Map<String, Object> applied = appliedByLayer.get(layerId);
+    if (applied == null) {
+      return properties;
+    }
+    final Map<String, Object> changed = new HashMap<>();
+    for (Map.Entry<String, Object> entry : properties.entrySet()) {
+      final Object value = entry.getValue();
+      final Object last = applied.get(entry.getKey());
+      final boolean same =
+          value == null
+              ? last == null && applied.containsKey(entry.getKey())
+              : value.equals(last);
+      if (!same) {
+        changed.put(entry.getKey(), value);
+      }
+    }
+    return changed;
+  }
+
+  /** Records {@code properties} as applied to the layer. */
+  void record(String layerId, Map<String, Object> properties) {
+    Map<String, Object> applied = appliedByLayer.get(layerId);
+    if (applied == null) {
+      applied = new HashMap<>();
+      appliedByLayer.put(layerId, applied);
+    }
+    applied.putAll(properties);
+  }
+
+  /** Forgets one property of the layer, as when it was changed some other way. */
+  void forget(String layerId, String property) {
+    final Map<String, Object> applied = appliedByLayer.get(layerId);
+    if (applied != null) {
+      applied.remove(property);
+    }
+  }
+
+  /** Forgets the layer, as when it is removed or replaced. */
+  void forget(String layerId) {
+    appliedByLayer.remove(layerId);
+  }
+
+  /** Forgets every layer, as when the style is replaced. */
+  void clear() {
+    appliedByLayer.clear();
+  }
+}
@@ -2,21 +2,137 @@ package org.maplibre.maplibregl;
 
 import org.maplibre.android.module.http.HttpRequestUtil;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.ConnectionPool;
 import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 
+/**
+ * Owns the OkHttp client MapLibre makes its requests with. setHttpHeaders, map#setCustomHeaders,
+ * setOfflineMaxConcurrentRequests and setHttpClientOptions each used to build a client of their
+ * own, so whichever ran last dropped what the others had set. Now each changes its part of one
+ * {@link HttpClientConfig}, which is swapped atomically and read by a single header interceptor on
+ * every request, so header changes take effect without a new client.
+ *
+ * <p>The dispatcher is shared by every client, and its limits are changed in place; the connection
+ * pool is kept until its own settings change. A new client is only built for new timeouts,
+ * protocols or pool settings, and then from the last one, so requests in flight and idle
+ * connections carry over.
+ */
 abstract class MapLibreHttpRequestUtil {
 
-  private static Map<String, String> currentHeaders;
-  private static Integer currentMaxRequests;
-  private static Integer currentMaxRequestsPerHost;
+  /** A change to the config, from the current one to the next. */
+  interface Change {
+    HttpClientConfig apply(HttpClientConfig config);
+  }
+
+  private static final AtomicReference<HttpClientConfig> config =
+      new AtomicReference<>(HttpClientConfig.DEFAULT);
+
+  private static final Dispatcher dispatcher = new Dispatcher();
+  private static final int defaultMaxRequests = dispatcher.getMaxRequests();
+  private static final int defaultMaxRequestsPerHost = dispatcher.getMaxRequestsPerHost();
+
+  private static final Interceptor headerInterceptor =
+      chain -> {
+        final HttpClientConfig current = config.get();
+        final Request request = chain.request();
+        if (current.globalHeaders.isEmpty() && current.customHeaders.isEmpty()) {
+          return chain.proceed(request);
+        }
+        final String url = request.url().toString();
+        Request.Builder builder = current.globalHeaders.applyTo(request, url, null);
+        builder = current.customHeaders.applyTo(request, url, builder);
+        return chain.proceed(builder != null ? builder.build() : request);
+      };
+
+  // Guarded by the class lock, as is every change to the config.
+  private static OkHttpClient client;
+  private static ConnectionPool connectionPool;
+
+  static HttpClientConfig current() {
+    return config.get();
+  }
+
+  /**
+   * Applies a change to the config, and hands MapLibre a new client if the change needs one.
+   *
+   * @throws RuntimeException if OkHttp rejects the new settings, in which case the config is kept
+   */
+  static synchronized void update(Change change) {
+    final HttpClientConfig previous = config.get();
+    final HttpClientConfig next = change.apply(previous);
+    final boolean rebuild = client == null || !next.options.equals(previous.options);
+    final OkHttpClient nextClient = rebuild ? buildClient(previous.options, next.options) : null;
+
+    dispatcher.setMaxRequests(next.maxRequests != null ? next.maxRequests : defaultMaxRequests);
+    dispatcher.setMaxRequestsPerHost(
+        next.maxRequestsPerHost != null ? next.maxRequestsPerHost : defaultMaxRequestsPerHost);
+    config.set(next);
+    if (nextClient != null) {
+      client = nextClient;
+      HttpRequestUtil.setOkHttpClient(nextClient);
+    }
+  }
+
+  private static OkHttpClient buildClient(
+      HttpClientConfig.ClientOptions previous, HttpClientConfig.ClientOptions options) {
+    final OkHttpClient.Builder builder;
+    if (client == null) {
+      builder =
+          new OkHttpClient.Builder()
+              .dispatcher(dispatcher)
+              .addNetworkInterceptor(headerInterceptor);
+    } else {
+      // Keeps the dispatcher and interceptor; the settings below are reset to
+      // their defaults where the options leave them out.
+      builder = client.newBuilder();
+    }
+    final ConnectionPool pool;
+    if (connectionPool == null || !options.samePool(previous)) {
+      pool =
+          options.maxIdleConnections == null && options.keepAliveMillis == null
+              ? new ConnectionPool()
+              : new ConnectionPool(
+                  options.maxIdleConnections != null ? options.maxIdleConnections : 5,
+                  options.keepAliveMillis != null ? options.keepAliveMillis : 300_000L,
+                  TimeUnit.MILLISECONDS);
+    } else {
+      pool = connectionPool;
+    }
+    builder
+        .connectionPool(pool)
+        .connectTimeout(orDefault(options.connectTimeoutMillis, 10_000L), TimeUnit.MILLISECONDS)
+        .readTimeout(orDefault(options.readTimeoutMillis, 10_000L), TimeUnit.MILLISECONDS)
+        .writeTimeout(orDefault(options.writeTimeoutMillis, 10_000L), TimeUnit.MILLISECONDS)
+        .pingInterval(orDefault(options.pingIntervalMillis, 0L), TimeUnit.MILLISECONDS)
+        .protocols(
+            Boolean.FALSE.equals(options.http2)
+                ? Collections.singletonList(Protocol.HTTP_1_1)
+                : Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+    final OkHttpClient built = builder.build();
+    if (connectionPool != null && pool != connectionPool) {
+      // Requests in flight keep their connections; only the idle ones close.
+      connectionPool.evictAll();
+    }
+    connectionPool = pool;
+    return built;
+  }
+
+  private static long orDefault(Long value, long fallback) {
+    return value != null ? value : fallback;
+  }
 
   public static void setHttpHeaders(Map<String, String> headers, MethodChannel.Result result) {
-    currentHeaders = headers;
     try {
-      rebuildClient();
+      update(config -> config.withGlobalHeaders(new HeaderRules(headers, null)));
       result.success(null);
     } catch (RuntimeException e) {
       result.error("SetHttpHeadersError", e.getMessage(), null);
@@ -27,7 +143,7 @@ abstract class MapLibreHttpRequestUtil {
       Integer maxRequests, Integer maxRequestsPerHost, MethodChannel.Result result) {
     // OkHttp's Dispatcher throws IllegalArgumentException for values < 1.
     // Validate before mutating state so a rejected call doesn't leave the
-    // static fields half-updated.
+    // config half-updated.
     if (maxRequests != null && maxRequests < 1) {
       result.error(
           "InvalidMaxRequests",
@@ -42,50 +158,27 @@ abstract class MapLibreHttpRequestUtil {
           null);
       return;
     }
-    currentMaxRequests = maxRequests;
-    currentMaxRequestsPerHost = maxRequestsPerHost;
     try {
-      rebuildClient();
+      update(config -> config.withDispatcherLimits(maxRequests, maxRequestsPerHost));
       result.success(null);
     } catch (RuntimeException e) {
       result.error("SetMaxConcurrentRequestsError", e.getMessage(), null);
     }
   }
 
-  private static void rebuildClient() {
-    OkHttpClient.Builder builder = new OkHttpClient.Builder();
-
-    // Apply dispatcher configuration
-    if (currentMaxRequests != null || currentMaxRequestsPerHost != null) {
-      Dispatcher dispatcher = new Dispatcher();
-      if (currentMaxRequests != null) {
-        dispatcher.setMaxRequests(currentMaxRequests);
-      }
-      if (currentMaxRequestsPerHost != null) {
-        dispatcher.setMaxRequestsPerHost(currentMaxRequestsPerHost);
-      }
-      builder.dispatcher(dispatcher);
+  public static void setClientOptions(Map<String, Object> arguments, MethodChannel.Result result) {
+    final HttpClientConfig.ClientOptions options;
+    try {
+      options = HttpClientConfig.ClientOptions.from(arguments);
+    } catch (IllegalArgumentException | ClassCastException e) {
+      result.error("InvalidHttpClientOptions", e.getMessage(), null);
+      return;
     }
-
-    // Apply header interceptor
-    if (currentHeaders != null) {
-      builder.addNetworkInterceptor(
-          chain -> {
-            Request.Builder reqBuilder = chain.request().newBuilder();
-            for (Map.Entry<String, String> header : currentHeaders.entrySet()) {
-              if (header.getKey() == null || header.getKey().trim().isEmpty()) {
-                continue;
-              }
-              if (header.getValue() == null || header.getValue().trim().isEmpty()) {
-                reqBuilder.removeHeader(header.getKey());
-              } else {
-                reqBuilder.header(header.getKey(), header.getValue());
-              }
-            }
-            return chain.proceed(reqBuilder.build());
-          });
+    try {
+      update(config -> config.withOptions(options));
+      result.success(null);
+    } catch (RuntimeException e) {
+      result.error("SetHttpClientOptionsError", e.getMessage(), null);
     }
-
-    HttpRequestUtil.setOkHttpClient(builder.build());
   }
 }
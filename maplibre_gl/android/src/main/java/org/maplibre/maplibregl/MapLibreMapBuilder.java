@@ -30,6 +30,9 @@ class MapLibreMapBuilder implements MapLibreMapOptionsSink {
   private boolean translucentRequested = false;
   private boolean hybridCompositionActive = false;
   private Integer attributionButtonColor = null;
+  private Float tapTolerance = null;
+  private int tapCandidateCount = 0;
+  private CameraMoveStream.Throttle cameraMoveThrottle = null;
 
   MapLibreMapController build(
       int id,
@@ -67,6 +70,12 @@ class MapLibreMapBuilder implements MapLibreMapOptionsSink {
       controller.setAttributionButtonColor(attributionButtonColor);
     }
 
+    if (null != tapTolerance) {
+      controller.setTapTolerance(tapTolerance);
+    }
+    controller.setTapCandidateCount(tapCandidateCount);
+    controller.setCameraMoveThrottle(cameraMoveThrottle);
+
     return controller;
   }
 
@@ -270,6 +279,22 @@ class MapLibreMapBuilder implements MapLibreMapOptionsSink {
     this.featureTapsTriggersMapClick = triggers;
   }
 
+  @Override
+  public void setTapTolerance(float tolerance) {
+    // Converted to pixels with the display density on the controller.
+    this.tapTolerance = tolerance;
+  }
+
+  @Override
+  public void setTapCandidateCount(int count) {
+    this.tapCandidateCount = count;
+  }
+
+  @Override
+  public void setCameraMoveThrottle(CameraMoveStream.Throttle throttle) {
+    this.cameraMoveThrottle = throttle;
+  }
+
   @Override
   public void setLocationEngineProperties(@NonNull LocationEngineRequest locationEngineRequest) {
     this.locationEngineRequest = locationEngineRequest;
@@ -8,7 +8,6 @@ import android.Manifest;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.pm.PackageManager;
-import android.content.res.AssetFileDescriptor;
 import android.os.Bundle;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
@@ -91,12 +90,8 @@ import org.maplibre.geojson.Feature;
 import org.maplibre.geojson.FeatureCollection;
 import org.maplibre.geojson.Point;
 import org.maplibre.android.net.ConnectivityReceiver;
-import org.maplibre.android.snapshotter.MapSnapshot;
 import org.maplibre.android.snapshotter.MapSnapshotter;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -167,6 +162,20 @@ final class MapLibreMapController
 
   private final int id;
   private final MethodChannel methodChannel;
+  private final BinaryMessenger messenger;
+  /** Sends camera moves as binary messages instead of camera#onMove, when throttled. */
+  private final CameraMoveStream cameraMoveStream;
+  /** Takes image source frames as binary messages, decoded off the main thread. */
+  private final ImageSourceFrames imageSourceFrames;
+  /** The map#querySourceFeaturesStream results still being handed out, by channel name. */
+  private final Map<String, FeatureQueryStream> featureQueryStreams = new HashMap<>();
+  /**
+   * The last reply of a batch projection, handed out again when the next batch is the same size.
+   * The codec copies it out inside {@code result.success}, so it is free once that returns.
+   */
+  private double[] projectionBuffer = new double[0];
+  /** Set while a map#batch runs, whose entries' replies are only sent once all have answered. */
+  private boolean dispatchingBatch = false;
   private final MapLibreMapsPlugin.LifecycleProvider lifecycleProvider;
   private final MapLibreMapOptions mapLibreMapOptions;
   /**
@@ -217,6 +226,13 @@ final class MapLibreMapController
   private boolean disposed = false;
   private boolean dragEnabled = true;
   private boolean featureTapsTriggersMapClick = false;
+  /**
+   * Half the side of the square hit-tested around a tap or a drag start, in dp, from the
+   * tapTolerance option. Null keeps the historical 10 pixels.
+   */
+  private Float tapTolerance = null;
+  /** How many ranked candidates feature#onTap carries; none when 0. */
+  private int tapCandidateCount = 0;
   // Tint of the attribution (i) button, or null to leave the MapLibre SDK
   // default in place. Only set through the attributionButtonColor map option.
   private Integer attributionButtonColor = null;
@@ -243,10 +259,38 @@ final class MapLibreMapController
 
   private LatLng dragOrigin;
   private LatLng dragPrevious;
-  private MapSnapshotter activeSnapshotter;
+  /** Runs map#takeSnapshot calls, a few at a time, instead of cancelling the one in flight. */
+  private final SnapshotQueue snapshotQueue;
 
   private Set<String> interactiveFeatureLayerIds;
-  private Map<String, FeatureCollection> addedFeaturesByLayer;
+  /** Features last written to each GeoJSON source added from Dart, by source id. */
+  private Map<String, GeoJsonFeatureStore> featureStoresBySource;
+  /**
+   * Parses source#addGeoJson, source#setGeoJson and source#setFeature payloads off the main
+   * thread. Shut down in {@link #dispose()}.
+   */
+  private final GeoJsonParseQueue geoJsonParseQueue = new GeoJsonParseQueue();
+  /** Counters read through map#getPerformanceCounters. */
+  private final PerformanceCounters performanceCounters = new PerformanceCounters();
+  /** Property values last applied through layer#setProperties, to skip unchanged ones. */
+  private final LayerPropertyMemo layerPropertyMemo = new LayerPropertyMemo();
+  /**
+   * Layers and sources of the serialized style by id, for style#getLayerProperties and
+   * style#getSourceProperties. Invalidated by every call that changes the style; see {@link
+   * #changesStyle(String)}.
+   */
+  private final StyleJsonIndex styleJsonIndex = new StyleJsonIndex();
+  /**
+   * The interactive layers topmost first, for hit-testing taps and drag starts. Invalidated along
+   * with {@link #styleJsonIndex}.
+   */
+  private final InteractiveLayerOrder interactiveLayerOrder = new InteractiveLayerOrder();
+  /**
+   * Hands GeoJSON source data to the SDK once per frame. Every source update from Dart goes
+   * through it; see {@link GeoJsonUpdateCoalescer}.
+   */
+  private final GeoJsonUpdateCoalescer geoJsonUpdateCoalescer =
+      new GeoJsonUpdateCoalescer(this::flushGeoJsonSource, performanceCounters);
 
   private LatLngBounds bounds = null;
   Style.OnStyleLoaded onStyleLoadedCallback =
@@ -295,7 +339,7 @@ final class MapLibreMapController
     this.mapViewContainer = new FrameLayout(applicationContext);
     this.mapView = new MapView(context, options);
     this.interactiveFeatureLayerIds = new HashSet<>();
-    this.addedFeaturesByLayer = new HashMap<String, FeatureCollection>();
+    this.featureStoresBySource = new HashMap<>();
     this.density = context.getResources().getDisplayMetrics().density;
     this.lifecycleProvider = lifecycleProvider;
     if (dragEnabled) {
@@ -303,7 +347,20 @@ final class MapLibreMapController
     }
 
     mapViewContainer.addView(mapView);
+    this.messenger = messenger;
     methodChannel = new MethodChannel(messenger, "plugins.flutter.io/maplibre_gl_" + id);
+    cameraMoveStream =
+        new CameraMoveStream(
+            messenger,
+            "plugins.flutter.io/maplibre_gl_" + id + "/camera",
+            () -> mapLibreMap == null ? null : mapLibreMap.getCameraPosition());
+    imageSourceFrames =
+        new ImageSourceFrames(
+            messenger,
+            "plugins.flutter.io/maplibre_gl_" + id + "/imageFrames",
+            () -> style != null && style.isFullyLoaded() ? style : null,
+            performanceCounters);
+    snapshotQueue = new SnapshotQueue(applicationContext);
     methodChannel.setMethodCallHandler(this);
   }
 
@@ -476,7 +533,11 @@ final class MapLibreMapController
     mapViewStarted = false;
     mapViewResumed = false;
     interactiveFeatureLayerIds.clear();
-    addedFeaturesByLayer.clear();
+    featureStoresBySource.clear();
+    geoJsonUpdateCoalescer.cancel();
+    layerPropertyMemo.clear();
+    styleJsonIndex.invalidate();
+    interactiveLayerOrder.invalidate();
 
     mapViewContainer.removeAllViews();
     mapView = new MapView(mapContext, mapLibreMapOptions);
@@ -581,6 +642,9 @@ final class MapLibreMapController
     if (interactiveFeatureLayerIds != null) {
       interactiveFeatureLayerIds.clear();
     }
+    layerPropertyMemo.clear();
+    styleJsonIndex.invalidate();
+    interactiveLayerOrder.invalidate();
 
     // Check if json, url, absolute path or asset path:
     if (styleString == null || styleString.isEmpty()) {
@@ -711,17 +775,9 @@ final class MapLibreMapController
   // result matches the style spec, like the iOS and web implementations.
   private Map<String, Object> getLayerProperties(String layerId) {
     Map<String, Object> reply = new HashMap<>();
-    JsonObject styleJson = JsonParser.parseString(style.getJson()).getAsJsonObject();
-    JsonArray layers = styleJson.getAsJsonArray("layers");
-    if (layers != null) {
-      for (JsonElement element : layers) {
-        JsonObject layer = element.getAsJsonObject();
-        JsonElement id = layer.get("id");
-        if (id != null && layerId.equals(id.getAsString())) {
-          reply.put("properties", layer.toString());
-          break;
-        }
-      }
+    JsonObject layer = styleJsonIndex.layer(style, layerId);
+    if (layer != null) {
+      reply.put("properties", layer.toString());
     }
     return reply;
   }
@@ -730,14 +786,39 @@ final class MapLibreMapController
   // under the "sources" object rather than storing in an array.
   private Map<String, Object> getSourceProperties(String sourceId) {
     Map<String, Object> reply = new HashMap<>();
-    JsonObject styleJson = JsonParser.parseString(style.getJson()).getAsJsonObject();
-    JsonObject sources = styleJson.getAsJsonObject("sources");
-    if (sources != null && sources.has(sourceId)) {
-      reply.put("properties", sources.getAsJsonObject(sourceId).toString());
+    JsonObject source = styleJsonIndex.source(style, sourceId);
+    if (source != null) {
+      reply.put("properties", source.toString());
     }
     return reply;
   }
 
+  // Whether the method changes what the serialized style contains, so the
+  // style JSON index and the interactive layer order have to be rebuilt before
+  // the next lookup. Errs on the side of invalidating: a needless rebuild only
+  // costs time, a missed one returns stale properties or hit-tests the wrong
+  // layers.
+  private static boolean changesStyle(String method) {
+    if (method.startsWith("style#")) {
+      return !method.startsWith("style#get");
+    }
+    if (method.startsWith("layer#") || method.endsWith("Layer#add")) {
+      return true;
+    }
+    switch (method) {
+      case "map#update":
+      case "map#setMapLanguage":
+      case "map#matchMapLanguageWithDeviceDefault":
+      case "map#setLayerFilter":
+      case "map#editGeoJsonSource":
+      case "map#editGeoJsonUrl":
+      case "source#addGeoJson":
+        return true;
+      default:
+        return false;
+    }
+  }
+
   // Resolves the source a feature-state call addresses, or replies with a
   // descriptive error and returns null so the caller can just bail out.
   //
@@ -813,6 +894,7 @@ final class MapLibreMapController
       return null;
     }
     if (source instanceof GeoJsonSource) {
+      geoJsonUpdateCoalescer.flushNow(sourceId);
       return (GeoJsonSource) source;
     }
     result.error(
@@ -845,6 +927,20 @@ final class MapLibreMapController
   // survive intact. Shared by every call that answers with features:
   // map#queryRenderedFeatures, map#querySourceFeatures and the cluster calls.
   private static Map<String, Object> featuresReply(List<Feature> features) {
+    return featuresReply(features, false);
+  }
+
+  // The feature queries opt into the packed layout of GeoJsonBinaryEncoder with
+  // a 'binary' argument, which Dart only sends when it can decode the reply.
+  private static Map<String, Object> featuresReply(List<Feature> features, boolean binary) {
+    if (binary) {
+      final Map<String, Object> reply = new HashMap<>();
+      reply.put(
+          "featuresBinary",
+          GeoJsonBinaryEncoder.encode(
+              features == null ? Collections.<Feature>emptyList() : features));
+      return reply;
+    }
     final List<String> featuresJson = new ArrayList<>();
     if (features != null) {
       for (Feature feature : features) {
@@ -856,13 +952,69 @@ final class MapLibreMapController
     return reply;
   }
 
+  // The features of a map#querySourceFeatures or map#querySourceFeaturesStream
+  // call, or null once the call has been answered with an error.
+  private List<Feature> querySourceFeatures(MethodCall call, MethodChannel.Result result) {
+    String sourceId = (String) call.argument("sourceId");
+    if (sourceId == null) {
+      result.error(
+          "INVALID_ARGUMENT", "querySourceFeatures requires a 'sourceId' string.", null);
+      return null;
+    }
+
+    // A source is resolved by id out of the style, so without a style
+    // there is no source to query. Reading it blind raised a
+    // NullPointerException, which reached the caller as a bare "error".
+    if (style == null || !style.isFullyLoaded()) {
+      result.error(
+          "STYLE_NOT_READY",
+          "Style is null or not fully loaded. Has onStyleLoaded() already been invoked?",
+          null);
+      return null;
+    }
+
+    String sourceLayerId = (String) call.argument("sourceLayerId");
+
+    List<Object> filter = call.argument("filter");
+    JsonElement jsonElement = filter == null ? null : new Gson().toJsonTree(filter);
+    JsonArray jsonArray = null;
+    if (jsonElement != null && jsonElement.isJsonArray()) {
+      jsonArray = jsonElement.getAsJsonArray();
+    }
+    Expression filterExpression =
+        jsonArray == null ? null : Expression.Converter.convert(jsonArray);
+
+    geoJsonUpdateCoalescer.flushNow(sourceId);
+    Source source = style.getSource(sourceId);
+    List<Feature> features;
+    if (source instanceof GeoJsonSource) {
+      features = ((GeoJsonSource) source).querySourceFeatures(filterExpression);
+    } else if (source instanceof CustomGeometrySource) {
+      features = ((CustomGeometrySource) source).querySourceFeatures(filterExpression);
+    } else if (source instanceof VectorSource && sourceLayerId != null) {
+      features =
+          ((VectorSource) source)
+              .querySourceFeatures(new String[] {sourceLayerId}, filterExpression);
+    } else {
+      features = Collections.emptyList();
+    }
+    return features;
+  }
+
   // The cluster calls answer with a FeatureCollection, which is null when the
   // id matches nothing.
   private static Map<String, Object> featuresReply(FeatureCollection collection) {
     return featuresReply(collection == null ? null : collection.features());
   }
 
-  private FeatureCollection parseGeoJsonToFeatureCollection(String geojson) {
+  // Dart sends either a JSON string or, with useBinaryGeoJson, the packed bytes
+  // read by GeoJsonBinaryDecoder, which always hold a collection. Runs on the
+  // GeoJsonParseQueue worker for large payloads, so it must not touch the map.
+  private static FeatureCollection parseGeoJsonToFeatureCollection(Object payload) {
+    if (payload instanceof byte[]) {
+      return GeoJsonBinaryDecoder.decode((byte[]) payload);
+    }
+    final String geojson = (String) payload;
     JsonElement jsonElement = JsonParser.parseString(geojson);
     String type = jsonElement.getAsJsonObject().get("type").getAsString();
 
@@ -873,96 +1025,164 @@ final class MapLibreMapController
       return FeatureCollection.fromFeatures(new Feature[]{ feature });
     }
 
-    return null;
+    throw new IllegalArgumentException("Unsupported GeoJSON type '" + type + "'");
+  }
+
+  private static int geoJsonPayloadSize(Object payload) {
+    if (payload instanceof byte[]) {
+      return ((byte[]) payload).length;
+    }
+    return payload instanceof String ? ((String) payload).length() : 0;
   }
 
-  private void addGeoJsonSource(String sourceName, String source) {
+  // Adds the source empty, so that it exists, and layers can be added on top of
+  // it, while its data is still being parsed. The data follows through
+  // setGeoJsonSource. Returns false when no source was added.
+  private boolean addGeoJsonSource(String sourceName) {
     if (style == null || !style.isFullyLoaded()) {
       Log.w(TAG, "addGeoJsonSource: style not ready, skipping");
-      return;
+      return false;
     }
 
     // Check if source already exists to prevent CannotAddSourceException
     // which can lead to native crashes
     if (style.getSource(sourceName) != null) {
-      return;
+      return false;
     }
 
     try {
-      FeatureCollection featureCollection = parseGeoJsonToFeatureCollection(source);
-      if (featureCollection == null) {
-        Log.w(TAG, "addGeoJsonSource: unsupported GeoJSON type, skipping");
-        return;
-      }
-
       // synchronousUpdate causes a texture atlas slot-reuse bug in MapLibre Native Android SDK
       // that silently discards icons registered via addImage() in the same render frame.
       // Disabled unconditionally until upstream maplibre-native#4326 is fixed.
       GeoJsonOptions options = new GeoJsonOptions().withSynchronousUpdate(false);
-      GeoJsonSource geoJsonSource = new GeoJsonSource(sourceName, featureCollection, options);
-      addedFeaturesByLayer.put(sourceName, featureCollection);
-
-      style.addSource(geoJsonSource);
+      style.addSource(new GeoJsonSource(sourceName, options));
+      return true;
     } catch (Exception e) {
       Log.e(TAG, "addGeoJsonSource: error adding source '" + sourceName + "'", e);
+      return false;
     }
   }
 
-  private void setGeoJsonSource(String sourceName, String geojson) {
+  // The GeoJsonParseQueue committers below answer result once the source holds
+  // the data, or right away when it is left alone.
+  private void setGeoJsonSource(
+      String sourceName, FeatureCollection featureCollection, MethodChannel.Result result) {
     if (style == null || !style.isFullyLoaded()) {
       Log.w(TAG, "setGeoJsonSource: style not ready, skipping update");
+      result.success(null);
       return;
     }
 
     try {
-      FeatureCollection featureCollection = parseGeoJsonToFeatureCollection(geojson);
-      if (featureCollection == null) {
-        Log.w(TAG, "setGeoJsonSource: unsupported GeoJSON type, skipping update");
-        return;
-      }
-
       GeoJsonSource geoJsonSource = style.getSourceAs(sourceName);
       if (geoJsonSource == null) {
         Log.w(TAG, "setGeoJsonSource: source '" + sourceName + "' not found, skipping update");
+        result.success(null);
         return;
       }
 
-      addedFeaturesByLayer.put(sourceName, featureCollection);
-      geoJsonSource.setGeoJson(featureCollection);
+      featureStoresBySource.put(sourceName, new GeoJsonFeatureStore(featureCollection));
     } catch (Exception e) {
       Log.e(TAG, "setGeoJsonSource: error updating source '" + sourceName + "'", e);
+      result.success(null);
+      return;
     }
+    geoJsonUpdateCoalescer.schedule(sourceName, featureCollection, result);
   }
 
-  private void setGeoJsonFeature(String sourceName, String geojsonFeature) {
+  private void removeGeoJsonSource(String sourceName) {
+    if (style == null || !style.isFullyLoaded()) {
+      return;
+    }
+    if (style.removeSource(sourceName)) {
+      featureStoresBySource.remove(sourceName);
+      geoJsonUpdateCoalescer.discard(sourceName);
+    }
+  }
+
+  // The GeoJsonUpdateCoalescer sink. The style may have changed since the data
+  // was scheduled, so the source is looked up again.
+  private void flushGeoJsonSource(String sourceName, FeatureCollection featureCollection) {
+    if (style == null || !style.isFullyLoaded()) {
+      return;
+    }
+    GeoJsonSource geoJsonSource = style.getSourceAs(sourceName);
+    if (geoJsonSource != null) {
+      styleJsonIndex.invalidate();
+      geoJsonSource.setGeoJson(featureCollection);
+    }
+  }
+
+  private void setGeoJsonFeature(String sourceName, Feature feature, MethodChannel.Result result) {
     if (style == null || !style.isFullyLoaded()) {
       Log.w(TAG, "setGeoJsonFeature: style not ready, skipping update");
+      result.success(null);
       return;
     }
 
+    FeatureCollection featureCollection = null;
     try {
-      Feature feature = Feature.fromJson(geojsonFeature);
-      FeatureCollection featureCollection = addedFeaturesByLayer.get(sourceName);
+      GeoJsonFeatureStore store = featureStoresBySource.get(sourceName);
       GeoJsonSource geoJsonSource = style.getSourceAs(sourceName);
 
-      if (featureCollection != null && geoJsonSource != null) {
-        final String featureId = feature.id();
-        final List<Feature> features = featureCollection.features();
-        
-        if (featureId != null && features != null) {
-          for (int i = 0; i < features.size(); i++) {
-            if (featureId.equals(features.get(i).id())) {
-              features.set(i, feature);
-              break;
-            }
-          }
+      if (store != null && geoJsonSource != null) {
+        // Only replaces: a feature whose id the source does not hold is not
+        // added, and then the source is left alone.
+        if (store.contains(feature.id())) {
+          store.upsert(feature);
+          featureCollection = store.toFeatureCollection();
         }
-
-        geoJsonSource.setGeoJson(featureCollection);
       }
     } catch (Exception e) {
       Log.e(TAG, "setGeoJsonFeature: error updating feature in source '" + sourceName + "'", e);
     }
+    if (featureCollection != null) {
+      geoJsonUpdateCoalescer.schedule(sourceName, featureCollection, result);
+    } else {
+      result.success(null);
+    }
+  }
+
+  // The added and updated features of a diff arrive as one collection each, as
+  // a JSON string or in the binary layout, and are absent when empty.
+  private static GeoJsonFeatureStore.Diff parseFeatureDiff(
+      Object added, Object updated, List<String> removed) {
+    return new GeoJsonFeatureStore.Diff(
+        added == null
+            ? Collections.<Feature>emptyList()
+            : parseGeoJsonToFeatureCollection(added).features(),
+        updated == null
+            ? Collections.<Feature>emptyList()
+            : parseGeoJsonToFeatureCollection(updated).features(),
+        removed == null ? Collections.<String>emptyList() : removed);
+  }
+
+  private void applyFeatureDiff(
+      String sourceName, GeoJsonFeatureStore.Diff diff, MethodChannel.Result result) {
+    if (style == null || !style.isFullyLoaded()) {
+      Log.w(TAG, "applyFeatureDiff: style not ready, skipping update");
+      result.success(null);
+      return;
+    }
+
+    FeatureCollection featureCollection = null;
+    try {
+      GeoJsonFeatureStore store = featureStoresBySource.get(sourceName);
+      GeoJsonSource geoJsonSource = style.getSourceAs(sourceName);
+      if (store == null || geoJsonSource == null) {
+        Log.w(TAG, "applyFeatureDiff: source '" + sourceName + "' not found, skipping update");
+      } else if (store.apply(diff)) {
+        // However large the diff, the source is updated once.
+        featureCollection = store.toFeatureCollection();
+      }
+    } catch (Exception e) {
+      Log.e(TAG, "applyFeatureDiff: error updating source '" + sourceName + "'", e);
+    }
+    if (featureCollection != null) {
+      geoJsonUpdateCoalescer.schedule(sourceName, featureCollection, result);
+    } else {
+      result.success(null);
+    }
   }
 
   private boolean addSymbolLayer(
@@ -998,6 +1218,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(symbolLayer);
     }
+    layerPropertyMemo.forget(layerName);
     if (enableInteraction) {
       interactiveFeatureLayerIds.add(layerName);
     }
@@ -1037,6 +1258,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(lineLayer);
     }
+    layerPropertyMemo.forget(layerName);
     if (enableInteraction) {
       interactiveFeatureLayerIds.add(layerName);
     }
@@ -1076,6 +1298,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(fillLayer);
     }
+    layerPropertyMemo.forget(layerName);
     if (enableInteraction) {
       interactiveFeatureLayerIds.add(layerName);
     }
@@ -1115,6 +1338,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(fillLayer);
     }
+    layerPropertyMemo.forget(layerName);
     if (enableInteraction) {
       interactiveFeatureLayerIds.add(layerName);
     }
@@ -1154,6 +1378,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(circleLayer);
     }
+    layerPropertyMemo.forget(layerName);
     if (enableInteraction) {
       interactiveFeatureLayerIds.add(layerName);
     }
@@ -1191,6 +1416,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(layer);
     }
+    layerPropertyMemo.forget(layerName);
     return true;
   }
 
@@ -1219,6 +1445,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(layer);
     }
+    layerPropertyMemo.forget(layerName);
     return true;
   }
 
@@ -1247,6 +1474,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(layer);
     }
+    layerPropertyMemo.forget(layerName);
     return true;
   }
 
@@ -1273,6 +1501,7 @@ final class MapLibreMapController
     } else {
       style.addLayer(layer);
     }
+    layerPropertyMemo.forget(layerName);
     return true;
   }
 
@@ -1303,38 +1532,98 @@ final class MapLibreMapController
     } else {
       style.addLayer(layer);
     }
+    layerPropertyMemo.forget(layerName);
     return true;
   }
 
+  // The topmost feature on an interactive layer within the rect, and that layer.
+  //
+  // One query over every interactive layer answers a miss, the usual case for a
+  // tap. Android features do not say which layer they were found on. When the
+  // topmost feature can only come from the topmost layer, as for an annotation
+  // on a layer of its own, that one query answers a hit too. Otherwise the
+  // topmost layer holding one is narrowed down by halving the interactive
+  // layers, topmost half first: about log2(n) more queries where asking each
+  // layer in turn took n.
   private Pair<Feature, String> firstFeatureOnLayers(RectF in) {
+    return firstFeatureOnLayers(in, null);
+  }
+
+  // As above, also adding every feature the query over all interactive layers
+  // found to found, when that is non-null.
+  private Pair<Feature, String> firstFeatureOnLayers(RectF in, List<Feature> found) {
     if (style == null) return null;
     if (!style.isFullyLoaded()) {
         Log.d(TAG, "firstFeatureOnLayers: style not fully loaded yet");
         return null;
     }
-    
-    final List<Layer> layers;
+
+    final String[] layerIds;
     try {
-      layers = style.getLayers();
+      layerIds = interactiveLayerOrder.topDown(style, interactiveFeatureLayerIds);
     } catch (IllegalStateException ex) {
       // Style object is stale (a new style is loading/has loaded). Skip querying.
       Log.w(TAG, "firstFeatureOnLayers: Style.getLayers() failed: " + ex.getMessage());
       return null;
     }
-    final List<String> layersInOrder = new ArrayList<String>();
-    for (Layer layer : layers) {
-      String id = layer.getId();
-      if (interactiveFeatureLayerIds.contains(id)) layersInOrder.add(id);
+    if (layerIds.length == 0) {
+      return null;
+    }
+
+    // The topmost layer with a feature in the rect lies in [from, to), and
+    // hits holds what that range answered, when it was queried on its own.
+    List<Feature> hits = mapLibreMap.queryRenderedFeatures(in, layerIds);
+    if (hits.isEmpty()) {
+      return null;
     }
-    Collections.reverse(layersInOrder);
-    for (String id : layersInOrder) {
-      List<Feature> features = mapLibreMap.queryRenderedFeatures(in, id);
-      if (!features.isEmpty()) {
-        return new Pair<Feature, String>(features.get(0), id);
+    if (found != null) {
+      found.addAll(hits);
+    }
+    if (isFromTopLayerOnly(hits.get(0), interactiveLayerOrder.sourceIds())) {
+      return new Pair<Feature, String>(hits.get(0), layerIds[0]);
+    }
+    int from = 0;
+    int to = layerIds.length;
+    while (to - from > 1) {
+      final int mid = (from + to) >>> 1;
+      final List<Feature> upper =
+          mapLibreMap.queryRenderedFeatures(in, Arrays.copyOfRange(layerIds, from, mid));
+      if (!upper.isEmpty()) {
+        to = mid;
+        hits = upper;
+      } else {
+        from = mid;
+        hits = null;
       }
     }
-    
-    return null;
+    if (hits == null) {
+      hits = mapLibreMap.queryRenderedFeatures(in, layerIds[from]);
+    }
+    return new Pair<Feature, String>(hits.get(0), layerIds[from]);
+  }
+
+  // Whether the topmost layer is the only interactive layer that can have drawn
+  // feature: no other one draws its source, and no other one's source holds the
+  // feature's id. Sources without a feature store could hold anything.
+  private boolean isFromTopLayerOnly(Feature feature, String[] sourceIds) {
+    final String id = feature.id();
+    if (id == null || sourceIds.length == 0 || sourceIds[0] == null) {
+      return false;
+    }
+    final GeoJsonFeatureStore top = featureStoresBySource.get(sourceIds[0]);
+    if (top == null || !top.contains(id)) {
+      return false;
+    }
+    for (int i = 1; i < sourceIds.length; i++) {
+      if (sourceIds[i] == null || sourceIds[i].equals(sourceIds[0])) {
+        return false;
+      }
+      final GeoJsonFeatureStore other = featureStoresBySource.get(sourceIds[i]);
+      if (other == null || other.contains(id)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -1358,7 +1647,7 @@ final class MapLibreMapController
             break;
           }
           Convert.interpretMapLibreMapOptions(call.argument("options"), this, context);
-          result.success(Convert.toJson(getCameraPosition()));
+          result.success(Convert.toArray(getCameraPosition()));
           break;
         }
       // Dart-driven pause/resume. Only flips MapView state when it's actually out
@@ -1384,6 +1673,19 @@ final class MapLibreMapController
         }
         result.success(null);
         break;
+      case MethodCallBatch.METHOD:
+        {
+          // Handled here rather than with the map, so each entry goes through the same
+          // MAP_NOT_READY check it would get on its own.
+          final List<Map<String, Object>> calls = call.argument("calls");
+          dispatchingBatch = true;
+          try {
+            MethodCallBatch.run(calls, this::onMethodCall, performanceCounters, result);
+          } finally {
+            dispatchingBatch = false;
+          }
+          break;
+        }
       // All cases below require a live mapLibreMap. If the map is being recreated
       // (e.g. after "Don't keep activities") we stash the result so the Flutter
       // side gets its answer once onMapReady fires again.
@@ -1398,6 +1700,10 @@ final class MapLibreMapController
   }
 
   private void onMethodCallWithMap(MethodCall call, MethodChannel.Result result) {
+    if (changesStyle(call.method)) {
+      styleJsonIndex.invalidate();
+      interactiveLayerOrder.invalidate();
+    }
     switch (call.method) {
       case "map#updateMyLocationTrackingMode":
         {
@@ -1451,18 +1757,8 @@ final class MapLibreMapController
         }
       case "map#getVisibleRegion":
         {
-          Map<String, Object> reply = new HashMap<>();
           VisibleRegion visibleRegion = mapLibreMap.getProjection().getVisibleRegion();
-          reply.put(
-              "sw",
-              Arrays.asList(
-                  visibleRegion.latLngBounds.getLatSouth(), visibleRegion.latLngBounds.getLonWest()));
-          reply.put(
-              "ne",
-              Arrays.asList(
-                    visibleRegion.latLngBounds.getLatNorth(), visibleRegion.latLngBounds.getLonEast()));
-
-          result.success(reply);
+          result.success(Convert.toArray(visibleRegion.latLngBounds));
           break;
         }
       case "map#toScreenLocation":
@@ -1481,15 +1777,16 @@ final class MapLibreMapController
       case "map#toScreenLocationBatch":
         {
           double[] param = (double[]) call.argument("coordinates");
-          double[] reply = new double[param.length];
-
-          for (int i = 0; i < param.length; i += 2) {
-            PointF pointf =
-                mapLibreMap.getProjection().toScreenLocation(new LatLng(param[i], param[i + 1]));
-            reply[i] = pointf.x;
-            reply[i + 1] = pointf.y;
-          }
-
+          double[] reply = projectionBuffer(param.length);
+          mapLibreMap.getProjection().toScreenLocations(param, reply);
+          result.success(reply);
+          break;
+        }
+      case "map#toLatLngBatch":
+        {
+          double[] param = (double[]) call.argument("points");
+          double[] reply = projectionBuffer(param.length);
+          mapLibreMap.getProjection().fromScreenLocations(param, reply);
           result.success(reply);
           break;
         }
@@ -1633,7 +1930,10 @@ final class MapLibreMapController
                 null);
             break;
           }
-          result.success(featuresReply(features));
+          result.success(
+              featuresReply(
+                  FeatureProjection.fromArguments(call).apply(features),
+                  Boolean.TRUE.equals(call.argument("binary"))));
           break;
         }
       case "map#setTelemetryEnabled":
@@ -1704,7 +2004,7 @@ final class MapLibreMapController
         }
       case "map#queryCameraPosition":
         {
-          result.success(Convert.toJson(mapLibreMap.getCameraPosition()));
+          result.success(Convert.toArray(mapLibreMap.getCameraPosition()));
           break;
         }
       case "map#editGeoJsonSource":
@@ -1787,6 +2087,11 @@ final class MapLibreMapController
           result.success(reply);
           break;
         }
+      case "map#getPerformanceCounters":
+        {
+          result.success(performanceCounters.snapshot());
+          break;
+        }
       case "map#getStyle":
         {
           Map<String, Object> reply = new HashMap<>();
@@ -1819,7 +2124,7 @@ final class MapLibreMapController
       case "map#getCustomHeaders":
         {
           if (mapLibreMap != null) {
-            result.success(MapLibreCustomHttpInterceptor.CustomHeaders);
+            result.success(MapLibreCustomHttpInterceptor.getCustomHeaders());
           } else {
             result.success(null);
           }
@@ -1864,25 +2169,67 @@ final class MapLibreMapController
       case "source#addGeoJson":
         {
           final String sourceId = call.argument("sourceId");
-          final String geojson = call.argument("geojson");
-          addGeoJsonSource(sourceId, geojson);
-          result.success(null);
+          final Object geojson = call.hasArgument("geojsonBinary")
+              ? call.argument("geojsonBinary")
+              : call.argument("geojson");
+          if (!addGeoJsonSource(sourceId)) {
+            result.success(null);
+            break;
+          }
+          // The source is added before its data is parsed, so writes that follow
+          // find it. GeoJSON that does not parse leaves no source behind, as
+          // when the source was only added once parsed.
+          geoJsonParseQueue.submit(
+              sourceId,
+              true,
+              geoJsonPayloadSize(geojson),
+              () -> parseGeoJsonToFeatureCollection(geojson),
+              (featureCollection, reply) -> setGeoJsonSource(sourceId, featureCollection, reply),
+              () -> removeGeoJsonSource(sourceId),
+              result);
           break;
         }
       case "source#setGeoJson":
         {
           final String sourceId = call.argument("sourceId");
-          final String geojson = call.argument("geojson");
-          setGeoJsonSource(sourceId, geojson);
-          result.success(null);
+          final Object geojson = call.hasArgument("geojsonBinary")
+              ? call.argument("geojsonBinary")
+              : call.argument("geojson");
+          geoJsonParseQueue.submit(
+              sourceId,
+              true,
+              geoJsonPayloadSize(geojson),
+              () -> parseGeoJsonToFeatureCollection(geojson),
+              (featureCollection, reply) -> setGeoJsonSource(sourceId, featureCollection, reply),
+              result);
           break;
         }
       case "source#setFeature":
         {
           final String sourceId = call.argument("sourceId");
           final String geojsonFeature = call.argument("geojsonFeature");
-          setGeoJsonFeature(sourceId, geojsonFeature);
-          result.success(null);
+          geoJsonParseQueue.submit(
+              sourceId,
+              false,
+              geoJsonPayloadSize(geojsonFeature),
+              () -> Feature.fromJson(geojsonFeature),
+              (feature, reply) -> setGeoJsonFeature(sourceId, feature, reply),
+              result);
+          break;
+        }
+      case "source#applyFeatureDiff":
+        {
+          final String sourceId = call.argument("sourceId");
+          final Object added = call.argument("added");
+          final Object updated = call.argument("updated");
+          final List<String> removed = call.argument("removed");
+          geoJsonParseQueue.submit(
+              sourceId,
+              false,
+              geoJsonPayloadSize(added) + geoJsonPayloadSize(updated),
+              () -> parseFeatureDiff(added, updated, removed),
+              (diff, reply) -> applyFeatureDiff(sourceId, diff, reply),
+              result);
           break;
         }
       case "source#setFeatureState":
@@ -2145,44 +2492,58 @@ final class MapLibreMapController
           Layer layer = style.getLayer(layerId);
 
           if (layer != null) {
+            final Map<String, Object> requested =
+                (Map<String, Object>) Convert.toMap(call.argument("properties"));
+            final Map<String, Object> changed = layerPropertyMemo.changed(layerId, requested);
+            // Replied so callers can see how much the memo saves.
+            final int skipped = requested.size() - changed.size();
+            final Map<String, Object> reply = new HashMap<>();
+            reply.put("skipped", skipped);
+            performanceCounters.add(PerformanceCounters.LAYER_PROPERTIES_SKIPPED, skipped);
+            if (changed.isEmpty()) {
+              result.success(reply);
+              break;
+            }
+
             final PropertyValue[] properties;
 
             if (layer instanceof LineLayer) {
               properties = LayerPropertyConverter
-                  .interpretLineLayerProperties(call.argument("properties"));
+                  .interpretLineLayerProperties(changed);
             } else if (layer instanceof FillLayer) {
               properties = LayerPropertyConverter
-                  .interpretFillLayerProperties(call.argument("properties"));
+                  .interpretFillLayerProperties(changed);
             } else if (layer instanceof CircleLayer) {
               properties = LayerPropertyConverter
-                  .interpretCircleLayerProperties(call.argument("properties"));
+                  .interpretCircleLayerProperties(changed);
             } else if (layer instanceof SymbolLayer) {
               properties = LayerPropertyConverter
-                  .interpretSymbolLayerProperties(call.argument("properties"));
+                  .interpretSymbolLayerProperties(changed);
             } else if (layer instanceof RasterLayer) {
               properties = LayerPropertyConverter
-                  .interpretRasterLayerProperties(call.argument("properties"));
+                  .interpretRasterLayerProperties(changed);
             } else if (layer instanceof FillExtrusionLayer) {
               properties = LayerPropertyConverter
-                  .interpretFillExtrusionLayerProperties(call.argument("properties"));
+                  .interpretFillExtrusionLayerProperties(changed);
             } else if (layer instanceof HeatmapLayer) {
               properties = LayerPropertyConverter
-                  .interpretHeatmapLayerProperties(call.argument("properties"));
+                  .interpretHeatmapLayerProperties(changed);
             } else if (layer instanceof HillshadeLayer) {
               properties = LayerPropertyConverter
-                  .interpretHillshadeLayerProperties(call.argument("properties"));
+                  .interpretHillshadeLayerProperties(changed);
             } else if (layer instanceof ColorReliefLayer) {
               properties = LayerPropertyConverter
-                  .interpretColorReliefLayerProperties(call.argument("properties"));
+                  .interpretColorReliefLayerProperties(changed);
             } else if (layer instanceof BackgroundLayer) {
               properties = LayerPropertyConverter
-                  .interpretBackgroundLayerProperties(call.argument("properties"));
+                  .interpretBackgroundLayerProperties(changed);
             } else {
               result.error("UNSUPPORTED_LAYER_TYPE", "Layer type not supported", null);
               return;
             }
             layer.setProperties(properties);
-            result.success(null);
+            layerPropertyMemo.record(layerId, changed);
+            result.success(reply);
           } else {
             result.error("LAYER_NOT_FOUND_ERROR", "Layer " + layerId + "not found", null);
           }
@@ -2682,6 +3043,28 @@ final class MapLibreMapController
           result.success(null);
           break;
         }
+      case "style#addImages":
+        {
+          if (style == null || !style.isFullyLoaded()) {
+            result.error(
+                "STYLE_NOT_READY",
+                "Style is null or not fully loaded. Has onStyleLoaded() already been invoked?",
+                null);
+            break;
+          }
+          final Style target = style;
+          final List<String> names = call.argument("names");
+          final List<byte[]> images = call.argument("images");
+          final boolean sdf = Boolean.TRUE.equals(call.argument("sdf"));
+          if (names == null || images == null || names.size() != images.size()) {
+            result.error(
+                "INVALID_ARGUMENT", "names and images must be lists of the same length.", null);
+            break;
+          }
+          ImageBatchDecoder.decode(
+              images, bitmaps -> addDecodedImages(target, names, bitmaps, sdf, result));
+          break;
+        }
       case "style#addImageSource":
         {
           if (style == null || !style.isFullyLoaded()) {
@@ -2761,7 +3144,11 @@ final class MapLibreMapController
                 null);
             break;
           }
-          style.removeSource((String) call.argument("sourceId"));
+          final String sourceId = call.argument("sourceId");
+          if (style.removeSource(sourceId)) {
+            featureStoresBySource.remove(sourceId);
+            geoJsonUpdateCoalescer.discard(sourceId);
+          }
           result.success(null);
           break;
         }
@@ -2817,6 +3204,7 @@ final class MapLibreMapController
           String layerId = call.argument("layerId");
           style.removeLayer(layerId);
           interactiveFeatureLayerIds.remove(layerId);
+          layerPropertyMemo.forget(layerId);
 
           result.success(null);
           break;
@@ -2936,6 +3324,7 @@ final class MapLibreMapController
 
           if (layer != null) {
             layer.setProperties(PropertyFactory.visibility(visible ? Property.VISIBLE : Property.NONE));
+            layerPropertyMemo.forget(layerId, "visibility");
           }
 
           result.success(null);
@@ -2944,50 +3333,63 @@ final class MapLibreMapController
         }
         case "map#querySourceFeatures":
         {
-          List<Feature> features;
-
-          String sourceId = (String) call.argument("sourceId");
-          if (sourceId == null) {
-            result.error(
-                "INVALID_ARGUMENT", "querySourceFeatures requires a 'sourceId' string.", null);
+          final List<Feature> features = querySourceFeatures(call, result);
+          if (features == null) {
             break;
           }
-
-          // A source is resolved by id out of the style, so without a style
-          // there is no source to query. Reading it blind raised a
-          // NullPointerException, which reached the caller as a bare "error".
-          if (style == null || !style.isFullyLoaded()) {
+          result.success(
+              featuresReply(
+                  FeatureProjection.fromArguments(call).apply(features),
+                  Boolean.TRUE.equals(call.argument("binary"))));
+          break;
+        }
+        case "map#querySourceFeaturesStream":
+        {
+          final String channelName = call.argument("channelName");
+          final Integer chunkSize = call.argument("chunkSize");
+          if (channelName == null || chunkSize == null || chunkSize < 1) {
             result.error(
-                "STYLE_NOT_READY",
-                "Style is null or not fully loaded. Has onStyleLoaded() already been invoked?",
+                "INVALID_ARGUMENT",
+                "querySourceFeaturesStream requires a 'channelName' and a positive 'chunkSize'.",
                 null);
             break;
           }
-
-          String sourceLayerId = (String) call.argument("sourceLayerId");
-
-          List<Object> filter = call.argument("filter");
-          JsonElement jsonElement = filter == null ? null : new Gson().toJsonTree(filter);
-          JsonArray jsonArray = null;
-          if (jsonElement != null && jsonElement.isJsonArray()) {
-            jsonArray = jsonElement.getAsJsonArray();
+          List<Feature> features = querySourceFeatures(call, result);
+          if (features == null) {
+            break;
           }
-          Expression filterExpression =
-                  jsonArray == null ? null : Expression.Converter.convert(jsonArray);
-
-
-          Source source = style.getSource(sourceId);
-          if (source instanceof GeoJsonSource) {
-            features = ((GeoJsonSource) source).querySourceFeatures(filterExpression);
-          } else if (source instanceof CustomGeometrySource) {
-            features = ((CustomGeometrySource) source).querySourceFeatures(filterExpression);
-          } else if (source instanceof VectorSource && sourceLayerId != null) {
-            features = ((VectorSource) source).querySourceFeatures(new String[] {sourceLayerId}, filterExpression);
-          } else {
-            features = Collections.emptyList();
+          final Integer limit = call.argument("limit");
+          if (limit != null && limit < features.size()) {
+            features = features.subList(0, limit);
           }
-
-          result.success(featuresReply(features));
+          if (!features.isEmpty()) {
+            final FeatureProjection projection = FeatureProjection.fromArguments(call);
+            final boolean binary = Boolean.TRUE.equals(call.argument("binary"));
+            featureQueryStreams.put(
+                channelName,
+                new FeatureQueryStream(
+                    messenger,
+                    channelName,
+                    features,
+                    chunkSize,
+                    chunk -> featuresReply(projection.apply(chunk), binary),
+                    featureQueryStreams::remove));
+          }
+          final Map<String, Object> reply = new HashMap<>();
+          reply.put("count", features.size());
+          result.success(reply);
+          break;
+        }
+        case "map#querySourceFeaturesStream#next":
+        {
+          // A stream Dart has cancelled, or that was released on dispose, has
+          // nothing left to send.
+          final FeatureQueryStream stream =
+              featureQueryStreams.get((String) call.argument("channelName"));
+          if (stream != null) {
+            stream.sendNextChunk();
+          }
+          result.success(null);
           break;
         }
         case "style#getLayerIds":
@@ -3095,29 +3497,22 @@ final class MapLibreMapController
         int snapshotWidth = width != null ? width : mapView.getWidth();
         int snapshotHeight = height != null ? height : mapView.getHeight();
 
+        SnapshotEncoding encoding;
+        try {
+          encoding = SnapshotEncoding.from(snapshotArgs);
+        } catch (IllegalArgumentException | ClassCastException e) {
+          result.error("INVALID_ARGUMENT", e.getMessage(), null);
+          break;
+        }
+
         MapSnapshotter.Options options = new MapSnapshotter.Options(snapshotWidth, snapshotHeight)
                 .withStyle(styleUrl)
                 .withCameraPosition(mapLibreMap.getCameraPosition());
-        if (activeSnapshotter != null) {
-          activeSnapshotter.cancel();
+        Number pixelRatio = snapshotArgs != null ? (Number) snapshotArgs.get("pixelRatio") : null;
+        if (pixelRatio != null) {
+          options.withPixelRatio(pixelRatio.floatValue());
         }
-        activeSnapshotter = new MapSnapshotter(context, options);
-        activeSnapshotter.start(new MapSnapshotter.SnapshotReadyCallback() {
-          @Override
-          public void onSnapshotReady(MapSnapshot snapshot) {
-            activeSnapshotter = null;
-            Bitmap bitmap = snapshot.getBitmap();
-            ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
-            result.success(stream.toByteArray());
-          }
-        }, new MapSnapshotter.ErrorHandler() {
-          @Override
-          public void onError(String error) {
-            activeSnapshotter = null;
-            result.error("SNAPSHOT_ERROR", error, null);
-          }
-        });
+        snapshotQueue.submit(options, encoding, result);
         break;
       }
       default:
@@ -3125,6 +3520,51 @@ final class MapLibreMapController
     }
   }
 
+  // Commits a decoded style#addImages batch to the style it was sent for, in one
+  // call, unless that style has been replaced while the images were decoding.
+  private void addDecodedImages(
+      Style target,
+      List<String> names,
+      Bitmap[] bitmaps,
+      boolean sdf,
+      MethodChannel.Result result) {
+    final HashMap<String, Bitmap> decoded = new HashMap<>();
+    final List<String> failed = new ArrayList<>();
+    for (int i = 0; i < bitmaps.length; i++) {
+      if (bitmaps[i] == null) {
+        failed.add(names.get(i));
+      } else {
+        decoded.put(names.get(i), bitmaps[i]);
+      }
+    }
+    if (disposed || !target.isFullyLoaded()) {
+      result.error("STYLE_NOT_READY", "The style changed before the images were decoded.", null);
+      return;
+    }
+    if (!decoded.isEmpty()) {
+      target.addImages(decoded, sdf);
+      ImageBatchDecoder.recycle(decoded.values());
+    }
+    if (!failed.isEmpty()) {
+      result.error("INVALID_IMAGE", "Failed to decode image bytes for " + failed + ".", failed);
+      return;
+    }
+    result.success(null);
+  }
+
+  // Batches are sent as flat pairs and answered as flat pairs, so the reply is
+  // exactly as long as the request. Inside a map#batch the reply is held until
+  // the whole batch answers, so it cannot share the buffer with the next entry.
+  private double[] projectionBuffer(int length) {
+    if (dispatchingBatch) {
+      return new double[length];
+    }
+    if (projectionBuffer.length != length) {
+      projectionBuffer = new double[length];
+    }
+    return projectionBuffer;
+  }
+
   @Override
   public void onCameraMoveStarted(int reason) {
     final Map<String, Object> arguments = new HashMap<>(2);
@@ -3138,16 +3578,21 @@ final class MapLibreMapController
     if (!trackCameraPosition) {
       return;
     }
+    if (cameraMoveStream.isEnabled()) {
+      cameraMoveStream.onCameraMove();
+      return;
+    }
     final Map<String, Object> arguments = new HashMap<>(2);
-    arguments.put("position", Convert.toJson(mapLibreMap.getCameraPosition()));
+    arguments.put("position", Convert.toArray(mapLibreMap.getCameraPosition()));
     methodChannel.invokeMethod("camera#onMove", arguments);
   }
 
   @Override
   public void onCameraIdle() {
+    cameraMoveStream.flush();
     final Map<String, Object> arguments = new HashMap<>(2);
     if (trackCameraPosition) {
-      arguments.put("position", Convert.toJson(mapLibreMap.getCameraPosition()));
+      arguments.put("position", Convert.toArray(mapLibreMap.getCameraPosition()));
     }
     methodChannel.invokeMethod("camera#onIdle", arguments);
   }
@@ -3182,6 +3627,12 @@ final class MapLibreMapController
     methodChannel.invokeMethod("map#onCameraTrackingDismissed", new HashMap<>());
   }
 
+  // The square hit-tested around a tap or a drag start.
+  private RectF tapRect(PointF pointf) {
+    final float half = tapTolerance == null ? 10 : tapTolerance * density;
+    return new RectF(pointf.x - half, pointf.y - half, pointf.x + half, pointf.y + half);
+  }
+
   @Override
   public void onDidBecomeIdle() {
     methodChannel.invokeMethod("map#onIdle", new HashMap<>());
@@ -3190,8 +3641,8 @@ final class MapLibreMapController
   @Override
   public boolean onMapClick(@NonNull LatLng point) {
     PointF pointf = mapLibreMap.getProjection().toScreenLocation(point);
-    RectF rectF = new RectF(pointf.x - 10, pointf.y - 10, pointf.x + 10, pointf.y + 10);
-    Pair<Feature, String> featureLayerPair = firstFeatureOnLayers(rectF);
+    final List<Feature> candidates = tapCandidateCount > 0 ? new ArrayList<Feature>() : null;
+    Pair<Feature, String> featureLayerPair = firstFeatureOnLayers(tapRect(pointf), candidates);
     final Map<String, Object> arguments = new HashMap<>();
     arguments.put("x", pointf.x);
     arguments.put("y", pointf.y);
@@ -3200,6 +3651,12 @@ final class MapLibreMapController
     if (featureLayerPair != null && featureLayerPair.first != null) {
       arguments.put("layerId", featureLayerPair.second);
       arguments.put("id", featureLayerPair.first.id());
+      if (candidates != null) {
+        arguments.put(
+            "candidates",
+            TapCandidates.nearest(
+                candidates, point, mapLibreMap.getCameraPosition().zoom, tapCandidateCount));
+      }
       methodChannel.invokeMethod("feature#onTap", arguments);
       // Fire map#onMapClick only if featureTapsTriggersMapClick is true
       if (featureTapsTriggersMapClick) {
@@ -3230,10 +3687,14 @@ final class MapLibreMapController
       return;
     }
     disposed = true;
-    if (activeSnapshotter != null) {
-      activeSnapshotter.cancel();
-      activeSnapshotter = null;
-    }
+    geoJsonParseQueue.dispose();
+    geoJsonUpdateCoalescer.cancel();
+    snapshotQueue.release();
+    for (FeatureQueryStream stream : new ArrayList<>(featureQueryStreams.values())) {
+      stream.release();
+    }
+    cameraMoveStream.release();
+    imageSourceFrames.release();
     methodChannel.setMethodCallHandler(null);
     // A map#waitForMap parked while the map was still being built is only ever
     // answered by onMapReady, which will not fire now. Answer it here, or the Dart
@@ -3476,13 +3937,16 @@ final class MapLibreMapController
       return;
     }
     Log.w(TAG, "onLowMemory has been called, telling MapView to reduce memory usage.");
+    AssetBitmapCache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
     // Forward low memory event to MapView
     mapView.onLowMemory();
   }
 
   @Override
   public void onTrimMemory(int level) {
-    // Lifecycle methods already handle resource management
+    // Lifecycle methods already handle the map's own resources; only the
+    // process-wide asset images are given back here.
+    AssetBitmapCache.trimMemory(level);
   }
 
   // MapLibreMapOptionsSink methods
@@ -3722,6 +4186,21 @@ final class MapLibreMapController
     this.featureTapsTriggersMapClick = triggers;
   }
 
+  @Override
+  public void setTapTolerance(float tolerance) {
+    this.tapTolerance = tolerance;
+  }
+
+  @Override
+  public void setTapCandidateCount(int count) {
+    this.tapCandidateCount = Math.max(0, count);
+  }
+
+  @Override
+  public void setCameraMoveThrottle(CameraMoveStream.Throttle throttle) {
+    cameraMoveStream.setThrottle(throttle);
+  }
+
   private void updateMyLocationEnabled() {
     if (this.locationComponent == null && mapLibreMap.getStyle() != null && myLocationEnabled) {
       enableLocationComponent(mapLibreMap.getStyle());
@@ -3806,53 +4285,7 @@ final class MapLibreMapController
    * @return
    */
   private Bitmap getScaledImage(String imageId, float density) {
-    AssetFileDescriptor assetFileDescriptor;
-
-    // Split image path into parts.
-    List<String> imagePathList = Arrays.asList(imageId.split("/"));
-    List<String> assetPathList = new ArrayList<>();
-
-    // "On devices with a device pixel ratio of 1.8, the asset .../2.0x/my_icon.png would be chosen.
-    // For a device pixel ratio of 2.7, the asset .../3.0x/my_icon.png would be chosen."
-    // Source: https://flutter.dev/docs/development/ui/assets-and-images#resolution-aware
-    for (int i = (int) Math.ceil(density); i > 0; i--) {
-      String assetPath;
-      if (i == 1) {
-        // If density is 1.0x then simply take the default asset path
-        assetPath = MapLibreMapsPlugin.flutterAssets.getAssetFilePathByName(imageId);
-      } else {
-        // Build a resolution aware asset path as follows:
-        // <directory asset>/<ratio>/<image name>
-        // where ratio is 1.0x, 2.0x or 3.0x.
-        StringBuilder stringBuilder = new StringBuilder();
-        for (int j = 0; j < imagePathList.size() - 1; j++) {
-          stringBuilder.append(imagePathList.get(j));
-          stringBuilder.append("/");
-        }
-        stringBuilder.append(((float) i) + "x");
-        stringBuilder.append("/");
-        stringBuilder.append(imagePathList.get(imagePathList.size() - 1));
-        assetPath = MapLibreMapsPlugin.flutterAssets.getAssetFilePathByName(stringBuilder.toString());
-      }
-      // Build up a list of resolution aware asset paths.
-      assetPathList.add(assetPath);
-    }
-
-    // Iterate over asset paths and get the highest scaled asset (as a bitmap).
-    Bitmap bitmap = null;
-    for (String assetPath : assetPathList) {
-      try {
-        // Read path (throws exception if doesn't exist).
-        assetFileDescriptor = mapView.getContext().getAssets().openFd(assetPath);
-        InputStream assetStream = assetFileDescriptor.createInputStream();
-        bitmap = BitmapFactory.decodeStream(assetStream);
-        assetFileDescriptor.close(); // Close for memory
-        break; // If exists, break
-      } catch (IOException e) {
-        // Skip
-      }
-    }
-    return bitmap;
+    return AssetBitmapCache.get(mapView.getContext().getAssets(), imageId, density);
   }
 
   boolean onMoveBegin(MoveGestureDetector detector) {
@@ -3864,8 +4297,7 @@ final class MapLibreMapController
         && detector.getPointersCount() == 1) {
       PointF pointf = detector.getFocalPoint();
       LatLng origin = mapLibreMap.getProjection().fromScreenLocation(pointf);
-      RectF rectF = new RectF(pointf.x - 10, pointf.y - 10, pointf.x + 10, pointf.y + 10);
-      Pair<Feature, String> featureLayerPair = firstFeatureOnLayers(rectF);
+      Pair<Feature, String> featureLayerPair = firstFeatureOnLayers(tapRect(pointf));
       if (featureLayerPair != null && featureLayerPair.first != null && startDragging(featureLayerPair.first, origin)) {
         invokeFeatureDrag(pointf, "start");
         return true;
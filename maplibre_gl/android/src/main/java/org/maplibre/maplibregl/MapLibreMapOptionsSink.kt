@@ -62,5 +62,14 @@ internal interface MapLibreMapOptionsSink {
 
     fun setFeatureTapsTriggersMapClick(triggers: Boolean)
 
+    /** Half the side of the square hit-tested around a tap or a drag start, in dp. */
+    fun setTapTolerance(tolerance: Float)
+
+    /** How many features nearest a tap feature#onTap lists as candidates; none when 0. */
+    fun setTapCandidateCount(count: Int)
+
+    /** Sends camera moves as throttled binary deltas rather than camera#onMove calls; off when null. */
+    fun setCameraMoveThrottle(throttle: CameraMoveStream.Throttle?)
+
     fun setUseHybridComposition(useHybridComposition: Boolean)
 }
\ No newline at end of file
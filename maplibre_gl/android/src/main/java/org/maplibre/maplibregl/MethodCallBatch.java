@@ -0,0 +1,118 @@
+package org.maplibre.maplibregl;
+
+import android.util.Log;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the entries of a map#batch call, each a {@code {method, arguments}} map, through the
+ * controller's own method-call handling, so a batch behaves exactly like the same calls sent one by
+ * one, minus a platform-channel round trip per call.
+ *
+ * <p>Entries are dispatched in order, in one pass on the main thread. The batch is answered once
+ * every entry has answered, with one map per entry: {@code {"result": value}} for a success, {@code
+ * {"error": {"code", "message", "details"}}} for an error, and {@code {"notImplemented": true}} for
+ * an unknown method. Entries that answer later, such as GeoJSON writes parsed on a worker thread,
+ * hold the reply back until they do. An entry that throws is answered with an error, and the
+ * entries after it still run.
+ */
+final class MethodCallBatch {
+  private static final String TAG = "MethodCallBatch";
+  static final String METHOD = "map#batch";
+
+  interface Dispatcher {
+    void dispatch(MethodCall call, MethodChannel.Result result);
+  }
+
+  private final List<Object> replies;
+  private final MethodChannel.Result result;
+  private int pending;
+
+  private MethodCallBatch(int size, MethodChannel.Result result) {
+    this.replies = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      replies.add(null);
+    }
+    this.result = result;
+    this.pending = size;
+  }
+
+  static void run(
+      List<Map<String, Object>> entries,
+      Dispatcher dispatcher,
+      PerformanceCounters counters,
+      MethodChannel.Result result) {
+    final int size = entries.size();
+    final MethodCallBatch batch = new MethodCallBatch(size, result);
+    final long start = System.nanoTime();
+    for (int i = 0; i < size; i++) {
+      final Map<String, Object> entry = entries.get(i);
+      final String method = (String) entry.get("method");
+      final MethodChannel.Result entryResult = batch.resultFor(i);
+      if (method == null || METHOD.equals(method)) {
+        entryResult.error(
+            "INVALID_ARGUMENT", "Batch entry " + i + " has no method or is itself a batch.", null);
+        continue;
+      }
+      try {
+        dispatcher.dispatch(new MethodCall(method, entry.get("arguments")), entryResult);
+      } catch (Exception e) {
+        Log.e(TAG, "Batch entry " + i + " (" + method + ") failed", e);
+        entryResult.error("BATCH_ENTRY_FAILED", e.getMessage(), null);
+      }
+    }
+    counters.increment(PerformanceCounters.BATCH_CALLS);
+    counters.add(PerformanceCounters.BATCH_ENTRIES, size);
+    counters.add(PerformanceCounters.BATCH_DISPATCH_NANOS, System.nanoTime() - start);
+    if (size == 0) {
+      result.success(batch.replies);
+    }
+  }
+
+  private MethodChannel.Result resultFor(int index) {
+    return new MethodChannel.Result() {
+      private boolean answered = false;
+
+      @Override
+      public void success(Object value) {
+        final Map<String, Object> reply = new HashMap<>();
+        reply.put("result", value);
+        answer(reply);
+      }
+
+      @Override
+      public void error(String code, String message, Object details) {
+        final Map<String, Object> error = new HashMap<>();
+        error.put("code", code);
+        error.put("message", message);
+        error.put("details", details);
+        final Map<String, Object> reply = new HashMap<>();
+        reply.put("error", error);
+        answer(reply);
+      }
+
+      @Override
+      public void notImplemented() {
+        final Map<String, Object> reply = new HashMap<>();
+        reply.put("notImplemented", true);
+        answer(reply);
+      }
+
+      private void answer(Map<String, Object> reply) {
+        // A handler answering twice is a bug there; the channel would throw, so ignore it here.
+        if (answered) {
+          return;
+        }
+        answered = true;
+        replies.set(index, reply);
+        if (--pending == 0) {
+          result.success(replies);
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,54 @@
+package org.maplibre.maplibregl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Named counters a map controller accumulates over its lifetime, such as how many GeoJSON updates
+ * were coalesced away. Read from Dart through {@code map#getPerformanceCounters}, so the effect of
+ * the batching and caching paths can be measured on a device instead of guessed at.
+ *
+ * <p>Counters may be bumped from worker threads as well as the main thread.
+ */
+final class PerformanceCounters {
+  static final String GEOJSON_UPDATES_SCHEDULED = "geojson.updatesScheduled";
+  static final String GEOJSON_UPDATES_DROPPED = "geojson.updatesDropped";
+  static final String GEOJSON_UPDATES_FLUSHED = "geojson.updatesFlushed";
+  static final String LAYER_PROPERTIES_SKIPPED = "layerProperties.skipped";
+  static final String BATCH_CALLS = "batch.calls";
+  static final String BATCH_ENTRIES = "batch.entries";
+  static final String BATCH_DISPATCH_NANOS = "batch.dispatchNanos";
+  static final String IMAGE_FRAMES = "imageFrames.committed";
+  static final String IMAGE_FRAME_DECODE_NANOS = "imageFrames.decodeNanos";
+  static final String IMAGE_FRAME_COMMIT_NANOS = "imageFrames.commitNanos";
+
+  private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+  void increment(String name) {
+    add(name, 1);
+  }
+
+  void add(String name, long delta) {
+    AtomicLong counter = counters.get(name);
+    if (counter == null) {
+      // Map.merge and computeIfAbsent need API 24, above this plugin's minSdk.
+      final AtomicLong created = new AtomicLong();
+      counter = counters.putIfAbsent(name, created);
+      if (counter == null) {
+        counter = created;
+      }
+    }
+    counter.addAndGet(delta);
+  }
+
+  /** A copy of every counter bumped so far, for the method-channel reply. */
+  Map<String, Object> snapshot() {
+    final Map<String, Object> snapshot = new HashMap<>();
+    for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().get());
+    }
+    return snapshot;
+  }
+}
@@ -0,0 +1,91 @@
+package org.maplibre.maplibregl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.maplibre.android.style.layers.PropertyValue;
+
+/**
+ * Bounded LRU cache of the {@link PropertyValue}s {@link LayerPropertyConverter} builds, keyed on
+ * the layer type, the property name and the raw value decoded from the method channel.
+ *
+ * <p>Building a property value converts the raw value to a Gson tree and then to an {@code
+ * Expression}, and animations send the same values again and again through layer#setProperties.
+ * The raw values are the lists, maps, strings, numbers and booleans of Flutter's standard codec,
+ * which all compare by value, so a value Dart sends twice hits the cache the second time.
+ *
+ * <p>Cached property values are shared between calls and layers. That is safe because nothing
+ * mutates them once built: the SDK only reads them in {@code Layer#setProperties}.
+ */
+final class PropertyValueCache {
+  interface Converter {
+    /** Builds the property value, or returns null for a property the layer type does not have. */
+    PropertyValue convert(String name, Object value);
+  }
+
+  private static final int MAX_ENTRIES = 512;
+
+  private final Map<Key, PropertyValue> entries =
+      new LinkedHashMap<Key, PropertyValue>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, PropertyValue> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  /** Returns the cached property value, building and caching it through {@code converter}. */
+  PropertyValue get(String layerType, String name, Object value, Converter converter) {
+    final Key key = new Key(layerType, name, value);
+    synchronized (entries) {
+      final PropertyValue cached = entries.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    // Built outside the lock: a concurrent miss on the same key builds it twice, which is
+    // harmless, and nothing waits on a slow conversion.
+    final PropertyValue built = converter.convert(name, value);
+    if (built != null) {
+      synchronized (entries) {
+        entries.put(key, built);
+      }
+    }
+    return built;
+  }
+
+  private static final class Key {
+    private final String layerType;
+    private final String name;
+    private final Object value;
+    private final int hash;
+
+    Key(String layerType, String name, Object value) {
+      this.layerType = layerType;
+      this.name = name;
+      this.value = value;
+      int hash = layerType.hashCode();
+      hash = 31 * hash + name.hashCode();
+      hash = 31 * hash + (value == null ? 0 : value.hashCode());
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) other;
+      return hash == that.hash
+          && layerType.equals(that.layerType)
+          && name.equals(that.name)
+          && (value == null ? that.value == null : value.equals(that.value));
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package org.maplibre.maplibregl;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.maplibre.android.camera.CameraPosition;
+import org.maplibre.android.geometry.LatLngBounds;
+import org.maplibre.android.maps.Style;
+import org.maplibre.android.snapshotter.MapSnapshot;
+import org.maplibre.android.snapshotter.MapSnapshotter;
+
+/**
+ * Renders the views of one snapshot#renderBatch call, each a camera or bounds with an optional size
+ * of its own, one after the other with a single {@link MapSnapshotter}, and sends every image to
+ * Dart over an EventChannel of its own as soon as it is encoded.
+ *
+ * <p>A thumbnail used to need a map view and a map#takeSnapshot call, which built a new
+ * snapshotter, and with it a renderer and a style load, for every image. Here the snapshotter and
+ * its style stay loaded for the whole batch; between renders only its size and camera change.
+ * Rendering starts when Dart listens, the next view renders while the last one is being encoded by
+ * its {@link SnapshotEncoding}, and cancelling the Dart subscription stops the batch. At most
+ * {@link #MAX_UNENCODED} rendered bitmaps wait for the encoder at a time, so a batch of thousands
+ * does not pile them up when encoding is the slower step.
+ *
+ * <p>An event is {@code {"index": int, "image": byte[]}}, in the order of the views. A view that
+ * could not be encoded is an error event with the index as details, and the batch goes on; a failed
+ * render is an error event that ends it. All methods are called on the main thread.
+ */
+final class SnapshotBatch implements EventChannel.StreamHandler {
+  private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  /** How many rendered views may be waiting to be encoded before rendering pauses. */
+  private static final int MAX_UNENCODED = 2;
+
+  /** One view of the batch, in logical pixels. Exactly one of camera and bounds is set. */
+  static final class View {
+    final CameraPosition camera;
+    final LatLngBounds bounds;
+    final int width;
+    final int height;
+
+    View(CameraPosition camera, LatLngBounds bounds, int width, int height) {
+      this.camera = camera;
+      this.bounds = bounds;
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  private final Context context;
+  private final EventChannel channel;
+  private final String styleString;
+  private final List<View> views;
+  private final SnapshotEncoding encoding;
+  private final Float pixelRatio;
+  private EventChannel.EventSink sink;
+  private MapSnapshotter snapshotter;
+  /** The next view to render, and how many have been encoded so far. */
+  private int next = 0;
+  private int encoded = 0;
+  /** Whether the snapshotter is rendering a view. */
+  private boolean rendering = false;
+  private boolean released = false;
+
+  SnapshotBatch(
+      Context context,
+      BinaryMessenger messenger,
+      String channelName,
+      String styleString,
+      List<View> views,
+      SnapshotEncoding encoding,
+      Float pixelRatio) {
+    this.context = context;
+    this.styleString = styleString;
+    this.views = views;
+    this.encoding = encoding;
+    this.pixelRatio = pixelRatio;
+    this.channel = new EventChannel(messenger, channelName);
+    channel.setStreamHandler(this);
+  }
+
+  /**
+   * Reads the views of a snapshot#renderBatch call: each a map with a "camera" as {@code [lat, lng,
+   * zoom, bearing, tilt]} or "bounds" as {@code [south, west, north, east]}, and optionally a
+   * "width" and "height" in place of the batch's.
+   *
+   * @throws IllegalArgumentException if a view has neither a camera nor bounds
+   */
+  static List<View> toViews(List<?> views, int width, int height) {
+    final List<View> result = new ArrayList<>(views.size());
+    for (int i = 0; i < views.size(); i++) {
+      final Map<?, ?> view = (Map<?, ?>) views.get(i);
+      final Object camera = view.get("camera");
+      final Object bounds = view.get("bounds");
+      if (camera == null && bounds == null) {
+        throw new IllegalArgumentException("View " + i + " has neither a camera nor bounds");
+      }
+      final Number viewWidth = (Number) view.get("width");
+      final Number viewHeight = (Number) view.get("height");
+      result.add(
+          new View(
+              camera != null ? Convert.toCameraPosition(camera) : null,
+              camera == null ? Convert.toLatLngBounds(bounds) : null,
+              viewWidth != null ? viewWidth.intValue() : width,
+              viewHeight != null ? viewHeight.intValue() : height));
+    }
+    return result;
+  }
+
+  @Override
+  public void onListen(Object arguments, EventChannel.EventSink events) {
+    sink = events;
+    final View first = views.get(0);
+    final MapSnapshotter.Options options =
+        new MapSnapshotter.Options(first.width, first.height)
+            .withStyleBuilder(styleBuilder(styleString));
+    if (pixelRatio != null) {
+      options.withPixelRatio(pixelRatio);
+    }
+    if (first.camera != null) {
+      options.withCameraPosition(first.camera);
+    } else {
+      options.withRegion(first.bounds);
+    }
+    snapshotter = new MapSnapshotter(context, options);
+    next = 1;
+    start(0);
+  }
+
+  @Override
+  public void onCancel(Object arguments) {
+    release();
+  }
+
+  private void start(int index) {
+    rendering = true;
+    snapshotter.start(
+        new MapSnapshotter.SnapshotReadyCallback() {
+          @Override
+          public void onSnapshotReady(MapSnapshot snapshot) {
+            if (released) {
+              return;
+            }
+            rendering = false;
+            encoding.encode(snapshot.getBitmap(), bytes -> onEncoded(index, bytes));
+            // The snapshotter only takes the next start once this callback has
+            // returned.
+            mainHandler.post(SnapshotBatch.this::renderNext);
+          }
+        },
+        new MapSnapshotter.ErrorHandler() {
+          @Override
+          public void onError(String error) {
+            if (released) {
+              return;
+            }
+            sink.error("SNAPSHOT_ERROR", error, index);
+            sink.endOfStream();
+            release();
+          }
+        });
+  }
+
+  // Called when a render is done and whenever an encode is, so the next view
+  // starts once both the snapshotter and the encoder have room for it.
+  private void renderNext() {
+    if (released || rendering || next >= views.size() || next - encoded > MAX_UNENCODED) {
+      return;
+    }
+    final View view = views.get(next);
+    // The size first: bounds are fitted to the size set at the time.
+    snapshotter.setSize(view.width, view.height);
+    if (view.camera != null) {
+      snapshotter.setCameraPosition(view.camera);
+    } else {
+      snapshotter.setRegion(view.bounds);
+    }
+    start(next++);
+  }
+
+  private void onEncoded(int index, byte[] bytes) {
+    if (released) {
+      return;
+    }
+    if (bytes != null) {
+      final Map<String, Object> event = new HashMap<>();
+      event.put("index", index);
+      event.put("image", bytes);
+      sink.success(event);
+    } else {
+      sink.error("SNAPSHOT_ERROR", "Could not encode the snapshot", index);
+    }
+    if (++encoded == views.size()) {
+      sink.endOfStream();
+      release();
+    } else {
+      renderNext();
+    }
+  }
+
+  private void release() {
+    if (released) {
+      return;
+    }
+    released = true;
+    if (snapshotter != null) {
+      snapshotter.cancel();
+      snapshotter = null;
+    }
+    channel.setStreamHandler(null);
+  }
+
+  // The same kinds of style string as MapLibreMapController#setStyleString.
+  private static Style.Builder styleBuilder(String styleString) {
+    if (styleString.startsWith("{") || styleString.startsWith("[")) {
+      return new Style.Builder().fromJson(styleString);
+    } else if (styleString.startsWith("/")) {
+      return new Style.Builder().fromUri("file://" + styleString);
+    } else if (!styleString.startsWith("http://")
+        && !styleString.startsWith("https://")
+        && !styleString.startsWith("mapbox://")) {
+      final String key = MapLibreMapsPlugin.flutterAssets.getAssetFilePathByName(styleString);
+      return new Style.Builder().fromUri("asset://" + key);
+    }
+    return new Style.Builder().fromUri(styleString);
+  }
+}
@@ -0,0 +1,140 @@
+package org.maplibre.maplibregl;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * How a snapshot bitmap is turned into the bytes sent back to Dart: the image format and quality,
+ * and a factor to shrink the bitmap by first, read from the arguments of a snapshot call.
+ *
+ * <p>Compressing used to run in the snapshot callback on the main thread, always as a PNG at full
+ * size into a growing {@link ByteArrayOutputStream}, which for a full screen map took long enough to
+ * drop frames. {@link #encode} does it on a worker thread of its own, into a buffer sized up front
+ * from the pixel count and the format.
+ */
+final class SnapshotEncoding {
+  static final SnapshotEncoding PNG = new SnapshotEncoding(Bitmap.CompressFormat.PNG, 100, 1f);
+
+  interface Callback {
+    /** Called on the main thread with the encoded image, or null if it could not be encoded. */
+    void onEncoded(byte[] bytes);
+  }
+
+  private static final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+              final Thread thread =
+                  new Thread(runnable, "maplibre-snapshot-encode-" + count.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+  private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  final Bitmap.CompressFormat format;
+  final int quality;
+  final float scale;
+
+  private SnapshotEncoding(Bitmap.CompressFormat format, int quality, float scale) {
+    this.format = format;
+    this.quality = quality;
+    this.scale = scale;
+  }
+
+  /**
+   * Reads "format" ("png", "jpeg" or "webp"), "quality" (0 to 100) and "scale" (above 0, up to 1)
+   * from the arguments, each optional.
+   *
+   * @throws IllegalArgumentException if one of them is out of range
+   */
+  @SuppressWarnings("deprecation")
+  static SnapshotEncoding from(Map<String, Object> arguments) {
+    if (arguments == null) {
+      return PNG;
+    }
+    final Object formatName = arguments.get("format");
+    final Bitmap.CompressFormat format;
+    if (formatName == null || "png".equals(formatName)) {
+      format = Bitmap.CompressFormat.PNG;
+    } else if ("jpeg".equals(formatName)) {
+      format = Bitmap.CompressFormat.JPEG;
+    } else if ("webp".equals(formatName)) {
+      // Plain WEBP turns lossless at quality 100 from API 29 on; the quality
+      // asked for is meant lossy.
+      format =
+          Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+              ? Bitmap.CompressFormat.WEBP_LOSSY
+              : Bitmap.CompressFormat.WEBP;
+    } else {
+      throw new IllegalArgumentException("Unknown snapshot format " + formatName);
+    }
+    final Number quality = (Number) arguments.get("quality");
+    if (quality != null && (quality.intValue() < 0 || quality.intValue() > 100)) {
+      throw new IllegalArgumentException("Snapshot quality must be within 0 and 100");
+    }
+    final Number scale = (Number) arguments.get("scale");
+    if (scale != null && (scale.floatValue() <= 0 || scale.floatValue() > 1)) {
+      throw new IllegalArgumentException("Snapshot scale must be above 0 and at most 1");
+    }
+    return new SnapshotEncoding(
+        format,
+        quality != null ? quality.intValue() : 100,
+        scale != null ? scale.floatValue() : 1f);
+  }
+
+  /**
+   * Scales and compresses the bitmap off the main thread. The bitmap is only read, so it can be
+   * handed over as it comes from the snapshotter.
+   */
+  void encode(Bitmap bitmap, Callback callback) {
+    executor.execute(
+        () -> {
+          byte[] bytes = null;
+          try {
+            bytes = compress(bitmap);
+          } catch (RuntimeException e) {
+            // Answered below as a failed snapshot.
+          }
+          final byte[] encoded = bytes;
+          mainHandler.post(() -> callback.onEncoded(encoded));
+        });
+  }
+
+  private byte[] compress(Bitmap bitmap) {
+    Bitmap source = bitmap;
+    if (scale < 1f) {
+      source =
+          Bitmap.createScaledBitmap(
+              bitmap,
+              Math.max(1, Math.round(bitmap.getWidth() * scale)),
+              Math.max(1, Math.round(bitmap.getHeight() * scale)),
+              true);
+    }
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream(estimateSize(source));
+    final boolean compressed = source.compress(format, quality, stream);
+    if (source != bitmap) {
+      source.recycle();
+    }
+    return compressed ? stream.toByteArray() : null;
+  }
+
+  // A guess at the encoded size so that the stream rarely grows: map tiles
+  // compress to about a byte a pixel as PNG, and to well under that lossy.
+  private int estimateSize(Bitmap bitmap) {
+    final long pixels = (long) bitmap.getWidth() * bitmap.getHeight();
+    final long estimate = format == Bitmap.CompressFormat.PNG ? pixels : pixels / 4;
+    return (int) Math.max(16 * 1024, Math.min(estimate, 32 * 1024 * 1024));
+  }
+}
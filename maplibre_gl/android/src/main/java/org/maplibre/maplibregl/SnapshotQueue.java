@@ -0,0 +1,102 @@
+package org.maplibre.maplibregl;
+
+import android.content.Context;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import org.maplibre.android.snapshotter.MapSnapshot;
+import org.maplibre.android.snapshotter.MapSnapshotter;
+
+/**
+ * Runs the map#takeSnapshot calls of one map, at most {@link #MAX_RUNNING} at a time and the rest in
+ * the order they came.
+ *
+ * <p>There used to be a single snapshotter, and a new call cancelled the one in flight, whose call
+ * was then never answered. Each snapshot here gets its own snapshotter, as they differ in size and
+ * camera, and is answered once it is encoded by its {@link SnapshotEncoding}. Used on the main
+ * thread only.
+ */
+final class SnapshotQueue {
+  /** Each snapshotter renders offscreen with a surface of its own, so keep it to a few. */
+  static final int MAX_RUNNING = 2;
+
+  private static final class Request {
+    final MapSnapshotter.Options options;
+    final SnapshotEncoding encoding;
+    final MethodChannel.Result result;
+    MapSnapshotter snapshotter;
+
+    Request(
+        MapSnapshotter.Options options, SnapshotEncoding encoding, MethodChannel.Result result) {
+      this.options = options;
+      this.encoding = encoding;
+      this.result = result;
+    }
+  }
+
+  private final Context context;
+  private final ArrayDeque<Request> pending = new ArrayDeque<>();
+  private final List<Request> running = new ArrayList<>();
+
+  SnapshotQueue(Context context) {
+    this.context = context;
+  }
+
+  void submit(
+      MapSnapshotter.Options options, SnapshotEncoding encoding, MethodChannel.Result result) {
+    pending.addLast(new Request(options, encoding, result));
+    startNext();
+  }
+
+  /** Cancels the snapshots in flight and fails every call not answered yet. */
+  void release() {
+    for (Request request : running) {
+      request.snapshotter.cancel();
+      pending.addFirst(request);
+    }
+    running.clear();
+    while (!pending.isEmpty()) {
+      pending.removeFirst().result.error("SNAPSHOT_CANCELLED", "The map was disposed", null);
+    }
+  }
+
+  private void startNext() {
+    while (running.size() < MAX_RUNNING && !pending.isEmpty()) {
+      start(pending.removeFirst());
+    }
+  }
+
+  private void start(Request request) {
+    request.snapshotter = new MapSnapshotter(context, request.options);
+    running.add(request);
+    request.snapshotter.start(
+        new MapSnapshotter.SnapshotReadyCallback() {
+          @Override
+          public void onSnapshotReady(MapSnapshot snapshot) {
+            finished(request);
+            request.encoding.encode(
+                snapshot.getBitmap(),
+                bytes -> {
+                  if (bytes != null) {
+                    request.result.success(bytes);
+                  } else {
+                    request.result.error("SNAPSHOT_ERROR", "Could not encode the snapshot", null);
+                  }
+                });
+          }
+        },
+        new MapSnapshotter.ErrorHandler() {
+          @Override
+          public void onError(String error) {
+            finished(request);
+            request.result.error("SNAPSHOT_ERROR", error, null);
+          }
+        });
+  }
+
+  private void finished(Request request) {
+    running.remove(request);
+    startNext();
+  }
+}
@@ -0,0 +1,77 @@
+package org.maplibre.maplibregl;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.HashMap;
+import java.util.Map;
+import org.maplibre.android.maps.Style;
+
+/**
+ * The layers and sources of the serialized style, by id, parsed once and kept until the style
+ * changes.
+ *
+ * <p>style#getLayerProperties and style#getSourceProperties read the serialized style so that their
+ * result matches the style spec. Serializing and parsing a large style costs tens of milliseconds,
+ * and then the layer was found with a linear scan, all on every call. Here the style is parsed on
+ * the first lookup after it changed, and every lookup after that is a map get.
+ *
+ * <p>The controller calls {@link #invalidate()} whenever it changes the style. The index also
+ * rebuilds itself when asked about a different {@link Style} than it was built from, so a replaced
+ * style can never be answered from the old one.
+ *
+ * <p>All methods are called on the main thread.
+ */
+final class StyleJsonIndex {
+  private Style indexedStyle;
+  private final Map<String, JsonObject> layersById = new HashMap<>();
+  private final Map<String, JsonObject> sourcesById = new HashMap<>();
+
+  /** Drops the index; the next lookup parses the style again. */
+  void invalidate() {
+    indexedStyle = null;
+    layersById.clear();
+    sourcesById.clear();
+  }
+
+  /** The style-spec JSON of the layer, or null if the style has no such layer. */
+  JsonObject layer(Style style, String layerId) {
+    ensureIndexed(style);
+    return layersById.get(layerId);
+  }
+
+  /** The style-spec JSON of the source, or null if the style has no such source. */
+  JsonObject source(Style style, String sourceId) {
+    ensureIndexed(style);
+    return sourcesById.get(sourceId);
+  }
+
+  private void ensureIndexed(Style style) {
+    if (style == indexedStyle) {
+      return;
+    }
+    invalidate();
+    final JsonObject styleJson = JsonParser.parseString(style.getJson()).getAsJsonObject();
+    final JsonArray layers = styleJson.getAsJsonArray("layers");
+    if (layers != null) {
+      for (JsonElement element : layers) {
+        final JsonObject layer = element.getAsJsonObject();
+        final JsonElement id = layer.get("id");
+        // The first layer with an id wins, as the linear scan this replaces found it.
+        if (id != null && !layersById.containsKey(id.getAsString())) {
+          layersById.put(id.getAsString(), layer);
+        }
+      }
+    }
+    final JsonObject sources = styleJson.getAsJsonObject("sources");
+    if (sources != null) {
+      for (Map.Entry<String, JsonElement> entry : sources.entrySet()) {
+        if (entry.getValue().isJsonObject()) {
+          sourcesById.put(entry.getKey(), entry.getValue().getAsJsonObject());
+        }
+      }
+    }
+    indexedStyle = style;
+  }
+}
@@ -0,0 +1,206 @@
+package org.maplibre.maplibregl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.maplibre.android.geometry.LatLng;
+import org.maplibre.geojson.Feature;
+import org.maplibre.geojson.Geometry;
+import org.maplibre.geojson.GeometryCollection;
+import org.maplibre.geojson.LineString;
+import org.maplibre.geojson.MultiLineString;
+import org.maplibre.geojson.MultiPoint;
+import org.maplibre.geojson.MultiPolygon;
+import org.maplibre.geojson.Point;
+import org.maplibre.geojson.Polygon;
+
+/**
+ * Ranks the features found around a tap by how far they are from it on screen, for the {@code
+ * candidates} of feature#onTap.
+ *
+ * <p>On a dense map the topmost feature under the finger is often not the one meant. The features
+ * come from the query that already found the topmost one, so ranking them costs no further native
+ * query, and Dart can pick among them without asking again.
+ *
+ * <p>Distances are in dp, measured in the Web Mercator plane at the camera's zoom, which is what the
+ * screen shows for an untilted map: 0 for a tap inside a polygon, otherwise to the nearest vertex or
+ * segment. Under a tilted camera they are a ranking, not an exact screen distance.
+ */
+final class TapCandidates {
+  /** Width of the world in dp at zoom 0; MapLibre tiles are 512 dp. */
+  private static final double WORLD_SIZE_AT_ZOOM_0 = 512;
+  private static final double MAX_LATITUDE = 85.0511287798;
+
+  private final double worldSize;
+  private final double tapX;
+  private final double tapY;
+
+  private TapCandidates(LatLng tap, double zoom) {
+    this.worldSize = WORLD_SIZE_AT_ZOOM_0 * Math.pow(2, zoom);
+    this.tapX = x(tap.getLongitude());
+    this.tapY = y(tap.getLatitude());
+  }
+
+  /**
+   * The {@code count} features nearest to {@code tap}, nearest first, each as {@code {"id",
+   * "distance", "feature"}} with the feature as a GeoJSON string. A feature found more than once,
+   * as one split across tiles is, is listed once, at its nearest.
+   */
+  static List<Map<String, Object>> nearest(
+      List<Feature> features, LatLng tap, double zoom, int count) {
+    final TapCandidates ranking = new TapCandidates(tap, zoom);
+    final List<Candidate> candidates = new ArrayList<>(features.size());
+    final Map<String, Candidate> byId = new HashMap<>();
+    for (Feature feature : features) {
+      final Candidate candidate = new Candidate(feature, ranking.distance(feature.geometry()));
+      final String id = feature.id();
+      if (id == null) {
+        candidates.add(candidate);
+        continue;
+      }
+      final Candidate seen = byId.get(id);
+      if (seen == null) {
+        byId.put(id, candidate);
+        candidates.add(candidate);
+      } else if (candidate.distance < seen.distance) {
+        candidates.set(candidates.indexOf(seen), candidate);
+        byId.put(id, candidate);
+      }
+    }
+    Collections.sort(candidates, (a, b) -> Double.compare(a.distance, b.distance));
+
+    final int size = Math.min(count, candidates.size());
+    final List<Map<String, Object>> reply = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final Candidate candidate = candidates.get(i);
+      final Map<String, Object> entry = new HashMap<>();
+      entry.put("id", candidate.feature.id());
+      entry.put("distance", candidate.distance);
+      entry.put("feature", candidate.feature.toJson());
+      reply.add(entry);
+    }
+    return reply;
+  }
+
+  private double distance(Geometry geometry) {
+    if (geometry instanceof Point) {
+      return distanceToPoint((Point) geometry);
+    } else if (geometry instanceof MultiPoint) {
+      double nearest = Double.POSITIVE_INFINITY;
+      for (Point point : ((MultiPoint) geometry).coordinates()) {
+        nearest = Math.min(nearest, distanceToPoint(point));
+      }
+      return nearest;
+    } else if (geometry instanceof LineString) {
+      return distanceToLine(((LineString) geometry).coordinates());
+    } else if (geometry instanceof MultiLineString) {
+      return distanceToLines(((MultiLineString) geometry).coordinates());
+    } else if (geometry instanceof Polygon) {
+      return distanceToPolygon(((Polygon) geometry).coordinates());
+    } else if (geometry instanceof MultiPolygon) {
+      double nearest = Double.POSITIVE_INFINITY;
+      for (List<List<Point>> polygon : ((MultiPolygon) geometry).coordinates()) {
+        nearest = Math.min(nearest, distanceToPolygon(polygon));
+      }
+      return nearest;
+    } else if (geometry instanceof GeometryCollection) {
+      double nearest = Double.POSITIVE_INFINITY;
+      for (Geometry child : ((GeometryCollection) geometry).geometries()) {
+        nearest = Math.min(nearest, distance(child));
+      }
+      return nearest;
+    }
+    return Double.POSITIVE_INFINITY;
+  }
+
+  private double distanceToPoint(Point point) {
+    return Math.hypot(dx(point), dy(point));
+  }
+
+  private double distanceToLines(List<List<Point>> lines) {
+    double nearest = Double.POSITIVE_INFINITY;
+    for (List<Point> line : lines) {
+      nearest = Math.min(nearest, distanceToLine(line));
+    }
+    return nearest;
+  }
+
+  private double distanceToLine(List<Point> line) {
+    if (line.size() == 1) {
+      return distanceToPoint(line.get(0));
+    }
+    double nearest = Double.POSITIVE_INFINITY;
+    for (int i = 1; i < line.size(); i++) {
+      nearest = Math.min(nearest, distanceToSegment(line.get(i - 1), line.get(i)));
+    }
+    return nearest;
+  }
+
+  // Zero inside the polygon, holes excepted: the tap is inside when a ray from
+  // it crosses the rings an odd number of times in all.
+  private double distanceToPolygon(List<List<Point>> rings) {
+    boolean inside = false;
+    for (List<Point> ring : rings) {
+      for (int i = 0, j = ring.size() - 1; i < ring.size(); j = i++) {
+        final double xi = dx(ring.get(i));
+        final double yi = dy(ring.get(i));
+        final double xj = dx(ring.get(j));
+        final double yj = dy(ring.get(j));
+        if ((yi > 0) != (yj > 0) && 0 < (xj - xi) * (0 - yi) / (yj - yi) + xi) {
+          inside = !inside;
+        }
+      }
+    }
+    return inside ? 0 : distanceToLines(rings);
+  }
+
+  // Distance from the tap, the origin of dx/dy, to the segment a-b.
+  private double distanceToSegment(Point a, Point b) {
+    final double ax = dx(a);
+    final double ay = dy(a);
+    final double bx = dx(b);
+    final double by = dy(b);
+    final double lengthSquared = (bx - ax) * (bx - ax) + (by - ay) * (by - ay);
+    double t = lengthSquared == 0 ? 0 : -(ax * (bx - ax) + ay * (by - ay)) / lengthSquared;
+    t = Math.max(0, Math.min(1, t));
+    return Math.hypot(ax + t * (bx - ax), ay + t * (by - ay));
+  }
+
+  // Offsets from the tap in dp, the x offset taken the short way round the
+  // antimeridian.
+  private double dx(Point point) {
+    double dx = x(point.longitude()) - tapX;
+    if (dx > worldSize / 2) {
+      dx -= worldSize;
+    } else if (dx < -worldSize / 2) {
+      dx += worldSize;
+    }
+    return dx;
+  }
+
+  private double dy(Point point) {
+    return y(point.latitude()) - tapY;
+  }
+
+  private double x(double longitude) {
+    return (longitude + 180) / 360 * worldSize;
+  }
+
+  private double y(double latitude) {
+    final double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+    final double sin = Math.sin(Math.toRadians(clamped));
+    return (0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI)) * worldSize;
+  }
+
+  private static final class Candidate {
+    final Feature feature;
+    final double distance;
+
+    Candidate(Feature feature, double distance) {
+      this.feature = feature;
+      this.distance = distance;
+    }
+  }
+}
@@ -529,7 +529,11 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
                 ))
                 return
             }
-            result(featuresReply(features, methodName: queryName))
+            result(featuresReply(
+                features,
+                methodName: queryName,
+                projectionArguments: arguments
+            ))
         case "map#setTelemetryEnabled":
             guard let arguments = methodCall.arguments as? [String: Any] else { return }
             let telemetryEnabled = arguments["enabled"] as? Bool
@@ -749,6 +753,29 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
             reply["latitude"] = coordinates.latitude as NSObject
             reply["longitude"] = coordinates.longitude as NSObject
             result(reply)
+        case "map#toLatLngBatch":
+            guard let arguments = methodCall.arguments as? [String: Any] else { return }
+            guard let data = arguments["points"] as? FlutterStandardTypedData else { return }
+            let points = data.data.withUnsafeBytes {
+                Array(
+                    UnsafeBufferPointer(
+                        start: $0.baseAddress!.assumingMemoryBound(to: Double.self),
+                        count: Int(data.elementCount)
+                    )
+                )
+            }
+            var reply: [Double] = Array(repeating: 0.0, count: points.count)
+            for i in stride(from: 0, to: points.count, by: 2) {
+                let coordinate = mapView.convert(
+                    CGPoint(x: points[i], y: points[i + 1]),
+                    toCoordinateFrom: mapView
+                )
+                reply[i] = coordinate.latitude
+                reply[i + 1] = coordinate.longitude
+            }
+            result(FlutterStandardTypedData(
+                float64: Data(bytes: &reply, count: reply.count * 8)
+            ))
         case "camera#move":
             guard let arguments = methodCall.arguments as? [String: Any] else { return }
             guard let cameraUpdate = arguments["cameraUpdate"] as? [Any] else { return }
@@ -1389,6 +1416,21 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
             case let .failure(error): result(error.flutterError)
             }
 
+        case "source#applyFeatureDiff":
+            guard let arguments = methodCall.arguments as? [String: Any] else { return }
+            guard let sourceId = arguments["sourceId"] as? String else { return }
+            let applyResult = applyFeatureDiff(
+                sourceId: sourceId,
+                added: arguments["added"] as? String,
+                updated: arguments["updated"] as? String,
+                removed: arguments["removed"] as? [String] ?? []
+            )
+
+            switch applyResult {
+            case .success: result(nil)
+            case let .failure(error): result(error.flutterError)
+            }
+
         case "source#getClusterExpansionZoom":
             guard let arguments = methodCall.arguments as? [String: Any],
                   let sourceId = arguments["sourceId"] as? String,
@@ -1496,7 +1538,11 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
                 }
             }
 
-            result(featuresReply(features, methodName: "querySourceFeatures"))
+            result(featuresReply(
+                features,
+                methodName: "querySourceFeatures",
+                projectionArguments: arguments
+            ))
 
         case "style#getLayerIds":
             var layerIds = [String]()
@@ -1614,6 +1660,10 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
             let args = methodCall.arguments as? [String: Any]
             let width = args?["width"] as? Int
             let height = args?["height"] as? Int
+            // WEBP is not encoded here; it falls back to PNG.
+            let jpegQuality: CGFloat? = args?["format"] as? String == "jpeg"
+                ? CGFloat(args?["quality"] as? Int ?? 100) / 100
+                : nil
 
             let snapshotWidth = width ?? Int(mapView.bounds.width)
             let snapshotHeight = height ?? Int(mapView.bounds.height)
@@ -1628,6 +1678,9 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
                 size: size
             )
             options.zoomLevel = mapView.zoomLevel
+            if let pixelRatio = args?["pixelRatio"] as? Double {
+                options.scale = CGFloat(pixelRatio)
+            }
 
             let snapshotter = MLNMapSnapshotter(options: options)
             // Store strong reference before starting to avoid deallocation
@@ -1644,8 +1697,13 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
                     ))
                     return
                 }
-                guard let snapshot = snapshot,
-                      let pngData = snapshot.image.pngData() else {
+                let encoded: Data?
+                if let jpegQuality = jpegQuality {
+                    encoded = snapshot?.image.jpegData(compressionQuality: jpegQuality)
+                } else {
+                    encoded = snapshot?.image.pngData()
+                }
+                guard let imageData = encoded else {
                     result(FlutterError(
                         code: "SNAPSHOT_ERROR",
                         message: "Failed to generate snapshot",
@@ -1653,7 +1711,7 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
                     ))
                     return
                 }
-                result(FlutterStandardTypedData(bytes: pngData))
+                result(FlutterStandardTypedData(bytes: imageData))
             }
         default:
             result(FlutterMethodNotImplemented)
@@ -2600,11 +2658,25 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
     /// platforms disagree on the same call.
     private func featuresReply(
         _ features: [MLNFeature],
-        methodName: String
+        methodName: String,
+        projectionArguments: [String: Any]? = nil
     ) -> Any {
+        // The feature queries may ask for less than the whole feature, with
+        // `includeGeometry: false` and a `properties` whitelist. Trimming
+        // before encoding keeps what was not asked for off the channel.
+        let includeGeometry = projectionArguments?["includeGeometry"] as? Bool ?? true
+        let keptProperties = (projectionArguments?["properties"] as? [String]).map(Set.init)
         var featuresJson = [String]()
         for (index, feature) in features.enumerated() {
-            let dictionary = feature.geoJSONDictionary()
+            var dictionary = feature.geoJSONDictionary()
+            if !includeGeometry {
+                dictionary.removeValue(forKey: "geometry")
+            }
+            if let keptProperties,
+               let properties = dictionary["properties"] as? [String: Any]
+            {
+                dictionary["properties"] = properties.filter { keptProperties.contains($0.key) }
+            }
             // JSONSerialization raises an Objective-C exception, which Swift
             // cannot catch, for an object it considers invalid: a non-finite
             // coordinate, or an attribute of a type it does not write. Asking
@@ -2674,6 +2746,101 @@ class MapLibreMapController: NSObject, FlutterPlatformView, MLNMapViewDelegate,
         }
     }
 
+    /// Applies a `source#applyFeatureDiff` payload. `added` and `updated` are
+    /// FeatureCollection JSON strings and `removed` holds feature ids, compared
+    /// as strings. Whatever the size of the diff, the source shape is replaced
+    /// once.
+    func applyFeatureDiff(
+        sourceId: String,
+        added: String?,
+        updated: String?,
+        removed: [String]
+    ) -> Result<Void, MethodCallError> {
+        guard let style = mapView.style else {
+            return .failure(.styleNotFound)
+        }
+        guard let source = style.source(withIdentifier: sourceId) as? MLNShapeSource else {
+            return .failure(.sourceNotFound(sourceId: sourceId))
+        }
+        guard let collection = addedShapesByLayer[sourceId] as? MLNShapeCollectionFeature else {
+            return .failure(.genericError(
+                details: "Failed to apply feature diff for sourceId \(sourceId)"
+            ))
+        }
+
+        let addedFeatures: [MLNShape & MLNFeature]
+        let updatedFeatures: [MLNShape & MLNFeature]
+        do {
+            addedFeatures = try parseFeatures(added)
+            updatedFeatures = try parseFeatures(updated)
+        } catch {
+            return .failure(.geojsonParseError(sourceId: sourceId))
+        }
+
+        var slots: [(MLNShape & MLNFeature)?] = collection.shapes
+        var indexById = [String: Int]()
+        for (index, shape) in collection.shapes.enumerated() {
+            if let id = featureIdKey(shape.identifier), indexById[id] == nil {
+                indexById[id] = index
+            }
+        }
+
+        var changed = false
+        for feature in addedFeatures {
+            if let id = featureIdKey(feature.identifier), let index = indexById[id] {
+                slots[index] = feature
+            } else {
+                if let id = featureIdKey(feature.identifier) {
+                    indexById[id] = slots.count
+                }
+                slots.append(feature)
+            }
+            changed = true
+        }
+        for feature in updatedFeatures {
+            if let id = featureIdKey(feature.identifier), let index = indexById[id] {
+                slots[index] = feature
+                changed = true
+            }
+        }
+        for id in removed {
+            if let index = indexById.removeValue(forKey: id) {
+                slots[index] = nil
+                changed = true
+            }
+        }
+
+        if changed {
+            let shape = MLNShapeCollectionFeature(shapes: slots.compactMap { $0 })
+            source.shape = shape
+            addedShapesByLayer[sourceId] = shape
+        }
+        return .success(())
+    }
+
+    private func parseFeatures(_ geojson: String?) throws -> [MLNShape & MLNFeature] {
+        guard let geojson = geojson else { return [] }
+        let shape = try MLNShape(
+            data: geojson.data(using: .utf8)!,
+            encoding: String.Encoding.utf8.rawValue
+        )
+        if let collection = shape as? MLNShapeCollectionFeature {
+            return collection.shapes
+        }
+        if let feature = shape as? MLNShape & MLNFeature {
+            return [feature]
+        }
+        return []
+    }
+
+    /// Feature ids arrive from Dart as strings, while the SDK keeps numeric
+    /// ids as `NSNumber`, so both are compared by their string form.
+    private func featureIdKey(_ identifier: Any?) -> String? {
+        if let id = identifier as? String { return id }
+        if let id = identifier as? NSNumber { return id.stringValue }
+        return nil
+    }
+
     /*
      *  MapLibreMapOptionsSink
      */
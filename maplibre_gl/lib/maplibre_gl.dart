@@ -57,6 +57,7 @@ export 'package:maplibre_gl_platform_interface/maplibre_gl_platform_interface.da
         ArgumentCallbacks,
         AttributionButtonPosition,
         CameraAnimationInterpolation,
+        CameraMoveThrottle,
         CameraPosition,
         CameraTargetBounds,
         CameraUpdate,
@@ -66,6 +67,8 @@ export 'package:maplibre_gl_platform_interface/maplibre_gl_platform_interface.da
         Fill,
         FillOptions,
         GeojsonSourceProperties,
+        ImageSourceFrame,
+        ImageSourceFrameTimings,
         ImageSourceProperties,
         LatLng,
         LatLngBounds,
@@ -91,6 +94,7 @@ export 'package:maplibre_gl_platform_interface/maplibre_gl_platform_interface.da
         RasterSourceProperties,
         ScaleControlPosition,
         ScaleControlUnit,
+        SnapshotFormat,
         SkyProperties,
         SourceProperties,
         Symbol,
@@ -109,6 +113,8 @@ part 'src/global.dart';
 
 part 'src/offline_region.dart';
 
+part 'src/snapshot_batch.dart';
+
 part 'src/download_region_status.dart';
 
 part 'src/layer_expressions.dart';
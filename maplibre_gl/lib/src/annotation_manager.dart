@@ -216,21 +216,42 @@ abstract class AnnotationManager<T extends Annotation> {
 
   /// Updates (re-sets) an existing annotation quickly by only replacing its
   /// underlying GeoJSON feature if it remains on the same logical layer.
-  Future<void> set(T annotation) async {
-    assert(
-      _idToAnnotation.containsKey(annotation.id),
-      "you can only set existing annotations",
-    );
-    _idToAnnotation[annotation.id] = annotation;
-    final oldLayerIndex = _idToLayerIndex[annotation.id];
-    final layerIndex = selectLayer != null ? selectLayer!(annotation) : 0;
-    if (oldLayerIndex != layerIndex) {
-      // Layer changed; must rewrite all sources.
+  Future<void> set(T annotation) => setAll([annotation]);
+
+  /// Updates (re-sets) multiple existing annotations with a single source
+  /// update per layer, instead of one per annotation. Prefer this over calling
+  /// [set] in a loop when many annotations move at once.
+  ///
+  /// Falls back to rewriting all sources when an annotation moves to another
+  /// logical layer.
+  Future<void> setAll(Iterable<T> annotations) async {
+    final updatedByLayer = <int, List<Map<String, dynamic>>>{};
+    var layerChanged = false;
+    for (final annotation in annotations) {
+      assert(
+        _idToAnnotation.containsKey(annotation.id),
+        "you can only set existing annotations",
+      );
+      _idToAnnotation[annotation.id] = annotation;
+      final layerIndex = selectLayer != null ? selectLayer!(annotation) : 0;
+      // Without selectLayer everything is on layer 0 and _idToLayerIndex is
+      // never filled, so there is nothing to compare against.
+      if (selectLayer != null &&
+          _idToLayerIndex[annotation.id] != layerIndex) {
+        layerChanged = true;
+      }
+      (updatedByLayer[layerIndex] ??= []).add(annotation.toGeoJson());
+    }
+
+    if (layerChanged) {
       await _setAll();
-    } else {
-      await controller.setGeoJsonFeature(
-        _makeLayerId(layerIndex),
-        annotation.toGeoJson(),
+      return;
+    }
+    if (controller.isDisposed) return;
+    for (final entry in updatedByLayer.entries) {
+      await controller.applyFeatureDiff(
+        _makeLayerId(entry.key),
+        updated: entry.value,
       );
     }
   }
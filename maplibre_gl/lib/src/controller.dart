@@ -19,6 +19,16 @@ typedef OnFeatureInteractionCallback =
       Annotation? annotation,
     );
 
+/// The features found around a tap, nearest first. Each is a map with the
+/// feature's `id` (null when it has none), its `distance` from the tap in
+/// logical pixels, and the GeoJSON `feature` itself.
+typedef OnFeatureTapCandidatesCallback =
+    void Function(
+      Point<double> point,
+      LatLng coordinates,
+      List<Map<String, dynamic>> candidates,
+    );
+
 typedef OnFeatureDragCallback =
     void Function(
       Point<double> point,
@@ -141,6 +151,13 @@ class MapLibreMapController extends ChangeNotifier {
         }
         annotationTappedCallbacks?.call(annotation);
       }
+
+      final List<Map<String, dynamic>>? candidates = payload["candidates"];
+      if (candidates != null) {
+        for (final fun in List.of(onFeatureTapCandidates)) {
+          fun(point, latLng, candidates);
+        }
+      }
     });
 
     _maplibrePlatform.onFeatureDraggedPlatform.add((payload) {
@@ -334,6 +351,14 @@ class MapLibreMapController extends ChangeNotifier {
   /// Callbacks to receive tap events for features (geojson layer) placed on this map.
   final onFeatureTapped = <OnFeatureInteractionCallback>[];
 
+  /// Callbacks to receive the features nearest a feature tap, to tell apart
+  /// features that lie close together.
+  ///
+  /// Android only, and only when [MapLibreMap.tapCandidateCount] is above 0.
+  /// They are called after [onFeatureTapped], and the tapped feature is among
+  /// the candidates.
+  final onFeatureTapCandidates = <OnFeatureTapCandidatesCallback>[];
+
   /// Callbacks to receive drag events for features (geojson layer) placed on this map.
   final onFeatureDrag = <OnFeatureDragCallback>[];
 
@@ -520,6 +545,34 @@ class MapLibreMapController extends ChangeNotifier {
     );
   }
 
+  /// Adds, updates and removes features of a GeoJSON source in one go.
+  ///
+  /// This only works as expected if the source has been created with
+  /// [addGeoJsonSource] before. Features in [added] are inserted, or replace
+  /// the feature with the same id. Features in [updated] replace the feature
+  /// with the same id, like [setGeoJsonFeature], and are ignored when there is
+  /// none. [removed] holds the ids of the features to remove.
+  ///
+  /// However many features the diff touches, the source is updated once, which
+  /// makes this much cheaper than calling [setGeoJsonFeature] per feature when
+  /// many features change at the same time.
+  ///
+  /// The returned [Future] completes after the change has been made on the
+  /// platform side.
+  Future<void> applyFeatureDiff(
+    String sourceId, {
+    List<Map<String, dynamic>> added = const [],
+    List<Map<String, dynamic>> updated = const [],
+    List<String> removed = const [],
+  }) async {
+    await _maplibrePlatform.applyFeatureDiff(
+      sourceId,
+      added: added,
+      updated: updated,
+      removed: removed,
+    );
+  }
+
   /// Sets the state of a feature.
   ///
   /// Feature state is a set of key-value pairs attached to one feature and read
@@ -712,6 +765,10 @@ class MapLibreMapController extends ChangeNotifier {
   /// platform side.
   ///
   /// NOTE: The [properties] will not skip null values, so setting a property to null will potentially reset it to default.
+  ///
+  /// On Android, properties whose value is the same as the one last set
+  /// through this method are not re-applied, so an animation can send every
+  /// property each frame and only pay for the ones that changed.
   Future<void> setLayerProperties(
     String layerId,
     LayerProperties properties,
@@ -1288,7 +1345,7 @@ class MapLibreMapController extends ChangeNotifier {
   /// This is a **per-map** API and takes effect immediately — subsequent tile
   /// requests will carry the new headers. To apply headers globally to all map
   /// instances without URL filtering, use the top-level [setHttpHeaders]
-  /// function instead.
+  /// function instead; the two no longer replace each other.
   ///
   /// Example — restrict an API key to a specific tile host:
   /// ```dart
@@ -1787,15 +1844,38 @@ class MapLibreMapController extends ChangeNotifier {
 
   /// Query rendered (i.e. visible) features at a point in screen coordinates
   ///
+  /// Set [includeGeometry] to false to get features without their `geometry`,
+  /// and pass [properties] to get only those property keys. Both cut the
+  /// reply down to what a tap handler typically needs, which is much cheaper
+  /// to send for large polygons or feature-rich tiles:
+  ///
+  /// ```dart
+  /// final hits = await controller.queryRenderedFeatures(
+  ///   point,
+  ///   ['parcels-fill'],
+  ///   null,
+  ///   includeGeometry: false,
+  ///   properties: ['parcel_id'],
+  /// );
+  /// ```
+  ///
   /// On iOS this throws a [PlatformException] with code
   /// `FEATURE_ENCODING_FAILED` if one of the features found cannot be encoded
   /// as GeoJSON, rather than answering with a list that is silently short.
   Future<List> queryRenderedFeatures(
     Point<double> point,
     List<String> layerIds,
-    List<Object>? filter,
-  ) async {
-    return _maplibrePlatform.queryRenderedFeatures(point, layerIds, filter);
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
+    return _maplibrePlatform.queryRenderedFeatures(
+      point,
+      layerIds,
+      filter,
+      includeGeometry: includeGeometry,
+      properties: properties,
+    );
   }
 
   /// Query rendered (i.e. visible) features in a Rect in screen coordinates
@@ -1804,18 +1884,25 @@ class MapLibreMapController extends ChangeNotifier {
   /// [filter] is that expression encoded as a JSON string, for example
   /// `'["==", "type", "park"]'`.
   ///
+  /// [includeGeometry] and [properties] trim each feature as for
+  /// [queryRenderedFeatures].
+  ///
   /// On iOS this throws a [PlatformException] with code
   /// `FEATURE_ENCODING_FAILED` if one of the features found cannot be encoded
   /// as GeoJSON, rather than answering with a list that is silently short.
   Future<List> queryRenderedFeaturesInRect(
     Rect rect,
     List<String> layerIds,
-    String? filter,
-  ) async {
+    String? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
     return _maplibrePlatform.queryRenderedFeaturesInRect(
       rect,
       layerIds,
       filter,
+      includeGeometry: includeGeometry,
+      properties: properties,
     );
   }
 
@@ -1826,18 +1913,70 @@ class MapLibreMapController extends ChangeNotifier {
   ///
   /// Note: On web, this will probably only work for GeoJson source, not for vector tiles
   ///
+  /// [includeGeometry] and [properties] trim each feature as for
+  /// [queryRenderedFeatures].
+  ///
   /// On iOS this throws a [PlatformException] with code
   /// `FEATURE_ENCODING_FAILED` if one of the features found cannot be encoded
   /// as GeoJSON, rather than answering with a list that is silently short.
   Future<List> querySourceFeatures(
     String sourceId,
     String? sourceLayerId,
-    List<Object>? filter,
-  ) async {
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
     return _maplibrePlatform.querySourceFeatures(
       sourceId,
       sourceLayerId,
       filter,
+      includeGeometry: includeGeometry,
+      properties: properties,
+    );
+  }
+
+  /// The features of [querySourceFeatures] as a stream of lists of at most
+  /// [chunkSize] features, so a large vector source can be worked through a
+  /// piece at a time rather than arriving as one huge reply.
+  ///
+  /// At most [limit] features are delivered when [limit] is non-null.
+  /// Pausing the subscription holds the next chunk back, and cancelling it
+  /// stops the query's result being handed out; on Android neither the rest
+  /// nor the held-back chunks are serialized at all. [includeGeometry] and
+  /// [properties] trim each feature as for [queryRenderedFeatures].
+  ///
+  /// ```dart
+  /// await for (final chunk in controller.querySourceFeaturesStream(
+  ///   'buildings',
+  ///   'building',
+  ///   null,
+  ///   chunkSize: 200,
+  ///   properties: ['height'],
+  /// )) {
+  ///   index.addAll(chunk);
+  /// }
+  /// ```
+  ///
+  /// Throws an [ArgumentError] when [chunkSize] is below 1 or [limit] is
+  /// negative. Errors of the query itself, such as a style that has not
+  /// loaded yet, arrive on the stream.
+  Stream<List> querySourceFeaturesStream(
+    String sourceId,
+    String? sourceLayerId,
+    List<Object>? filter, {
+    int chunkSize = 500,
+    int? limit,
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) {
+    return _maplibrePlatform.querySourceFeaturesStream(
+      sourceId,
+      sourceLayerId,
+      filter,
+      chunkSize: chunkSize,
+      limit: limit,
+      includeGeometry: includeGeometry,
+      properties: properties,
     );
   }
 
@@ -1976,6 +2115,18 @@ class MapLibreMapController extends ChangeNotifier {
     return _maplibrePlatform.addImage(name, bytes, sdf);
   }
 
+  /// Adds every image of [images] to the style under its name, as [addImage]
+  /// does for one. Set [sdf] to true if the images are SDF images.
+  ///
+  /// On Android the images go over in one call and are decoded in parallel
+  /// off the main thread, then added to the style together, which is much
+  /// faster than one [addImage] per image for a whole icon set. If some
+  /// images fail to decode, the others are still added and the returned
+  /// future completes with a [PlatformException] naming the failed ones.
+  Future<void> addImages(Map<String, Uint8List> images, {bool sdf = false}) {
+    return _maplibrePlatform.addImages(images, sdf: sdf);
+  }
+
   /// If true, the icon will be visible even if it collides with other previously drawn symbols.
   Future<void> setSymbolIconAllowOverlap(bool enable) async {
     await symbolManager?.setIconAllowOverlap(enable);
@@ -2020,6 +2171,23 @@ class MapLibreMapController extends ChangeNotifier {
     );
   }
 
+  /// Replaces the image of an image source with [frame], for animating it
+  /// frame by frame, such as a radar loop.
+  ///
+  /// On Android, frames skip the method channel: they are read into a few
+  /// reused bitmaps off the main thread, and an [ImageSourceFrame.rgba] frame
+  /// is not decoded at all. The returned timings say how long reading the
+  /// frame and handing it to the source took; they are also summed up in
+  /// [getPerformanceCounters]. Elsewhere an encoded frame goes through
+  /// [updateImageSource], the timings are null, and RGBA frames throw an
+  /// [UnsupportedError].
+  Future<ImageSourceFrameTimings?> updateImageSourceFrame(
+    String imageSourceId,
+    ImageSourceFrame frame,
+  ) {
+    return _maplibrePlatform.updateImageSourceFrame(imageSourceId, frame);
+  }
+
   /// Removes previously added source by id
   Future<void> removeSource(String sourceId) {
     return _maplibrePlatform.removeSource(sourceId);
@@ -2084,6 +2252,16 @@ class MapLibreMapController extends ChangeNotifier {
     return _maplibrePlatform.toLatLng(screenLocation);
   }
 
+  /// Returns the geographic locations that correspond to [screenLocations], in
+  /// the same order and in the same units as [toLatLng].
+  ///
+  /// All points go to the platform in one call, which makes this the one to
+  /// use for many points at once, such as the vertices of a lasso drawn on the
+  /// map.
+  Future<List<LatLng>> toLatLngBatch(Iterable<Point> screenLocations) async {
+    return _maplibrePlatform.toLatLngBatch(screenLocations);
+  }
+
   /// Returns the distance spanned by one pixel at the specified [latitude] and current zoom level.
   /// The distance between pixels decreases as the latitude approaches the poles. This relationship parallels the relationship between longitudinal coordinates at different latitudes.
   Future<double> getMetersPerPixelAtLatitude(double latitude) async {
@@ -2343,6 +2521,52 @@ class MapLibreMapController extends ChangeNotifier {
     return _maplibrePlatform.getLayerIds();
   }
 
+  /// Sends the platform calls [body] makes in one message instead of one
+  /// message each, which saves a platform-channel round trip per call when
+  /// adding many sources and layers at once.
+  ///
+  /// The calls still run in order, and each returned future completes with its
+  /// own result or error, so they can be awaited or ignored as usual. Only
+  /// calls that start synchronously within [body] are batched; one that first
+  /// awaits something else is sent on its own. GeoJSON source writes are such
+  /// calls, since they wait for earlier writes to the same source. The
+  /// returned [Future] completes once every batched call has been answered.
+  ///
+  /// ```dart
+  /// await controller.batch(() {
+  ///   controller.addSource('parcels', parcelsSource);
+  ///   controller.addFillLayer('parcels', 'parcels-fill', fillProperties);
+  ///   controller.addLineLayer('parcels', 'parcels-outline', lineProperties);
+  /// });
+  /// ```
+  ///
+  /// **Platform support**: Android only. On iOS and web the calls are sent
+  /// one by one.
+  Future<void> batch(void Function() body) {
+    return _maplibrePlatform.batch(body);
+  }
+
+  /// Counters the platform side has accumulated for this map since it was
+  /// created, by name. Meant for measuring how the plugin's batching and
+  /// caching behave under a real workload, not for app logic: names may
+  /// change between releases.
+  ///
+  /// Currently reported:
+  /// * `geojson.updatesScheduled`, `geojson.updatesDropped` and
+  ///   `geojson.updatesFlushed`: GeoJSON source updates received, superseded
+  ///   by a newer update for the same source within the same frame, and
+  ///   handed to the map.
+  /// * `layerProperties.skipped`: properties passed to [setLayerProperties]
+  ///   that were not re-applied because they had not changed.
+  /// * `batch.calls`, `batch.entries` and `batch.dispatchNanos`: [batch]
+  ///   messages received, the calls they carried, and the time spent
+  ///   dispatching them.
+  ///
+  /// **Platform support**: Android only. iOS and web return an empty map.
+  Future<Map<String, int>> getPerformanceCounters() {
+    return _maplibrePlatform.getPerformanceCounters();
+  }
+
   /// Retrieve every source ids of the map as a [String] list, including the ones added internally
   ///
   /// This method is not currently implemented on the web
@@ -2410,17 +2634,43 @@ class MapLibreMapController extends ChangeNotifier {
     return _maplibrePlatform.waitUntilMapTilesAreLoaded();
   }
 
-  /// Takes a screenshot of the current map view as PNG bytes.
+  /// Takes a screenshot of the current map view as image bytes.
   ///
-  /// Returns a [Uint8List] containing the PNG image data of the snapshot.
+  /// Returns a [Uint8List] containing the image data of the snapshot, a PNG
+  /// unless another [format] is asked for.
   /// This works on all platforms (Android, iOS, and Web).
   ///
   /// If [width] and [height] are provided, the snapshot is rendered at that
   /// size (in logical pixels) using an offscreen renderer while preserving the
   /// current camera position and style. When omitted the snapshot matches the
   /// current map view size.
-  Future<Uint8List> takeSnapshot({int? width, int? height}) {
-    return _maplibrePlatform.takeSnapshot(width: width, height: height);
+  ///
+  /// For thumbnails, a [SnapshotFormat.jpeg] or [SnapshotFormat.webp] at a
+  /// [quality] below 100 is much smaller and quicker to encode than a PNG.
+  /// [pixelRatio] renders at that many physical pixels per logical pixel
+  /// instead of the device's (Android and iOS), and [scale], above 0 and at
+  /// most 1, shrinks the rendered image before it is compressed (Android
+  /// only). On Android the image is compressed off the main thread, and
+  /// snapshots taken while another is still rendering are queued rather than
+  /// cancelling it.
+  Future<Uint8List> takeSnapshot({
+    int? width,
+    int? height,
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality = 100,
+    double? pixelRatio,
+    double scale = 1,
+  }) {
+    assert(quality >= 0 && quality <= 100);
+    assert(scale > 0 && scale <= 1);
+    return _maplibrePlatform.takeSnapshot(
+      width: width,
+      height: height,
+      format: format,
+      quality: quality,
+      pixelRatio: pixelRatio,
+      scale: scale,
+    );
   }
 
   /// Method to set style string
@@ -40,7 +40,9 @@ Future<dynamic> setOffline(bool offline) => _globalChannel.invokeMethod(
 ///
 /// Headers are applied at request time, so this method can be called before
 /// or after a [MaplibreMap] widget is created. Calling it again replaces the
-/// previously set headers; pass an empty map to clear all headers.
+/// previously set headers; pass an empty map to clear all headers. Headers
+/// set with [MaplibreMapController.setCustomHeaders] are kept either way, and
+/// win where both set the same header.
 ///
 /// Example — attach a bearer token before showing any map:
 /// ```dart
@@ -167,6 +169,41 @@ Future<void> setOfflineMaxConcurrentRequests({
   );
 }
 
+/// Configures the connections of the HTTP client MapLibre makes its requests
+/// with: how many idle connections are kept and for how long, the connect,
+/// read and write timeouts, whether HTTP/2 is used, and how often an idle
+/// HTTP/2 connection is pinged. Each value left null is OkHttp's default.
+///
+/// Each call replaces the options of the last one. Headers set with
+/// [setHttpHeaders] and the limits of [setOfflineMaxConcurrentRequests] are
+/// kept, and requests in flight carry on; idle connections are only closed
+/// when [maxIdleConnections] or [keepAlive] change.
+///
+/// Android only; does nothing on other platforms.
+Future<void> setHttpClientOptions({
+  int? maxIdleConnections,
+  Duration? keepAlive,
+  Duration? connectTimeout,
+  Duration? readTimeout,
+  Duration? writeTimeout,
+  bool? http2,
+  Duration? pingInterval,
+}) async {
+  if (kIsWeb || defaultTargetPlatform != TargetPlatform.android) {
+    return;
+  }
+  await _globalChannel.invokeMethod('setHttpClientOptions', <String, dynamic>{
+    if (maxIdleConnections != null) 'maxIdleConnections': maxIdleConnections,
+    if (keepAlive != null) 'keepAliveMillis': keepAlive.inMilliseconds,
+    if (connectTimeout != null)
+      'connectTimeoutMillis': connectTimeout.inMilliseconds,
+    if (readTimeout != null) 'readTimeoutMillis': readTimeout.inMilliseconds,
+    if (writeTimeout != null) 'writeTimeoutMillis': writeTimeout.inMilliseconds,
+    if (http2 != null) 'http2': http2,
+    if (pingInterval != null) 'pingIntervalMillis': pingInterval.inMilliseconds,
+  });
+}
+
 /// Pauses an in-progress offline region download.
 Future<void> pauseOfflineRegionDownload(int id) => _globalChannel.invokeMethod(
   'pauseOfflineRegionDownload',
@@ -297,3 +334,58 @@ Future<OfflineRegion> downloadOfflineRegion(
 
   return OfflineRegion.fromMap(json.decode(result));
 }
+
+/// Renders one image per view of [views] with the style [styleString], and
+/// streams them back in order as each is done, for example to make many
+/// thumbnails without a map on screen. Android only.
+///
+/// The style is loaded once for the whole batch, and the images are rendered
+/// one after the other with a single offscreen renderer, [width] by [height]
+/// logical pixels unless a view has a size of its own. [styleString] takes
+/// the same forms as [MapLibreMap.styleString]; [format], [quality],
+/// [pixelRatio] and [scale] are as for [MapLibreMapController.takeSnapshot].
+///
+/// A view whose image could not be encoded is a [PlatformException] with the
+/// index of the view as details, and the batch goes on; if rendering fails,
+/// the stream ends after the error. Cancelling the subscription stops the
+/// batch.
+Stream<RenderedSnapshot> renderSnapshots({
+  required String styleString,
+  required List<SnapshotView> views,
+  required int width,
+  required int height,
+  SnapshotFormat format = SnapshotFormat.png,
+  int quality = 100,
+  double? pixelRatio,
+  double scale = 1,
+}) async* {
+  assert(quality >= 0 && quality <= 100);
+  assert(scale > 0 && scale <= 1);
+  if (views.isEmpty) {
+    return;
+  }
+  final channelName =
+      'snapshot#renderBatch_${DateTime.now().microsecondsSinceEpoch}';
+
+  // The batch starts rendering once the stream is listened to.
+  await _globalChannel.invokeMethod('snapshot#renderBatch', <String, dynamic>{
+    'channelName': channelName,
+    'styleString': styleString,
+    'views': [for (final view in views) view._toMap()],
+    'width': width,
+    'height': height,
+    if (format != SnapshotFormat.png) 'format': format.name,
+    if (quality != 100) 'quality': quality,
+    if (pixelRatio != null) 'pixelRatio': pixelRatio,
+    if (scale != 1) 'scale': scale,
+  });
+
+  yield* EventChannel(channelName).receiveBroadcastStream().map((event) {
+    final data = event as Map<Object?, Object?>;
+    return RenderedSnapshot(
+      index: data['index']! as int,
+      total: views.length,
+      bytes: data['image']! as Uint8List,
+    );
+  });
+}
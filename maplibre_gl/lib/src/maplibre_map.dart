@@ -30,7 +30,10 @@ class MapLibreMap extends StatefulWidget {
     this.doubleClickZoomEnabled,
     this.dragEnabled = true,
     this.featureTapsTriggersMapClick = false,
+    this.tapTolerance,
+    this.tapCandidateCount = 0,
     this.trackCameraPosition = false,
+    this.cameraMoveThrottle,
     this.myLocationEnabled = false,
     this.myLocationTrackingMode = MyLocationTrackingMode.none,
     this.myLocationRenderMode = MyLocationRenderMode.normal,
@@ -165,6 +168,22 @@ class MapLibreMap extends StatefulWidget {
   /// If `false`, only the feature tap event fires, and `onMapClick` is not called.
   final bool featureTapsTriggersMapClick;
 
+  /// How far from a tap or a drag start a feature may be and still be hit, in
+  /// logical pixels: the hit test covers a square reaching this far from the
+  /// finger in each direction.
+  ///
+  /// Android only. When null, Android keeps its historical 10 physical
+  /// pixels, which is a smaller target the denser the screen.
+  final double? tapTolerance;
+
+  /// How many of the features around a tap to report, nearest first, to
+  /// [MapLibreMapController.onFeatureTapCandidates].
+  ///
+  /// Android only, and 0, reporting none, by default. The candidates come
+  /// from the hit test the tap runs anyway, within [tapTolerance], so listing
+  /// them takes no further query.
+  final int tapCandidateCount;
+
   /// Geographical bounding box for the camera target.
   final CameraTargetBounds cameraTargetBounds;
 
@@ -208,6 +227,14 @@ class MapLibreMap extends StatefulWidget {
   /// will notify it's listeners and you can then get the new [MapLibreMapController].cameraPosition.
   final bool trackCameraPosition;
 
+  /// Limits how often, and for how small a change, camera movements are
+  /// reported while [trackCameraPosition] is on.
+  ///
+  /// Android only. When set, moves come from the map as small binary messages
+  /// carrying only the fields that changed, instead of a full camera position
+  /// on every frame. When null, every move is reported as before.
+  final CameraMoveThrottle? cameraMoveThrottle;
+
   /// True if a "My Location" layer should be shown on the map.
   ///
   /// This layer includes a location indicator at the current device location,
@@ -365,6 +392,36 @@ class MapLibreMap extends StatefulWidget {
   static set useHybridComposition(bool useHybridComposition) =>
       MapLibreMethodChannel.useHybridComposition = useHybridComposition;
 
+  /// Whether `addGeoJsonSource` and `setGeoJsonSource` send GeoJSON to Android
+  /// in a packed binary form instead of a JSON string. Ignored on iOS and web.
+  ///
+  /// Android then builds its features straight from the bytes, skipping the
+  /// JSON parse, which shortens the platform-side stall on large payloads.
+  /// `bbox` and foreign members are not carried. Defaults to `false`.
+  ///
+  /// Takes effect on the next write, for every map.
+  static bool get useBinaryGeoJson => MapLibreMethodChannel.useBinaryGeoJson;
+
+  static set useBinaryGeoJson(bool useBinaryGeoJson) =>
+      MapLibreMethodChannel.useBinaryGeoJson = useBinaryGeoJson;
+
+  /// Whether Android answers `queryRenderedFeatures`,
+  /// `queryRenderedFeaturesInRect` and `querySourceFeatures` in a packed
+  /// binary form instead of one JSON string per feature. Ignored on iOS and
+  /// web.
+  ///
+  /// Coordinates then travel as doubles and repeated strings, such as property
+  /// keys, are sent once per reply, which makes large queries much cheaper on
+  /// both sides. The features come out the same as with JSON. Defaults to
+  /// `false`.
+  ///
+  /// Takes effect on the next query, for every map.
+  static bool get useBinaryFeatureReplies =>
+      MapLibreMethodChannel.useBinaryFeatureReplies;
+
+  static set useBinaryFeatureReplies(bool useBinaryFeatureReplies) =>
+      MapLibreMethodChannel.useBinaryFeatureReplies = useBinaryFeatureReplies;
+
   /// Where the web implementation loads MapLibre GL JS from.
   ///
   /// Leave it unset and the plugin injects the build it is tested against, so
@@ -600,6 +657,7 @@ class MapLibreMapOptions {
     required this.zoomGesturesEnabled,
     required this.doubleClickZoomEnabled,
     this.trackCameraPosition,
+    this.cameraMoveThrottle,
     this.myLocationEnabled,
     this.myLocationTrackingMode,
     this.myLocationRenderMode,
@@ -619,6 +677,8 @@ class MapLibreMapOptions {
     this.foregroundLoadColor,
     this.translucentTextureSurface,
     this.featureTapsTriggersMapClick,
+    this.tapTolerance,
+    this.tapCandidateCount,
   });
 
   MapLibreMapOptions.fromWidget(MapLibreMap map)
@@ -633,6 +693,7 @@ class MapLibreMapOptions {
         scrollGesturesEnabled: map.scrollGesturesEnabled,
         tiltGesturesEnabled: map.tiltGesturesEnabled,
         trackCameraPosition: map.trackCameraPosition,
+        cameraMoveThrottle: map.cameraMoveThrottle,
         zoomGesturesEnabled: map.zoomGesturesEnabled,
         doubleClickZoomEnabled:
             map.doubleClickZoomEnabled ?? map.zoomGesturesEnabled,
@@ -653,6 +714,8 @@ class MapLibreMapOptions {
         foregroundLoadColor: map.foregroundLoadColor,
         translucentTextureSurface: map.translucentTextureSurface,
         featureTapsTriggersMapClick: map.featureTapsTriggersMapClick,
+        tapTolerance: map.tapTolerance,
+        tapCandidateCount: map.tapCandidateCount,
       );
 
   final bool? compassEnabled;
@@ -675,6 +738,8 @@ class MapLibreMapOptions {
 
   final bool? trackCameraPosition;
 
+  final CameraMoveThrottle? cameraMoveThrottle;
+
   final bool? myLocationEnabled;
 
   final MyLocationTrackingMode? myLocationTrackingMode;
@@ -713,6 +778,10 @@ class MapLibreMapOptions {
 
   final bool? featureTapsTriggersMapClick;
 
+  final double? tapTolerance;
+
+  final int? tapCandidateCount;
+
   final _gestureGroup = {
     'rotateGesturesEnabled',
     'scrollGesturesEnabled',
@@ -750,6 +819,11 @@ class MapLibreMapOptions {
     addIfNonNull('doubleClickZoomEnabled', doubleClickZoomEnabled);
 
     addIfNonNull('trackCameraPosition', trackCameraPosition);
+    // Always sent, so that dropping the throttle turns it off again.
+    addIfNonNull(
+      'cameraMoveThrottle',
+      cameraMoveThrottle?.toJson() ?? const <dynamic>[],
+    );
     addIfNonNull('myLocationEnabled', myLocationEnabled);
     addIfNonNull('myLocationTrackingMode', myLocationTrackingMode?.index);
     addIfNonNull('myLocationRenderMode', myLocationRenderMode?.index);
@@ -778,6 +852,8 @@ class MapLibreMapOptions {
     addIfNonNull('foregroundLoadColor', foregroundLoadColor?.toARGB32());
     addIfNonNull('translucentTextureSurface', translucentTextureSurface);
     addIfNonNull('featureTapsTriggersMapClick', featureTapsTriggersMapClick);
+    addIfNonNull('tapTolerance', tapTolerance);
+    addIfNonNull('tapCandidateCount', tapCandidateCount);
     return optionsMap;
   }
 
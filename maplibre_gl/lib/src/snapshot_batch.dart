@@ -0,0 +1,67 @@
+part of '../maplibre_gl.dart';
+
+/// One image of a [renderSnapshots] batch: where the camera looks, and
+/// optionally a size in logical pixels in place of the batch's.
+@immutable
+class SnapshotView {
+  /// A view from [camera].
+  const SnapshotView.camera(
+    CameraPosition this.camera, {
+    this.width,
+    this.height,
+  }) : bounds = null;
+
+  /// A view fitting [bounds] into the image.
+  const SnapshotView.bounds(LatLngBounds this.bounds, {this.width, this.height})
+    : camera = null;
+
+  final CameraPosition? camera;
+  final LatLngBounds? bounds;
+  final int? width;
+  final int? height;
+
+  Map<String, dynamic> _toMap() {
+    final camera = this.camera;
+    final bounds = this.bounds;
+    return <String, dynamic>{
+      if (camera != null)
+        'camera': Float64List.fromList([
+          camera.target.latitude,
+          camera.target.longitude,
+          camera.zoom,
+          camera.bearing,
+          camera.tilt,
+        ]),
+      if (bounds != null)
+        'bounds': Float64List.fromList([
+          bounds.southwest.latitude,
+          bounds.southwest.longitude,
+          bounds.northeast.latitude,
+          bounds.northeast.longitude,
+        ]),
+      if (width != null) 'width': width,
+      if (height != null) 'height': height,
+    };
+  }
+}
+
+/// An image of a [renderSnapshots] batch, for the view at [index].
+@immutable
+class RenderedSnapshot {
+  const RenderedSnapshot({
+    required this.index,
+    required this.total,
+    required this.bytes,
+  });
+
+  final int index;
+
+  /// How many views the batch has.
+  final int total;
+
+  /// The image, in the format the batch asked for.
+  final Uint8List bytes;
+
+  /// How much of the batch is done with this image, up to 1.
+  double get progress => (index + 1) / total;
+}
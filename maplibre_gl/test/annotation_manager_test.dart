@@ -489,6 +489,58 @@ void main() {
     });
   });
 
+  group('AnnotationManager set', () {
+    test('updateCircle sends the feature as one diff', () async {
+      final circle = await controller.addCircle(
+        const CircleOptions(geometry: LatLng(10, 20)),
+      );
+      platform.reset();
+      await controller.updateCircle(
+        circle,
+        const CircleOptions(circleRadius: 15.0),
+      );
+
+      expect(platform.wasCalled('setGeoJsonSource'), isFalse);
+      final calls = platform.callsFor('applyFeatureDiff');
+      expect(calls, hasLength(1));
+      final updated = calls.single.namedArgs['updated'] as List;
+      expect(updated.single['id'], circle.id);
+    });
+
+    test('setAll sends one diff per layer', () async {
+      final circles = await controller.addCircles([
+        const CircleOptions(geometry: LatLng(10, 20)),
+        const CircleOptions(geometry: LatLng(11, 21)),
+        const CircleOptions(geometry: LatLng(12, 22)),
+      ]);
+      platform.reset();
+      for (final circle in circles) {
+        circle.options = circle.options.copyWith(
+          const CircleOptions(geometry: LatLng(0, 0)),
+        );
+      }
+      await controller.circleManager!.setAll(circles);
+
+      final calls = platform.callsFor('applyFeatureDiff');
+      expect(calls, hasLength(1));
+      expect(calls.single.namedArgs['updated'] as List, hasLength(3));
+    });
+
+    test('moving to another layer rewrites all sources', () async {
+      final line = await controller.addLine(
+        const LineOptions(geometry: [LatLng(0, 0), LatLng(1, 1)]),
+      );
+      platform.reset();
+      await controller.updateLine(
+        line,
+        const LineOptions(linePattern: 'pattern'),
+      );
+
+      expect(platform.wasCalled('applyFeatureDiff'), isFalse);
+      expect(platform.callsFor('setGeoJsonSource'), hasLength(2));
+    });
+  });
+
   group('Annotation tap callbacks', () {
     test('onCircleTapped fires when feature tapped', () async {
       final circle = await controller.addCircle(
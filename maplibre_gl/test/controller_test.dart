@@ -416,6 +416,25 @@ void main() {
       expect(calls.first.positionalArgs[1], false);
     });
 
+    test('addImages hands every image to the platform at once', () async {
+      final images = {'a': Uint8List(1), 'b': Uint8List(2)};
+      await controller.addImages(images, sdf: true);
+
+      final calls = platform.callsFor('addImages');
+      expect(calls, hasLength(1));
+      expect(calls.single.positionalArgs[0], images);
+      expect(calls.single.namedArgs['sdf'], isTrue);
+    });
+
+    test('updateImageSourceFrame delegates to platform', () async {
+      final frame = ImageSourceFrame.rgba(Uint8List(4), width: 1, height: 1);
+      await controller.updateImageSourceFrame('radar', frame);
+
+      final calls = platform.callsFor('updateImageSourceFrame');
+      expect(calls, hasLength(1));
+      expect(calls.single.positionalArgs, ['radar', frame]);
+    });
+
     test('addImageLayer delegates to addLayer on platform', () async {
       await controller.addImageLayer('img-layer', 'img-source');
 
@@ -439,6 +458,18 @@ void main() {
       expect(result, const LatLng(0, 0));
     });
 
+    test('toLatLngBatch sends every point in one call', () async {
+      final result = await controller.toLatLngBatch(const [
+        Point(1, 2),
+        Point(3, 4),
+      ]);
+
+      expect(result, hasLength(2));
+      final calls = platform.callsFor('toLatLngBatch');
+      expect(calls, hasLength(1));
+      expect(calls.single.positionalArgs[0], const [Point(1, 2), Point(3, 4)]);
+    });
+
     test('getVisibleRegion delegates to platform', () async {
       final bounds = await controller.getVisibleRegion();
 
@@ -453,6 +484,88 @@ void main() {
     });
   });
 
+  group('Feature query delegation', () {
+    test('querySourceFeatures keeps geometry and properties by default',
+        () async {
+      await controller.querySourceFeatures('events', null, null);
+
+      final calls = platform.callsFor('querySourceFeatures');
+      expect(calls.length, 1);
+      expect(calls.first.positionalArgs, ['events', null, null]);
+      expect(calls.first.namedArgs['includeGeometry'], isTrue);
+      expect(calls.first.namedArgs['properties'], isNull);
+    });
+
+    test('querySourceFeatures forwards the projection', () async {
+      await controller.querySourceFeatures(
+        'events',
+        'points',
+        null,
+        includeGeometry: false,
+        properties: ['name'],
+      );
+
+      final calls = platform.callsFor('querySourceFeatures');
+      expect(calls.first.namedArgs['includeGeometry'], isFalse);
+      expect(calls.first.namedArgs['properties'], ['name']);
+    });
+
+    test('querySourceFeaturesStream forwards chunk size and limit', () async {
+      await controller
+          .querySourceFeaturesStream(
+            'events',
+            'points',
+            null,
+            chunkSize: 100,
+            limit: 1000,
+          )
+          .drain<void>();
+
+      final calls = platform.callsFor('querySourceFeaturesStream');
+      expect(calls.length, 1);
+      expect(calls.first.positionalArgs, ['events', 'points', null]);
+      expect(calls.first.namedArgs['chunkSize'], 100);
+      expect(calls.first.namedArgs['limit'], 1000);
+    });
+  });
+
+  group('Tap candidates', () {
+    test('onFeatureTapCandidates receives the ranked candidates', () {
+      List<Map<String, dynamic>>? received;
+      controller.onFeatureTapCandidates.add(
+        (point, coordinates, candidates) => received = candidates,
+      );
+      final candidates = [
+        {'id': 'a', 'distance': 0.0, 'feature': <String, dynamic>{}},
+        {'id': 'b', 'distance': 4.5, 'feature': <String, dynamic>{}},
+      ];
+
+      platform.onFeatureTappedPlatform.call({
+        'id': 'a',
+        'point': const Point<double>(1, 2),
+        'latLng': const LatLng(3, 4),
+        'layerId': 'pins',
+        'candidates': candidates,
+      });
+
+      expect(received, candidates);
+    });
+
+    test('onFeatureTapCandidates is not called without candidates', () {
+      var called = false;
+      controller.onFeatureTapCandidates.add((_, _, _) => called = true);
+
+      platform.onFeatureTappedPlatform.call({
+        'id': 'a',
+        'point': const Point<double>(1, 2),
+        'latLng': const LatLng(3, 4),
+        'layerId': 'pins',
+      });
+
+      expect(called, isFalse);
+    });
+  });
+
   group('Cluster inspection delegation', () {
     test('getClusterExpansionZoom delegates to platform', () async {
       platform.clusterExpansionZoom = 11;
@@ -546,6 +659,21 @@ void main() {
       expect(calls.first.namedArgs['height'], isNull);
     });
 
+    test('takeSnapshot forwards the format and scaling', () async {
+      await controller.takeSnapshot(
+        format: SnapshotFormat.jpeg,
+        quality: 80,
+        pixelRatio: 2,
+        scale: 0.25,
+      );
+
+      final args = platform.callsFor('takeSnapshot').single.namedArgs;
+      expect(args['format'], SnapshotFormat.jpeg);
+      expect(args['quality'], 80);
+      expect(args['pixelRatio'], 2);
+      expect(args['scale'], 0.25);
+    });
+
     test('takeSnapshot with only height forwards partial dimensions', () async {
       await controller.takeSnapshot(height: 768);
 
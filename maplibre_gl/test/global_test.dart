@@ -285,6 +285,35 @@ void main() {
     });
   });
 
+  group('setHttpClientOptions', () {
+    test('sends the given options in milliseconds', () async {
+      await setHttpClientOptions(
+        maxIdleConnections: 8,
+        keepAlive: const Duration(minutes: 1),
+        readTimeout: const Duration(seconds: 20),
+        http2: false,
+      );
+
+      expect(methodCalls.length, 1);
+      expect(methodCalls[0].method, 'setHttpClientOptions');
+      expect(methodCalls[0].arguments, {
+        'maxIdleConnections': 8,
+        'keepAliveMillis': 60000,
+        'readTimeoutMillis': 20000,
+        'http2': false,
+      });
+    });
+
+    test('does nothing off Android', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      addTearDown(() => debugDefaultTargetPlatformOverride = null);
+
+      await setHttpClientOptions(connectTimeout: const Duration(seconds: 5));
+
+      expect(methodCalls, isEmpty);
+    });
+  });
+
   group('getOfflineRegionStatus', () {
     test('returns parsed status', () async {
       final fakeStatusJson = json.encode({
@@ -321,6 +350,105 @@ void main() {
     });
   });
 
+  group('renderSnapshots', () {
+    late _SnapshotBatchHandler batch;
+
+    setUp(() {
+      batch = _SnapshotBatchHandler([
+        Uint8List.fromList([1]),
+        Uint8List.fromList([2]),
+      ]);
+      final messenger =
+          TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger;
+      messenger.setMockMethodCallHandler(
+        const MethodChannel('plugins.flutter.io/maplibre_gl'),
+        (methodCall) async {
+          methodCalls.add(methodCall);
+          final channelName =
+              (methodCall.arguments as Map)['channelName'] as String;
+          messenger.setMockStreamHandler(EventChannel(channelName), batch);
+          return null;
+        },
+      );
+    });
+
+    test('sends the batch and streams the images in order', () async {
+      final snapshots = await renderSnapshots(
+        styleString: 'https://example.com/style.json',
+        width: 128,
+        height: 96,
+        format: SnapshotFormat.jpeg,
+        quality: 80,
+        views: [
+          const SnapshotView.camera(
+            CameraPosition(target: LatLng(1, 2), zoom: 10),
+          ),
+          SnapshotView.bounds(
+            LatLngBounds(
+              southwest: const LatLng(10, 20),
+              northeast: const LatLng(30, 40),
+            ),
+            width: 64,
+            height: 64,
+          ),
+        ],
+      ).toList();
+
+      expect(methodCalls.single.method, 'snapshot#renderBatch');
+      final args = methodCalls.single.arguments as Map;
+      expect(args['styleString'], 'https://example.com/style.json');
+      expect(args['width'], 128);
+      expect(args['height'], 96);
+      expect(args['format'], 'jpeg');
+      expect(args['quality'], 80);
+      expect(args.containsKey('scale'), isFalse);
+      expect(args['views'], [
+        {
+          'camera': [1.0, 2.0, 10.0, 0.0, 0.0],
+        },
+        {
+          'bounds': [10.0, 20.0, 30.0, 40.0],
+          'width': 64,
+          'height': 64,
+        },
+      ]);
+      expect(snapshots.map((s) => s.index), [0, 1]);
+      expect(snapshots.map((s) => s.bytes), batch.images);
+      expect(snapshots.map((s) => s.progress), [0.5, 1.0]);
+    });
+
+    test('cancelling the subscription stops the batch', () async {
+      batch.endAfterImages = false;
+      final first = await renderSnapshots(
+        styleString: 'https://example.com/style.json',
+        width: 128,
+        height: 96,
+        views: const [
+          SnapshotView.camera(CameraPosition(target: LatLng(1, 2))),
+          SnapshotView.camera(CameraPosition(target: LatLng(3, 4))),
+          SnapshotView.camera(CameraPosition(target: LatLng(5, 6))),
+        ],
+      ).first;
+      await pumpEventQueue();
+
+      expect(first.index, 0);
+      expect(first.total, 3);
+      expect(batch.cancelled, isTrue);
+    });
+
+    test('an empty batch asks for nothing', () async {
+      final snapshots = await renderSnapshots(
+        styleString: 'https://example.com/style.json',
+        width: 128,
+        height: 96,
+        views: const [],
+      ).toList();
+
+      expect(snapshots, isEmpty);
+      expect(methodCalls, isEmpty);
+    });
+  });
+
   group('ensureWebLibraryLoaded', () {
     // On Android and iOS there is nothing to load, so this must stay an
     // immediate no-op that never throws: app code awaits it unconditionally
@@ -415,3 +543,27 @@ class _ErrorStreamHandler extends MockStreamHandler {
   @override
   void onCancel(dynamic arguments) {}
 }
+
+/// Answers a snapshot#renderBatch listen with one event per image.
+class _SnapshotBatchHandler extends MockStreamHandler {
+  _SnapshotBatchHandler(this.images);
+
+  final List<Uint8List> images;
+  bool endAfterImages = true;
+  bool cancelled = false;
+
+  @override
+  void onListen(dynamic arguments, MockStreamHandlerEventSink events) {
+    for (var i = 0; i < images.length; i++) {
+      events.success(<String, Object>{'index': i, 'image': images[i]});
+    }
+    if (endAfterImages) {
+      events.endOfStream();
+    }
+  }
+
+  @override
+  void onCancel(dynamic arguments) {
+    cancelled = true;
+  }
+}
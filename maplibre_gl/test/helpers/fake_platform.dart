@@ -205,22 +205,62 @@ class FakeMapLibrePlatform extends MapLibrePlatform {
   Future<List> queryRenderedFeatures(
     Point<double> point,
     List<String> layerIds,
-    List<Object>? filter,
-  ) async => [];
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async => [];
 
   @override
   Future<List> queryRenderedFeaturesInRect(
     Rect rect,
     List<String> layerIds,
-    String? filter,
-  ) async => [];
+    String? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async => [];
 
   @override
   Future<List> querySourceFeatures(
     String sourceId,
     String? sourceLayerId,
-    List<Object>? filter,
-  ) async => [];
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
+    calls.add(
+      PlatformCall(
+        'querySourceFeatures',
+        [sourceId, sourceLayerId, filter],
+        {'includeGeometry': includeGeometry, 'properties': properties},
+      ),
+    );
+    return [];
+  }
+
+  @override
+  Stream<List> querySourceFeaturesStream(
+    String sourceId,
+    String? sourceLayerId,
+    List<Object>? filter, {
+    int chunkSize = 500,
+    int? limit,
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) {
+    calls.add(
+      PlatformCall(
+        'querySourceFeaturesStream',
+        [sourceId, sourceLayerId, filter],
+        {
+          'chunkSize': chunkSize,
+          'limit': limit,
+          'includeGeometry': includeGeometry,
+          'properties': properties,
+        },
+      ),
+    );
+    return const Stream.empty();
+  }
 
   /// What [getClusterExpansionZoom] answers.
   int clusterExpansionZoom = 7;
@@ -282,6 +322,14 @@ class FakeMapLibrePlatform extends MapLibrePlatform {
     bool sdf = false,
   ]) async {}
 
+  @override
+  Future<void> addImages(
+    Map<String, Uint8List> images, {
+    bool sdf = false,
+  }) async {
+    calls.add(PlatformCall('addImages', [images], {'sdf': sdf}));
+  }
+
   @override
   Future<void> addImageSource(
     String imageSourceId,
@@ -296,6 +344,15 @@ class FakeMapLibrePlatform extends MapLibrePlatform {
     LatLngQuad? coordinates,
   ) async {}
 
+  @override
+  Future<ImageSourceFrameTimings?> updateImageSourceFrame(
+    String imageSourceId,
+    ImageSourceFrame frame,
+  ) async {
+    calls.add(PlatformCall('updateImageSourceFrame', [imageSourceId, frame]));
+    return null;
+  }
+
   @override
   Future<void> addLayer(
     String imageLayerId,
@@ -365,6 +422,15 @@ class FakeMapLibrePlatform extends MapLibrePlatform {
   Future<Map<String, dynamic>?> getLayerProperties(String layerId) async =>
       null;
 
+  @override
+  Future<void> batch(void Function() body) async {
+    calls.add(PlatformCall('batch'));
+    body();
+  }
+
+  @override
+  Future<Map<String, int>> getPerformanceCounters() async => const {};
+
   @override
   Future<Map<String, dynamic>?> getSourceProperties(String sourceId) async =>
       null;
@@ -385,6 +451,12 @@ class FakeMapLibrePlatform extends MapLibrePlatform {
   @override
   Future<LatLng> toLatLng(Point screenLocation) async => const LatLng(0, 0);
 
+  @override
+  Future<List<LatLng>> toLatLngBatch(Iterable<Point> screenLocations) async {
+    calls.add(PlatformCall('toLatLngBatch', [screenLocations.toList()]));
+    return screenLocations.map((_) => const LatLng(0, 0)).toList();
+  }
+
   @override
   Future<double> getMetersPerPixelAtLatitude(double latitude) async => 1.0;
 
@@ -430,6 +502,22 @@ class FakeMapLibrePlatform extends MapLibrePlatform {
     );
   }
 
+  @override
+  Future<void> applyFeatureDiff(
+    String sourceId, {
+    List<Map<String, dynamic>> added = const [],
+    List<Map<String, dynamic>> updated = const [],
+    List<String> removed = const [],
+  }) async {
+    calls.add(
+      PlatformCall(
+        'applyFeatureDiff',
+        [sourceId],
+        {'added': added, 'updated': updated, 'removed': removed},
+      ),
+    );
+  }
+
   @override
   Future<void> setFeatureState(
     String sourceId,
@@ -635,9 +723,23 @@ class FakeMapLibrePlatform extends MapLibrePlatform {
   Uint8List snapshotResult = Uint8List.fromList([0x89, 0x50, 0x4E, 0x47]);
 
   @override
-  Future<Uint8List> takeSnapshot({int? width, int? height}) async {
+  Future<Uint8List> takeSnapshot({
+    int? width,
+    int? height,
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality = 100,
+    double? pixelRatio,
+    double scale = 1,
+  }) async {
     calls.add(
-      PlatformCall('takeSnapshot', [], {'width': width, 'height': height}),
+      PlatformCall('takeSnapshot', [], {
+        'width': width,
+        'height': height,
+        'format': format,
+        'quality': quality,
+        'pixelRatio': pixelRatio,
+        'scale': scale,
+      }),
     );
     return snapshotResult;
   }
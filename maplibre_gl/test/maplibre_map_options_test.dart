@@ -68,6 +68,42 @@ void main() {
       expect(diff.containsKey('cameraTargetBounds'), isTrue);
     });
 
+    test('sends the tap tolerance and candidate count', () {
+      final options = MapLibreMapOptions.fromWidget(
+        MapLibreMap(tapTolerance: 24, tapCandidateCount: 5),
+      ).toMap();
+
+      expect(options['tapTolerance'], 24);
+      expect(options['tapCandidateCount'], 5);
+      expect(
+        MapLibreMapOptions.fromWidget(MapLibreMap()).toMap(),
+        isNot(contains('tapTolerance')),
+      );
+    });
+
+    test('sends the camera move throttle, and an empty one to clear it', () {
+      final throttled = MapLibreMapOptions.fromWidget(
+        MapLibreMap(
+          trackCameraPosition: true,
+          cameraMoveThrottle: const CameraMoveThrottle(
+            maxEventsPerSecond: 30,
+            minZoomDelta: 0.01,
+            minTargetDelta: 2,
+          ),
+        ),
+      );
+      final unthrottled = MapLibreMapOptions.fromWidget(
+        MapLibreMap(trackCameraPosition: true),
+      );
+
+      expect(throttled.toMap()['cameraMoveThrottle'], [30, 0.01, 0, 0, 2]);
+      expect(unthrottled.toMap()['cameraMoveThrottle'], isEmpty);
+      expect(
+        throttled.updatesMap(unthrottled),
+        {'cameraMoveThrottle': isEmpty},
+      );
+    });
+
     test('returns empty diff when no widget property changed at all', () {
       final mapA = MapLibreMap();
       final mapB = MapLibreMap();
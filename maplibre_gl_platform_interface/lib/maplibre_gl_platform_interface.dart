@@ -9,10 +9,13 @@ import 'package:flutter/material.dart';
 import 'package:flutter/rendering.dart';
 import 'package:flutter/services.dart';
 part 'src/annotation.dart';
+part 'src/batching_method_channel.dart';
 part 'src/callbacks.dart';
 part 'src/camera.dart';
 part 'src/circle.dart';
+part 'src/geojson_binary.dart';
 part 'src/global_platform.dart';
+part 'src/image_source_frame.dart';
 part 'src/line.dart';
 part 'src/location.dart';
 part 'src/location_source.dart';
@@ -0,0 +1,115 @@
+part of '../maplibre_gl_platform_interface.dart';
+
+/// A [MethodChannel] that can hold calls back and send them to the platform
+/// side together, as one `map#batch` message.
+///
+/// While [collect] runs its callback, every [invokeMethod] is queued instead
+/// of sent, and returns a future that completes with that call's own reply
+/// once the batch has been answered. Calls made outside [collect] go out
+/// immediately, as usual.
+class _BatchingMethodChannel extends MethodChannel {
+  _BatchingMethodChannel(super.name);
+
+  List<_BatchedCall>? _pending;
+
+  @override
+  Future<T?> invokeMethod<T>(String method, [dynamic arguments]) {
+    final pending = _pending;
+    if (pending == null) {
+      return super.invokeMethod<T>(method, arguments);
+    }
+    final call = _BatchedCall(method, arguments);
+    pending.add(call);
+    return call.completer.future.then((reply) => reply as T?);
+  }
+
+  /// Runs [body], then sends every call it made in one `map#batch` message.
+  ///
+  /// Only calls made synchronously within [body] are batched: a call that
+  /// first awaits something else is sent on its own once it gets there.
+  /// Inside an outer [collect], [body] just joins that batch.
+  Future<void> collect(void Function() body) async {
+    if (_pending != null) {
+      body();
+      return;
+    }
+    final calls = _pending = <_BatchedCall>[];
+    try {
+      body();
+    } catch (e, stackTrace) {
+      // The calls queued before [body] threw are not sent, so they fail with
+      // its error rather than leave their callers waiting.
+      for (final call in calls) {
+        call.completer.completeError(e, stackTrace);
+      }
+      rethrow;
+    } finally {
+      _pending = null;
+    }
+    if (calls.isEmpty) {
+      return;
+    }
+
+    final List<dynamic>? replies;
+    try {
+      replies = await super.invokeMethod<List<dynamic>>(
+        'map#batch',
+        <String, dynamic>{
+          'calls': [
+            for (final call in calls)
+              <String, dynamic>{
+                'method': call.method,
+                'arguments': call.arguments,
+              },
+          ],
+        },
+      );
+    } catch (e, stackTrace) {
+      for (final call in calls) {
+        call.completer.completeError(e, stackTrace);
+      }
+      rethrow;
+    }
+
+    for (var i = 0; i < calls.length; i++) {
+      final completer = calls[i].completer;
+      final reply = replies != null && i < replies.length
+          ? replies[i] as Map<dynamic, dynamic>?
+          : null;
+      if (reply == null) {
+        completer.completeError(
+          PlatformException(
+            code: 'BATCH_REPLY_MISSING',
+            message: 'map#batch sent no reply for ${calls[i].method}.',
+          ),
+        );
+      } else if (reply.containsKey('error')) {
+        final Map<dynamic, dynamic> error = reply['error'];
+        completer.completeError(
+          PlatformException(
+            code: error['code'] as String,
+            message: error['message'] as String?,
+            details: error['details'],
+          ),
+        );
+      } else if (reply['notImplemented'] == true) {
+        completer.completeError(
+          MissingPluginException(
+            'No implementation found for method ${calls[i].method} on '
+            'channel $name',
+          ),
+        );
+      } else {
+        completer.complete(reply['result']);
+      }
+    }
+  }
+}
+
+class _BatchedCall {
+  _BatchedCall(this.method, this.arguments);
+
+  final String method;
+  final dynamic arguments;
+  final Completer<dynamic> completer = Completer<dynamic>();
+}
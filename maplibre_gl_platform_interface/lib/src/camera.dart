@@ -61,6 +61,16 @@ class CameraPosition {
     if (json == null) {
       return null;
     }
+    if (json is List) {
+      // Android sends [latitude, longitude, zoom, bearing, tilt] as a
+      // Float64List rather than a map.
+      return CameraPosition(
+        target: LatLng(json[0], json[1]),
+        zoom: json[2],
+        bearing: json[3],
+        tilt: json[4],
+      );
+    }
     return CameraPosition(
       bearing: json['bearing'],
       target: LatLng._fromJson(json['target']),
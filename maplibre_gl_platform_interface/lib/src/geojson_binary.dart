@@ -0,0 +1,421 @@
+part of '../maplibre_gl_platform_interface.dart';
+
+/// Encodes a GeoJSON `FeatureCollection` or `Feature` into the packed layout
+/// the Android plugin reads in `GeoJsonBinaryDecoder`.
+///
+/// Android otherwise receives a JSON string, which it parses into a JSON tree
+/// and then walks a second time to build its features. With the binary form
+/// the features are built straight from the bytes: coordinates are packed
+/// doubles, and every string (ids, property keys, string values) is stored
+/// once in a table and referenced by index.
+///
+/// Everything is little-endian:
+///
+/// ```text
+/// u8   version (1)
+/// u32  string count, then per string: u32 byte length, UTF-8 bytes
+/// u32  feature count, then per feature:
+///        u8  has id (0/1), then u32 string index of the id
+///        geometry
+///        u32 property count, then per property: u32 key index, value
+///
+/// geometry: u8 type, then
+///   0 null           nothing
+///   1 Point          positions (count 1)
+///   2 MultiPoint     positions
+///   3 LineString     positions
+///   4 MultiLineString, 5 Polygon
+///                    u32 count, then that many positions
+///   6 MultiPolygon   u32 count, then per polygon: u32 count, positions
+///   7 GeometryCollection
+///                    u32 count, then that many geometries
+///
+/// positions: u32 count, u8 dimensions (2 or 3), then count * dimensions f64
+///            (longitude, latitude[, altitude]; a missing altitude is NaN)
+///
+/// value: u8 tag, then
+///   0 null, 1 false, 2 true   nothing
+///   3 int                     i64
+///   4 double                  f64
+///   5 string                  u32 string index
+///   6 list or map             u32 string index of its JSON encoding
+/// ```
+///
+/// Foreign members and `bbox` are not carried, as Android drops them anyway.
+/// Throws an [ArgumentError] for any other top-level type, which the JSON path
+/// would silently skip on the platform side.
+@visibleForTesting
+Uint8List encodeGeoJsonBinary(Map<String, dynamic> geojson) {
+  final type = geojson['type'];
+  final List<dynamic> features;
+  if (type == 'FeatureCollection') {
+    features = geojson['features'] as List? ?? const [];
+  } else if (type == 'Feature') {
+    features = [geojson];
+  } else {
+    throw ArgumentError.value(
+      type,
+      'geojson.type',
+      'The binary GeoJSON transport takes a FeatureCollection or a Feature',
+    );
+  }
+  return _GeoJsonBinaryWriter().write(features);
+}
+
+class _GeoJsonBinaryWriter {
+  static const _version = 1;
+
+  final _body = _ByteSink();
+  final _strings = <String, int>{};
+
+  Uint8List write(List<dynamic> features) {
+    _body.uint32(features.length);
+    for (final feature in features) {
+      _writeFeature(feature as Map);
+    }
+
+    final header = _ByteSink()..uint8(_version);
+    header.uint32(_strings.length);
+    for (final string in _strings.keys) {
+      final bytes = utf8.encode(string);
+      header.uint32(bytes.length);
+      header.bytes(bytes);
+    }
+    header.bytes(_body.takeBytes());
+    return header.takeBytes();
+  }
+
+  int _stringIndex(String value) =>
+      _strings.putIfAbsent(value, () => _strings.length);
+
+  void _writeFeature(Map feature) {
+    final id = feature['id'];
+    if (id == null) {
+      _body.uint8(0);
+    } else {
+      _body.uint8(1);
+      _body.uint32(_stringIndex(id.toString()));
+    }
+
+    _writeGeometry(feature['geometry'] as Map?);
+
+    final properties = feature['properties'] as Map? ?? const {};
+    _body.uint32(properties.length);
+    properties.forEach((key, value) {
+      _body.uint32(_stringIndex(key.toString()));
+      _writeValue(value);
+    });
+  }
+
+  void _writeGeometry(Map? geometry) {
+    if (geometry == null) {
+      _body.uint8(0);
+      return;
+    }
+    final coordinates = geometry['coordinates'];
+    switch (geometry['type']) {
+      case 'Point':
+        _body.uint8(1);
+        _writePositions([coordinates]);
+      case 'MultiPoint':
+        _body.uint8(2);
+        _writePositions(coordinates as List);
+      case 'LineString':
+        _body.uint8(3);
+        _writePositions(coordinates as List);
+      case 'MultiLineString':
+        _body.uint8(4);
+        _writePositionLists(coordinates as List);
+      case 'Polygon':
+        _body.uint8(5);
+        _writePositionLists(coordinates as List);
+      case 'MultiPolygon':
+        _body.uint8(6);
+        final polygons = coordinates as List;
+        _body.uint32(polygons.length);
+        for (final polygon in polygons) {
+          _writePositionLists(polygon as List);
+        }
+      case 'GeometryCollection':
+        _body.uint8(7);
+        final geometries = geometry['geometries'] as List? ?? const [];
+        _body.uint32(geometries.length);
+        for (final child in geometries) {
+          _writeGeometry(child as Map?);
+        }
+      default:
+        throw ArgumentError.value(
+          geometry['type'],
+          'geometry.type',
+          'Unknown GeoJSON geometry type',
+        );
+    }
+  }
+
+  void _writePositionLists(List lists) {
+    _body.uint32(lists.length);
+    for (final positions in lists) {
+      _writePositions(positions as List);
+    }
+  }
+
+  void _writePositions(List positions) {
+    var dimensions = 2;
+    for (final position in positions) {
+      if ((position as List).length > 2) {
+        dimensions = 3;
+        break;
+      }
+    }
+    _body.uint32(positions.length);
+    _body.uint8(dimensions);
+    for (final position in positions) {
+      final values = position as List;
+      _body.float64((values[0] as num).toDouble());
+      _body.float64((values[1] as num).toDouble());
+      if (dimensions == 3) {
+        _body.float64(
+          values.length > 2 ? (values[2] as num).toDouble() : double.nan,
+        );
+      }
+    }
+  }
+
+  void _writeValue(Object? value) {
+    if (value == null) {
+      _body.uint8(0);
+    } else if (value is bool) {
+      _body.uint8(value ? 2 : 1);
+    } else if (value is int) {
+      _body.uint8(3);
+      _body.int64(value);
+    } else if (value is double) {
+      _body.uint8(4);
+      _body.float64(value);
+    } else if (value is String) {
+      _body.uint8(5);
+      _body.uint32(_stringIndex(value));
+    } else {
+      _body.uint8(6);
+      _body.uint32(_stringIndex(jsonEncode(value)));
+    }
+  }
+}
+
+/// Decodes features packed in the layout [encodeGeoJsonBinary] writes, as
+/// the Android plugin sends feature-query replies when
+/// `MapLibreMethodChannel.useBinaryFeatureReplies` is set.
+///
+/// Each feature comes out as the map `jsonDecode` would give for its JSON:
+/// `type`, `id` when it has one, `geometry` when it has one, and
+/// `properties`. Each string is decoded once from the string table, however
+/// many features use it. The feature queries hand every feature to their
+/// caller, so all of them are decoded up front.
+///
+/// Throws a [FormatException] when the bytes are not in a layout this
+/// version reads.
+@visibleForTesting
+List<Map<String, dynamic>> decodeGeoJsonBinaryFeatures(Uint8List bytes) {
+  final reader = _ByteSource(bytes);
+  final version = reader.uint8();
+  if (version != _GeoJsonBinaryWriter._version) {
+    throw FormatException('Unsupported binary GeoJSON version $version');
+  }
+  final strings = List<String>.generate(
+    reader.uint32(),
+    (_) => reader.utf8String(),
+  );
+  return List<Map<String, dynamic>>.generate(
+    reader.uint32(),
+    (_) => _readFeature(reader, strings),
+  );
+}
+
+Map<String, dynamic> _readFeature(_ByteSource reader, List<String> strings) {
+  final feature = <String, dynamic>{'type': 'Feature'};
+  if (reader.uint8() != 0) {
+    feature['id'] = strings[reader.uint32()];
+  }
+  final geometry = _readGeometry(reader, strings);
+  if (geometry != null) {
+    feature['geometry'] = geometry;
+  }
+  final properties = <String, dynamic>{};
+  final propertyCount = reader.uint32();
+  for (var i = 0; i < propertyCount; i++) {
+    final key = strings[reader.uint32()];
+    properties[key] = _readValue(reader, strings);
+  }
+  feature['properties'] = properties;
+  return feature;
+}
+
+Map<String, dynamic>? _readGeometry(_ByteSource reader, List<String> strings) {
+  final type = reader.uint8();
+  switch (type) {
+    case 0:
+      return null;
+    case 1:
+      return {'type': 'Point', 'coordinates': _readPositions(reader).first};
+    case 2:
+      return {'type': 'MultiPoint', 'coordinates': _readPositions(reader)};
+    case 3:
+      return {'type': 'LineString', 'coordinates': _readPositions(reader)};
+    case 4:
+      return {
+        'type': 'MultiLineString',
+        'coordinates': _readPositionLists(reader),
+      };
+    case 5:
+      return {'type': 'Polygon', 'coordinates': _readPositionLists(reader)};
+    case 6:
+      return {
+        'type': 'MultiPolygon',
+        'coordinates': List<dynamic>.generate(
+          reader.uint32(),
+          (_) => _readPositionLists(reader),
+        ),
+      };
+    case 7:
+      return {
+        'type': 'GeometryCollection',
+        'geometries': List<dynamic>.generate(
+          reader.uint32(),
+          (_) => _readGeometry(reader, strings),
+        ),
+      };
+    default:
+      throw FormatException('Unknown binary GeoJSON geometry type $type');
+  }
+}
+
+List<dynamic> _readPositionLists(_ByteSource reader) =>
+    List<dynamic>.generate(reader.uint32(), (_) => _readPositions(reader));
+
+List<dynamic> _readPositions(_ByteSource reader) {
+  final count = reader.uint32();
+  final dimensions = reader.uint8();
+  return List<dynamic>.generate(count, (_) {
+    final longitude = reader.float64();
+    final latitude = reader.float64();
+    if (dimensions < 3) {
+      return <double>[longitude, latitude];
+    }
+    final altitude = reader.float64();
+    return altitude.isNaN
+        ? <double>[longitude, latitude]
+        : <double>[longitude, latitude, altitude];
+  });
+}
+
+Object? _readValue(_ByteSource reader, List<String> strings) {
+  final tag = reader.uint8();
+  switch (tag) {
+    case 0:
+      return null;
+    case 1:
+      return false;
+    case 2:
+      return true;
+    case 3:
+      return reader.int64();
+    case 4:
+      return reader.float64();
+    case 5:
+      return strings[reader.uint32()];
+    case 6:
+      return jsonDecode(strings[reader.uint32()]);
+    default:
+      throw FormatException('Unknown binary GeoJSON value tag $tag');
+  }
+}
+
+/// Little-endian reader over the bytes [decodeGeoJsonBinaryFeatures] walks.
+class _ByteSource {
+  _ByteSource(Uint8List bytes)
+      : _bytes = bytes,
+        _data = ByteData.sublistView(bytes);
+
+  final Uint8List _bytes;
+  final ByteData _data;
+  int _offset = 0;
+
+  int uint8() => _data.getUint8(_offset++);
+
+  int uint32() {
+    final value = _data.getUint32(_offset, Endian.little);
+    _offset += 4;
+    return value;
+  }
+
+  int int64() {
+    final value = _data.getInt64(_offset, Endian.little);
+    _offset += 8;
+    return value;
+  }
+
+  double float64() {
+    final value = _data.getFloat64(_offset, Endian.little);
+    _offset += 8;
+    return value;
+  }
+
+  String utf8String() {
+    final length = uint32();
+    final value = utf8.decode(
+      Uint8List.sublistView(_bytes, _offset, _offset + length),
+    );
+    _offset += length;
+    return value;
+  }
+}
+
+/// Growable little-endian byte buffer, so the writer fills one typed list
+/// instead of building a list of small chunks.
+class _ByteSink {
+  Uint8List _buffer = Uint8List(1024);
+  late ByteData _data = ByteData.sublistView(_buffer);
+  int _length = 0;
+
+  void _reserve(int count) {
+    if (_length + count <= _buffer.length) return;
+    var capacity = _buffer.length * 2;
+    while (capacity < _length + count) {
+      capacity *= 2;
+    }
+    _buffer = Uint8List(capacity)..setRange(0, _length, _buffer);
+    _data = ByteData.sublistView(_buffer);
+  }
+
+  void uint8(int value) {
+    _reserve(1);
+    _data.setUint8(_length, value);
+    _length += 1;
+  }
+
+  void uint32(int value) {
+    _reserve(4);
+    _data.setUint32(_length, value, Endian.little);
+    _length += 4;
+  }
+
+  void int64(int value) {
+    _reserve(8);
+    _data.setInt64(_length, value, Endian.little);
+    _length += 8;
+  }
+
+  void float64(double value) {
+    _reserve(8);
+    _data.setFloat64(_length, value, Endian.little);
+    _length += 8;
+  }
+
+  void bytes(List<int> bytes) {
+    _reserve(bytes.length);
+    _buffer.setRange(_length, _length + bytes.length, bytes);
+    _length += bytes.length;
+  }
+
+  Uint8List takeBytes() => Uint8List.sublistView(_buffer, 0, _length);
+}
@@ -0,0 +1,44 @@
+part of '../maplibre_gl_platform_interface.dart';
+
+/// One frame of an animated image source, such as a step of a radar loop,
+/// for [MapLibrePlatform.updateImageSourceFrame].
+@immutable
+class ImageSourceFrame {
+  /// An encoded image, such as a PNG or a JPEG.
+  const ImageSourceFrame.encoded(this.bytes) : width = null, height = null;
+
+  /// Raw pixels, row by row from the top left, four bytes each in RGBA order
+  /// with the color premultiplied by alpha. Android only: the pixels are
+  /// copied into the source without being decoded.
+  const ImageSourceFrame.rgba(
+    this.bytes, {
+    required int this.width,
+    required int this.height,
+  });
+
+  final Uint8List bytes;
+
+  /// The width in pixels of an RGBA frame, null for an encoded one.
+  final int? width;
+
+  /// The height in pixels of an RGBA frame, null for an encoded one.
+  final int? height;
+
+  bool get isRgba => width != null;
+}
+
+/// How long the platform took over one [ImageSourceFrame].
+@immutable
+class ImageSourceFrameTimings {
+  const ImageSourceFrameTimings({required this.decode, required this.commit});
+
+  /// Reading the frame into a bitmap, off the main thread.
+  final Duration decode;
+
+  /// Handing the bitmap to the image source, on the main thread.
+  final Duration commit;
+
+  @override
+  String toString() =>
+      'ImageSourceFrameTimings(decode: $decode, commit: $commit)';
+}
@@ -57,6 +57,18 @@ class LatLng {
   int get hashCode => Object.hash(latitude, longitude);
 }
 
+/// The coordinates of [latLngs] as flat latitude, longitude pairs, which the
+/// platform channel codec sends to Android as one `double[]`.
+Float64List _packLatLngs(Iterable<LatLng> latLngs) {
+  final packed = Float64List(latLngs.length * 2);
+  var i = 0;
+  for (final latLng in latLngs) {
+    packed[i++] = latLng.latitude;
+    packed[i++] = latLng.longitude;
+  }
+  return packed;
+}
+
 /// A latitude/longitude aligned rectangle.
 ///
 /// The rectangle conceptually includes all points (lat, lng) where
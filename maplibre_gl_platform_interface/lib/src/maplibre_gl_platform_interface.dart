@@ -211,23 +211,83 @@ abstract class MapLibrePlatform {
   /// Returns the custom HTTP headers currently set on this map instance.
   Future<Map<String, String>> getCustomHeaders();
 
+  /// The feature queries answer with only what they are asked for: no
+  /// `geometry` when [includeGeometry] is false, and only the listed
+  /// [properties] when that is non-null.
   Future<List> queryRenderedFeatures(
     Point<double> point,
     List<String> layerIds,
-    List<Object>? filter,
-  );
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  });
 
   Future<List> queryRenderedFeaturesInRect(
     Rect rect,
     List<String> layerIds,
-    String? filter,
-  );
+    String? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  });
 
   Future<List> querySourceFeatures(
+    String sourceId,
+    String? sourceLayerId,
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  });
+
+  /// The features of [querySourceFeatures], handed out in lists of at most
+  /// [chunkSize] features, and no more than [limit] features in all when
+  /// [limit] is non-null.
+  ///
+  /// Chunks are produced as the subscription takes them: pausing it holds
+  /// the rest back, and cancelling it drops them. This implementation runs
+  /// the whole query and then splits its result; platforms that can hand
+  /// the features over a chunk at a time override it.
+  Stream<List> querySourceFeaturesStream(
+    String sourceId,
+    String? sourceLayerId,
+    List<Object>? filter, {
+    int chunkSize = 500,
+    int? limit,
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) {
+    _checkFeatureStreamArguments(chunkSize, limit);
+    return _chunkedSourceFeatures(
+      sourceId,
+      sourceLayerId,
+      filter,
+      chunkSize,
+      limit,
+      includeGeometry,
+      properties,
+    );
+  }
+
+  Stream<List> _chunkedSourceFeatures(
     String sourceId,
     String? sourceLayerId,
     List<Object>? filter,
-  );
+    int chunkSize,
+    int? limit,
+    bool includeGeometry,
+    List<String>? properties,
+  ) async* {
+    final features = await querySourceFeatures(
+      sourceId,
+      sourceLayerId,
+      filter,
+      includeGeometry: includeGeometry,
+      properties: properties,
+    );
+    final end = limit == null ? features.length : min(limit, features.length);
+    for (var start = 0; start < end; start += chunkSize) {
+      yield features.sublist(start, min(start + chunkSize, end));
+    }
+  }
 
   /// The zoom at which the cluster identified by [clusterId] splits into its
   /// children, on the clustered GeoJSON source [sourceId].
@@ -257,6 +317,15 @@ abstract class MapLibrePlatform {
 
   Future<void> addImage(String name, Uint8List bytes, [bool sdf = false]);
 
+  /// Adds every image of [images] under its name, as [addImage] would one by
+  /// one. This implementation does exactly that; platforms that can take the
+  /// images in one call override it.
+  Future<void> addImages(Map<String, Uint8List> images, {bool sdf = false}) {
+    return Future.wait([
+      for (final entry in images.entries) addImage(entry.key, entry.value, sdf),
+    ]);
+  }
+
   Future<void> addImageSource(
     String imageSourceId,
     Uint8List bytes,
@@ -269,6 +338,22 @@ abstract class MapLibrePlatform {
     LatLngQuad? coordinates,
   );
 
+  /// Replaces the image of the image source [imageSourceId] with [frame],
+  /// and returns how long that took where the platform measures it.
+  ///
+  /// This implementation hands an encoded frame to [updateImageSource] and
+  /// returns null; it cannot take an RGBA frame.
+  Future<ImageSourceFrameTimings?> updateImageSourceFrame(
+    String imageSourceId,
+    ImageSourceFrame frame,
+  ) async {
+    if (frame.isRgba) {
+      throw UnsupportedError('RGBA image source frames need Android.');
+    }
+    await updateImageSource(imageSourceId, frame.bytes, null);
+    return null;
+  }
+
   Future<void> addLayer(
     String imageLayerId,
     String imageSourceId,
@@ -292,6 +377,16 @@ abstract class MapLibrePlatform {
 
   Future<Map<String, dynamic>?> getLayerProperties(String layerId);
 
+  /// Runs [body] and sends the platform calls it makes synchronously in one
+  /// message, completing once all of them have been answered. Each call's own
+  /// future still completes with its own result or error. Android only;
+  /// other platforms send the calls one by one.
+  Future<void> batch(void Function() body);
+
+  /// Counters the platform side accumulates for this map, by name. Android
+  /// only; other platforms answer an empty map.
+  Future<Map<String, int>> getPerformanceCounters();
+
   Future<Map<String, dynamic>?> getSourceProperties(String sourceId);
 
   Future<void> setFilter(String layerId, dynamic filter);
@@ -304,6 +399,8 @@ abstract class MapLibrePlatform {
 
   Future<LatLng> toLatLng(Point screenLocation);
 
+  Future<List<LatLng>> toLatLngBatch(Iterable<Point> screenLocations);
+
   Future<double> getMetersPerPixelAtLatitude(double latitude);
 
   Future<void> addGeoJsonSource(
@@ -327,6 +424,20 @@ abstract class MapLibrePlatform {
     Map<String, dynamic> geojsonFeature,
   );
 
+  /// Applies [added], [updated] and [removed] to a source created with
+  /// [addGeoJsonSource] as a single source update.
+  ///
+  /// [added] features are inserted, or replace the feature with the same id.
+  /// [updated] features replace the feature with the same id and are ignored
+  /// when there is none, like [setFeatureForGeoJsonSource]. [removed] holds
+  /// the ids of the features to remove.
+  Future<void> applyFeatureDiff(
+    String sourceId, {
+    List<Map<String, dynamic>> added = const [],
+    List<Map<String, dynamic>> updated = const [],
+    List<String> removed = const [],
+  });
+
   Future<void> setFeatureState(
     String sourceId,
     String featureId,
@@ -495,15 +606,28 @@ abstract class MapLibrePlatform {
   /// Waits until all visible map tiles are loaded.
   Future<void> waitUntilMapTilesAreLoaded();
 
-  /// Takes a screenshot of the current map view as PNG bytes.
-  /// Returns a [Uint8List] containing the PNG image data.
+  /// Takes a screenshot of the current map view as image bytes.
+  /// Returns a [Uint8List] containing the image data, a PNG by default.
   /// Supported on all platforms (Android, iOS, Web).
   ///
   /// If [width] and [height] are provided, the snapshot is rendered at that
   /// size (in logical pixels) using an offscreen renderer, preserving the
   /// current camera position and style. When omitted the snapshot matches the
   /// current map view size.
-  Future<Uint8List> takeSnapshot({int? width, int? height});
+  ///
+  /// The image is a [format] file, compressed at [quality] from 0 to 100 when
+  /// the format is lossy. [pixelRatio] renders it at that many physical
+  /// pixels per logical pixel instead of the device's (Android and iOS), and
+  /// [scale], above 0 and at most 1, shrinks the rendered image by that factor
+  /// before it is compressed (Android only).
+  Future<Uint8List> takeSnapshot({
+    int? width,
+    int? height,
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality = 100,
+    double? pixelRatio,
+    double scale = 1,
+  });
 
   /// Method to set style string
   /// A MapLibre GL style document defining the map's appearance.
@@ -538,3 +662,14 @@ abstract class MapLibrePlatform {
     onUserLocationUpdatedPlatform.clear();
   }
 }
+
+/// Throws an [ArgumentError] for a [MapLibrePlatform.querySourceFeaturesStream]
+/// chunk size below 1 or a negative limit.
+void _checkFeatureStreamArguments(int chunkSize, int? limit) {
+  if (chunkSize < 1) {
+    throw ArgumentError.value(chunkSize, 'chunkSize', 'must be at least 1');
+  }
+  if (limit != null && limit < 0) {
+    throw ArgumentError.value(limit, 'limit', 'must not be negative');
+  }
+}
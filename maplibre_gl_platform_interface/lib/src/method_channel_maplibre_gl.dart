@@ -1,7 +1,10 @@
 part of '../maplibre_gl_platform_interface.dart';
 
 class MapLibreMethodChannel extends MapLibrePlatform {
-  late MethodChannel _channel;
+  late _BatchingMethodChannel _channel;
+
+  /// Carries [updateImageSourceFrame] frames on Android.
+  late BasicMessageChannel<ByteData> _imageFramesChannel;
 
   /// Backing field of `MapLibreMap.useHybridComposition`, which is the
   /// documented way to set this and explains what each value selects. Android
@@ -9,6 +12,24 @@ class MapLibreMethodChannel extends MapLibrePlatform {
   /// `TextureView` via MapLibre's `textureMode`.
   static bool useHybridComposition = false;
 
+  /// Backing field of `MapLibreMap.useBinaryGeoJson`. Android only: when
+  /// `true`, `addGeoJsonSource` and `setGeoJsonSource` send the packed layout
+  /// of [encodeGeoJsonBinary] instead of a JSON string. Other platforms keep
+  /// the JSON string regardless.
+  static bool useBinaryGeoJson = false;
+
+  /// Backing field of `MapLibreMap.useBinaryFeatureReplies`. Android only:
+  /// when `true`, feature queries ask for the packed layout read by
+  /// [decodeGeoJsonBinaryFeatures] instead of a JSON string per feature.
+  static bool useBinaryFeatureReplies = false;
+
+  /// Numbers the [EventChannel] of each [querySourceFeaturesStream].
+  int _featureStreamCount = 0;
+
+  /// The camera as last reported on the camera move channel, which each
+  /// later message updates; see [_handleCameraMove].
+  CameraPosition? _streamedCameraPosition;
+
   Future<dynamic> _handleMethodCall(MethodCall call) async {
     switch (call.method) {
       case 'infoWindow#onTap':
@@ -23,11 +44,21 @@ class MapLibreMethodChannel extends MapLibrePlatform {
         final double lng = call.arguments['lng'];
         final double lat = call.arguments['lat'];
         final String layerId = call.arguments['layerId'];
+        final List<dynamic>? candidates = call.arguments['candidates'];
         onFeatureTappedPlatform({
           'id': id,
           'point': Point<double>(x, y),
           'latLng': LatLng(lat, lng),
           'layerId': layerId,
+          if (candidates != null)
+            'candidates': [
+              for (final Map<dynamic, dynamic> candidate in candidates)
+                <String, dynamic>{
+                  'id': candidate['id'],
+                  'distance': (candidate['distance'] as num).toDouble(),
+                  'feature': jsonDecode(candidate['feature'] as String),
+                },
+            ],
         });
       case 'feature#onDrag':
         final id = call.arguments['id'];
@@ -131,11 +162,59 @@ class MapLibreMethodChannel extends MapLibrePlatform {
 
   @override
   Future<void> initPlatform(int id) async {
-    _channel = MethodChannel('plugins.flutter.io/maplibre_gl_$id');
+    _channel = _BatchingMethodChannel('plugins.flutter.io/maplibre_gl_$id');
     _channel.setMethodCallHandler(_handleMethodCall);
+    BasicMessageChannel<ByteData>(
+      'plugins.flutter.io/maplibre_gl_$id/camera',
+      const BinaryCodec(),
+    ).setMessageHandler(_handleCameraMove);
+    _imageFramesChannel = BasicMessageChannel<ByteData>(
+      'plugins.flutter.io/maplibre_gl_$id/imageFrames',
+      const BinaryCodec(),
+    );
     await _channel.invokeMethod('map#waitForMap');
   }
 
+  /// Reads a camera move sent by Android when `MapLibreMap.cameraMoveThrottle`
+  /// is set: a flags byte, then the little-endian doubles of the fields it
+  /// names, in the order target (latitude, longitude), zoom, bearing, tilt.
+  /// Fields left out have not changed since they were last sent.
+  Future<ByteData?> _handleCameraMove(ByteData? message) async {
+    if (message == null || message.lengthInBytes == 0) {
+      return null;
+    }
+    final flags = message.getUint8(0);
+    var offset = 1;
+    double next() {
+      final value = message.getFloat64(offset, Endian.little);
+      offset += 8;
+      return value;
+    }
+
+    final previous = _streamedCameraPosition;
+    final target = flags & _cameraMoveTarget != 0
+        ? LatLng(next(), next())
+        : previous?.target;
+    final zoom = flags & _cameraMoveZoom != 0 ? next() : previous?.zoom;
+    final bearing = flags & _cameraMoveBearing != 0
+        ? next()
+        : previous?.bearing;
+    final tilt = flags & _cameraMoveTilt != 0 ? next() : previous?.tilt;
+    // Only a message carrying every field can start the stream.
+    if (target == null || zoom == null || bearing == null || tilt == null) {
+      return null;
+    }
+    final position = CameraPosition(
+      target: target,
+      zoom: zoom,
+      bearing: bearing,
+      tilt: tilt,
+    );
+    _streamedCameraPosition = position;
+    onCameraMovePlatform(position);
+    return null;
+  }
+
   @override
   Widget buildView(
     Map<String, dynamic> creationParams,
@@ -413,8 +492,10 @@ class MapLibreMethodChannel extends MapLibrePlatform {
   Future<List> queryRenderedFeatures(
     Point<double> point,
     List<String> layerIds,
-    List<Object>? filter,
-  ) async {
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
     try {
       final Map<dynamic, dynamic> reply = await _channel.invokeMethod(
         'map#queryRenderedFeatures',
@@ -423,9 +504,10 @@ class MapLibreMethodChannel extends MapLibrePlatform {
           'y': point.y,
           'layerIds': layerIds,
           'filter': filter,
+          ..._featureReplyArguments(includeGeometry, properties),
         },
       );
-      return reply['features'].map((feature) => jsonDecode(feature)).toList();
+      return _decodeQueryFeatures(reply);
     } on PlatformException catch (e) {
       return Future.error(e);
     }
@@ -435,8 +517,10 @@ class MapLibreMethodChannel extends MapLibrePlatform {
   Future<List> queryRenderedFeaturesInRect(
     Rect rect,
     List<String> layerIds,
-    String? filter,
-  ) async {
+    String? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
     try {
       final Map<dynamic, dynamic> reply = await _channel.invokeMethod(
         'map#queryRenderedFeatures',
@@ -447,9 +531,10 @@ class MapLibreMethodChannel extends MapLibrePlatform {
           'bottom': rect.bottom,
           'layerIds': layerIds,
           'filter': filter,
+          ..._featureReplyArguments(includeGeometry, properties),
         },
       );
-      return reply['features'].map((feature) => jsonDecode(feature)).toList();
+      return _decodeQueryFeatures(reply);
     } on PlatformException catch (e) {
       return Future.error(e);
     }
@@ -459,8 +544,10 @@ class MapLibreMethodChannel extends MapLibrePlatform {
   Future<List> querySourceFeatures(
     String sourceId,
     String? sourceLayerId,
-    List<Object>? filter,
-  ) async {
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
     try {
       final Map<dynamic, dynamic> reply = await _channel.invokeMethod(
         'map#querySourceFeatures',
@@ -468,14 +555,125 @@ class MapLibreMethodChannel extends MapLibrePlatform {
           'sourceId': sourceId,
           'sourceLayerId': sourceLayerId,
           'filter': filter,
+          ..._featureReplyArguments(includeGeometry, properties),
         },
       );
-      return reply['features'].map((feature) => jsonDecode(feature)).toList();
+      return _decodeQueryFeatures(reply);
     } on PlatformException catch (e) {
       return Future.error(e);
     }
   }
 
+  /// Android hands the features over a chunk at a time, on an [EventChannel]
+  /// of their own. The query runs once, when the stream is listened to, and
+  /// Android keeps its result; each chunk is only serialized once the one
+  /// before it has been delivered, and none while the subscription is paused.
+  /// Other platforms split the whole result on the Dart side.
+  @override
+  Stream<List> querySourceFeaturesStream(
+    String sourceId,
+    String? sourceLayerId,
+    List<Object>? filter, {
+    int chunkSize = 500,
+    int? limit,
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return super.querySourceFeaturesStream(
+        sourceId,
+        sourceLayerId,
+        filter,
+        chunkSize: chunkSize,
+        limit: limit,
+        includeGeometry: includeGeometry,
+        properties: properties,
+      );
+    }
+    _checkFeatureStreamArguments(chunkSize, limit);
+
+    final channelName =
+        '${_channel.name}/querySourceFeatures_${_featureStreamCount++}';
+    late final StreamController<List> controller;
+    StreamSubscription<dynamic>? events;
+    var remaining = 0;
+    var cancelled = false;
+    var chunkOwed = false;
+
+    void requestChunk() {
+      if (controller.isPaused) {
+        chunkOwed = true;
+        return;
+      }
+      _channel
+          .invokeMethod('map#querySourceFeaturesStream#next', <String, Object>{
+            'channelName': channelName,
+          })
+          .catchError((Object e) {
+            if (controller.isClosed) return;
+            controller.addError(e);
+            controller.close();
+            events?.cancel();
+          });
+    }
+
+    controller = StreamController<List>(
+      onListen: () async {
+        try {
+          final Map<dynamic, dynamic> reply = await _channel.invokeMethod(
+            'map#querySourceFeaturesStream',
+            <String, Object?>{
+              'channelName': channelName,
+              'sourceId': sourceId,
+              'sourceLayerId': sourceLayerId,
+              'filter': filter,
+              'chunkSize': chunkSize,
+              'limit': limit,
+              ..._featureReplyArguments(includeGeometry, properties),
+            },
+          );
+          remaining = reply['count'] as int;
+        } on PlatformException catch (e) {
+          if (!cancelled) controller.addError(e);
+          await controller.close();
+          return;
+        }
+        if (remaining == 0) {
+          await controller.close();
+          return;
+        }
+        // Listening is what lets Android release the result again on cancel,
+        // so even a stream cancelled while the query ran listens once.
+        events = EventChannel(channelName).receiveBroadcastStream().listen(
+          (chunk) {
+            final features = _decodeQueryFeatures(chunk as Map);
+            remaining -= features.length;
+            controller.add(features);
+            if (remaining > 0) requestChunk();
+          },
+          onError: controller.addError,
+          onDone: controller.close,
+        );
+        if (cancelled) {
+          await events!.cancel();
+        } else {
+          requestChunk();
+        }
+      },
+      onResume: () {
+        if (chunkOwed) {
+          chunkOwed = false;
+          requestChunk();
+        }
+      },
+      onCancel: () {
+        cancelled = true;
+        return events?.cancel();
+      },
+    );
+    return controller.stream;
+  }
+
   @override
   Future<int> getClusterExpansionZoom(String sourceId, int clusterId) async {
     final zoom = await _channel.invokeMethod(
@@ -516,6 +714,31 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     return _decodeFeatures(reply);
   }
 
+  /// The reply-shaping arguments of the feature queries: the projection, sent
+  /// only when it trims something, and the binary reply when
+  /// [useBinaryFeatureReplies] applies.
+  Map<String, Object> _featureReplyArguments(
+    bool includeGeometry,
+    List<String>? properties,
+  ) => {
+    if (!includeGeometry) 'includeGeometry': false,
+    if (properties != null) 'properties': properties,
+    if (useBinaryFeatureReplies &&
+        defaultTargetPlatform == TargetPlatform.android)
+      'binary': true,
+  };
+
+  /// Decodes a feature-query reply: `{'featuresBinary': bytes}` when Android
+  /// was asked for the binary layout, otherwise the JSON shape of
+  /// [_decodeFeatures].
+  List _decodeQueryFeatures(Map<dynamic, dynamic> reply) {
+    final Uint8List? bytes = reply['featuresBinary'];
+    if (bytes != null) {
+      return decodeGeoJsonBinaryFeatures(bytes);
+    }
+    return reply['features'].map((feature) => jsonDecode(feature)).toList();
+  }
+
   /// Decodes a `{'features': [json, ...]}` reply, the shape the native sides
   /// use to keep nested GeoJSON intact across the channel.
   List<Map<String, dynamic>> _decodeFeatures(dynamic reply) {
@@ -575,9 +798,16 @@ class MapLibreMethodChannel extends MapLibrePlatform {
   @override
   Future<LatLngBounds> getVisibleRegion() async {
     try {
-      final Map<dynamic, dynamic> reply = await _channel.invokeMethod(
+      final dynamic reply = await _channel.invokeMethod(
         'map#getVisibleRegion',
       );
+      if (reply is List) {
+        // Android sends [south, west, north, east] as a Float64List.
+        return LatLngBounds(
+          southwest: LatLng(reply[0], reply[1]),
+          northeast: LatLng(reply[2], reply[3]),
+        );
+      }
       final southwest = reply['sw'] as List<dynamic>;
       final northeast = reply['ne'] as List<dynamic>;
       return LatLngBounds(
@@ -607,6 +837,27 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     }
   }
 
+  /// On Android, sends all images in one style#addImages call, which decodes
+  /// them in parallel off the main thread and adds them to the style at once.
+  @override
+  Future<void> addImages(
+    Map<String, Uint8List> images, {
+    bool sdf = false,
+  }) async {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return super.addImages(images, sdf: sdf);
+    }
+    try {
+      return await _channel.invokeMethod('style#addImages', <String, Object>{
+        'names': images.keys.toList(),
+        'images': images.values.toList(),
+        'sdf': sdf,
+      });
+    } on PlatformException catch (e) {
+      return Future.error(e);
+    }
+  }
+
   @override
   Future<void> addImageSource(
     String imageSourceId,
@@ -620,7 +871,7 @@ class MapLibreMethodChannel extends MapLibrePlatform {
           'imageSourceId': imageSourceId,
           'bytes': bytes,
           'length': bytes.length,
-          'coordinates': coordinates.toList(),
+          'coordinates': _encodeLatLngQuad(coordinates),
         },
       );
     } on PlatformException catch (e) {
@@ -641,7 +892,9 @@ class MapLibreMethodChannel extends MapLibrePlatform {
           'imageSourceId': imageSourceId,
           'bytes': bytes,
           'length': bytes?.length,
-          'coordinates': coordinates?.toList(),
+          'coordinates': coordinates == null
+              ? null
+              : _encodeLatLngQuad(coordinates),
         },
       );
     } on PlatformException catch (e) {
@@ -649,6 +902,20 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     }
   }
 
+  /// The corners of [quad], packed into one `double[]` for Android, where
+  /// `Convert.toLatLngList` reads either layout.
+  static Object _encodeLatLngQuad(LatLngQuad quad) {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return quad.toList();
+    }
+    return _packLatLngs([
+      quad.topLeft,
+      quad.topRight,
+      quad.bottomRight,
+      quad.bottomLeft,
+    ]);
+  }
+
   @override
   Future<Point> toScreenLocation(LatLng latLng) async {
     try {
@@ -668,9 +935,7 @@ class MapLibreMethodChannel extends MapLibrePlatform {
   @override
   Future<List<Point>> toScreenLocationBatch(Iterable<LatLng> latLngs) async {
     try {
-      final coordinates = Float64List.fromList(
-        latLngs.map((e) => [e.latitude, e.longitude]).expand((e) => e).toList(),
-      );
+      final coordinates = _packLatLngs(latLngs);
       final Float64List result = await _channel.invokeMethod(
         'map#toScreenLocationBatch',
         {"coordinates": coordinates},
@@ -698,6 +963,54 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     }
   }
 
+  /// On Android, sends [frame] on a channel of its own, as the kind byte
+  /// (0 encoded, 1 RGBA), the length of the UTF-8 source id as a uint32 and
+  /// the id, the width and height as uint32s for RGBA, and then the image
+  /// bytes, all little-endian. The reply is a status byte and the decode and
+  /// commit times in nanoseconds as int64s.
+  @override
+  Future<ImageSourceFrameTimings?> updateImageSourceFrame(
+    String imageSourceId,
+    ImageSourceFrame frame,
+  ) async {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return super.updateImageSourceFrame(imageSourceId, frame);
+    }
+    final id = utf8.encode(imageSourceId);
+    final header = 5 + id.length + (frame.isRgba ? 8 : 0);
+    final message = Uint8List(header + frame.bytes.length);
+    final data = ByteData.sublistView(message)
+      ..setUint8(0, frame.isRgba ? 1 : 0)
+      ..setUint32(1, id.length, Endian.little);
+    message.setRange(5, 5 + id.length, id);
+    if (frame.isRgba) {
+      data
+        ..setUint32(5 + id.length, frame.width!, Endian.little)
+        ..setUint32(9 + id.length, frame.height!, Endian.little);
+    }
+    message.setRange(header, message.length, frame.bytes);
+
+    final reply = await _imageFramesChannel.send(ByteData.sublistView(message));
+    if (reply == null) {
+      throw MissingPluginException('No handler for image source frames');
+    }
+    final status = reply.getUint8(0);
+    if (status != 0) {
+      throw PlatformException(
+        code: switch (status) {
+          1 => 'STYLE_NOT_READY',
+          2 => 'SOURCE_NOT_FOUND',
+          _ => 'INVALID_IMAGE',
+        },
+        message: 'Could not update image source $imageSourceId.',
+      );
+    }
+    return ImageSourceFrameTimings(
+      decode: Duration(microseconds: reply.getInt64(1, Endian.little) ~/ 1000),
+      commit: Duration(microseconds: reply.getInt64(9, Endian.little) ~/ 1000),
+    );
+  }
+
   @override
   Future<void> addLayer(
     String imageLayerId,
@@ -791,6 +1104,31 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     }
   }
 
+  @override
+  Future<List<LatLng>> toLatLngBatch(Iterable<Point> screenLocations) async {
+    try {
+      final points = Float64List(screenLocations.length * 2);
+      var i = 0;
+      for (final point in screenLocations) {
+        points[i++] = point.x.toDouble();
+        points[i++] = point.y.toDouble();
+      }
+      final Float64List result = await _channel.invokeMethod(
+        'map#toLatLngBatch',
+        {"points": points},
+      );
+
+      final latLngs = <LatLng>[];
+      for (var i = 0; i < result.length; i += 2) {
+        latLngs.add(LatLng(result[i], result[i + 1]));
+      }
+
+      return latLngs;
+    } on PlatformException catch (e) {
+      return Future.error(e);
+    }
+  }
+
   @override
   Future<double> getMetersPerPixelAtLatitude(double latitude) async {
     try {
@@ -810,22 +1148,26 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     Map<String, dynamic> geojson, {
     String? promoteId,
   }) {
-    return _writeGeoJson(sourceId, () async {
-      await _channel.invokeMethod('source#addGeoJson', <String, dynamic>{
+    return _writeGeoJson(
+      sourceId,
+      'source#addGeoJson',
+      () async => <String, dynamic>{
         'sourceId': sourceId,
-        'geojson': await _encodeGeoJson(geojson),
-      });
-    });
+        ...await _encodeGeoJsonArgument(geojson),
+      },
+    );
   }
 
   @override
   Future<void> setGeoJsonSource(String sourceId, Map<String, dynamic> geojson) {
-    return _writeGeoJson(sourceId, () async {
-      await _channel.invokeMethod('source#setGeoJson', <String, dynamic>{
+    return _writeGeoJson(
+      sourceId,
+      'source#setGeoJson',
+      () async => <String, dynamic>{
         'sourceId': sourceId,
-        'geojson': await _encodeGeoJson(geojson),
-      });
-    });
+        ...await _encodeGeoJsonArgument(geojson),
+      },
+    );
   }
 
   /// Thresholds above which GeoJSON encoding moves to a background isolate:
@@ -851,36 +1193,53 @@ class MapLibreMethodChannel extends MapLibrePlatform {
   static const _geoJsonOffloadFeatureCount = 100;
   static const _geoJsonOffloadPositionCount = 2000;
 
-  /// Pending GeoJSON write per source id. See [_writeGeoJson].
+  /// Per source id, completes when the last GeoJSON write may be followed by
+  /// the next one. Never completes with an error. See [_writeGeoJson].
   final Map<String, Future<void>> _pendingGeoJsonWrites = {};
 
-  /// Runs [write] after any GeoJSON write already in flight for [sourceId].
+  /// Sends [method] with the arguments [encode] makes, after any GeoJSON write
+  /// already in flight for [sourceId].
   ///
   /// Encoding can now finish asynchronously, and it takes longer the larger the
   /// payload is. Two writes fired without `await` on the same source would
   /// otherwise be able to reach the platform channel in reverse order, leaving
   /// the source holding the older payload. Chaining per source id keeps the
   /// platform side in call order.
-  Future<void> _writeGeoJson(String sourceId, Future<void> Function() write) {
-    final pending = _pendingGeoJsonWrites[sourceId];
-    // A failed write must not block the writes queued behind it, so its error
-    // is ignored for chaining purposes only. Callers still see it through the
-    // future returned here.
-    final next = (pending == null
-            ? Future<void>.value()
-            : pending.then<void>((_) {}, onError: (_) {}))
-        .then((_) => write());
+  ///
+  /// Android applies the writes to a source in the order they arrive, drops
+  /// those a newer whole payload supersedes, and coalesces the rest to one
+  /// source update per frame, so a write there only waits for the previous one
+  /// to be sent. Elsewhere it waits for the previous one to be answered.
+  Future<void> _writeGeoJson(
+    String sourceId,
+    String method,
+    Future<Map<String, dynamic>> Function() encode,
+  ) {
+    final pending = _pendingGeoJsonWrites[sourceId] ?? Future<void>.value();
+    final sent = Completer<void>();
+    final reply = pending.then((_) async {
+      Future<void> call;
+      try {
+        call = _channel.invokeMethod<void>(method, await encode());
+      } finally {
+        // A write that failed to encode must not block the writes queued
+        // behind it either. Callers still see its error through [reply].
+        sent.complete();
+      }
+      await call;
+    });
+    final next = defaultTargetPlatform == TargetPlatform.android
+        ? sent.future
+        : reply.then<void>((_) {}, onError: (_) {});
     _pendingGeoJsonWrites[sourceId] = next;
     unawaited(
-      next.then<void>((_) {}, onError: (_) {}).whenComplete(() {
+      next.whenComplete(() {
         if (_pendingGeoJsonWrites[sourceId] == next) {
-          // The removed future is the one already handled just above, so
-          // ignoring it here is deliberate rather than a dropped error.
-          _pendingGeoJsonWrites.remove(sourceId)?.ignore();
+          _pendingGeoJsonWrites.remove(sourceId);
         }
       }),
     );
-    return next;
+    return reply;
   }
 
   /// Encodes [geojson] to a JSON string, offloading to a background isolate
@@ -892,6 +1251,27 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     return Future.value(jsonEncode(geojson));
   }
 
+  /// Encodes a whole source payload as the `geojson` argument, or as the
+  /// `geojsonBinary` argument when [useBinaryGeoJson] applies. Both encoders
+  /// share the same offload threshold.
+  Future<Map<String, Object>> _encodeGeoJsonArgument(
+    Map<String, dynamic> geojson,
+  ) async {
+    final payload = await _encodeGeoJsonPayload(geojson);
+    return {payload is String ? 'geojson' : 'geojsonBinary': payload};
+  }
+
+  /// Encodes [geojson] as a JSON string, or as the bytes of
+  /// [encodeGeoJsonBinary] when [useBinaryGeoJson] applies.
+  Future<Object> _encodeGeoJsonPayload(Map<String, dynamic> geojson) async {
+    if (!useBinaryGeoJson || defaultTargetPlatform != TargetPlatform.android) {
+      return _encodeGeoJson(geojson);
+    }
+    return isLargeGeoJson(geojson)
+        ? compute(encodeGeoJsonBinary, geojson)
+        : encodeGeoJsonBinary(geojson);
+  }
+
   /// Whether [geojson] is large enough that encoding it should move off the
   /// main isolate.
   ///
@@ -1251,14 +1631,46 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     String sourceId,
     Map<String, dynamic> geojsonFeature,
   ) {
-    return _writeGeoJson(sourceId, () async {
-      await _channel.invokeMethod('source#setFeature', <String, dynamic>{
+    return _writeGeoJson(
+      sourceId,
+      'source#setFeature',
+      () async => <String, dynamic>{
         'sourceId': sourceId,
         'geojsonFeature': await _encodeGeoJson(geojsonFeature),
-      });
-    });
+      },
+    );
+  }
+
+  @override
+  Future<void> applyFeatureDiff(
+    String sourceId, {
+    List<Map<String, dynamic>> added = const [],
+    List<Map<String, dynamic>> updated = const [],
+    List<String> removed = const [],
+  }) {
+    if (added.isEmpty && updated.isEmpty && removed.isEmpty) {
+      return Future.value();
+    }
+    // Each feature list travels as one collection, so it takes the same
+    // encoding path, and the same offload threshold, as a whole source.
+    return _writeGeoJson(
+      sourceId,
+      'source#applyFeatureDiff',
+      () async => <String, dynamic>{
+        'sourceId': sourceId,
+        if (added.isNotEmpty)
+          'added': await _encodeGeoJsonPayload(_featureCollection(added)),
+        if (updated.isNotEmpty)
+          'updated': await _encodeGeoJsonPayload(_featureCollection(updated)),
+        if (removed.isNotEmpty) 'removed': removed,
+      },
+    );
   }
 
+  static Map<String, dynamic> _featureCollection(
+    List<Map<String, dynamic>> features,
+  ) => {'type': 'FeatureCollection', 'features': features};
+
   /// Guard shared by the feature state methods. This class serves both
   /// Android and iOS, but only the MapLibre Android SDK exposes the feature
   /// state API, so on iOS the call has no native counterpart to reach.
@@ -1409,13 +1821,24 @@ class MapLibreMethodChannel extends MapLibrePlatform {
   }
 
   @override
-  Future<Uint8List> takeSnapshot({int? width, int? height}) async {
+  Future<Uint8List> takeSnapshot({
+    int? width,
+    int? height,
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality = 100,
+    double? pixelRatio,
+    double scale = 1,
+  }) async {
     try {
       final result = await _channel.invokeMethod<Uint8List>(
         'map#takeSnapshot',
         <String, dynamic>{
           if (width != null) 'width': width,
           if (height != null) 'height': height,
+          if (format != SnapshotFormat.png) 'format': format.name,
+          if (quality != 100) 'quality': quality,
+          if (pixelRatio != null) 'pixelRatio': pixelRatio,
+          if (scale != 1) 'scale': scale,
         },
       );
       if (result == null) {
@@ -1445,6 +1868,33 @@ class MapLibreMethodChannel extends MapLibrePlatform {
     }
   }
 
+  @override
+  Future<void> batch(void Function() body) async {
+    // Only the Android plugin handles map#batch; elsewhere the calls simply
+    // go out one by one.
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      body();
+      return;
+    }
+    await _channel.collect(body);
+  }
+
+  @override
+  Future<Map<String, int>> getPerformanceCounters() async {
+    // Only the Android plugin keeps counters, and iOS would answer with a
+    // MissingPluginException.
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return const {};
+    }
+    final Map<dynamic, dynamic>? reply = await _channel.invokeMethod(
+      'map#getPerformanceCounters',
+    );
+    return {
+      for (final entry in (reply ?? const {}).entries)
+        entry.key as String: (entry.value as num).toInt(),
+    };
+  }
+
   @override
   Future<List> getSourceIds() async {
     try {
@@ -1543,3 +1993,9 @@ Object? _shapeStyleValue(Object? value) {
   }
   return value;
 }
+
+// Flags of a camera move message, as CameraMoveStream on Android writes them.
+const _cameraMoveTarget = 1;
+const _cameraMoveZoom = 1 << 1;
+const _cameraMoveBearing = 1 << 2;
+const _cameraMoveTilt = 1 << 3;
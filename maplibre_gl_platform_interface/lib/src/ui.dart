@@ -34,6 +34,18 @@ enum ScaleControlPosition { topLeft, topRight, bottomLeft, bottomRight }
 /// Scale Control Unit
 enum ScaleControlUnit { metric, imperial, nautical }
 
+/// The image format of a map snapshot.
+enum SnapshotFormat {
+  png,
+
+  /// Lossy, at the quality asked for.
+  jpeg,
+
+  /// Lossy, at the quality asked for. iOS has no WebP encoder and returns a
+  /// PNG instead.
+  webp,
+}
+
 /// Bounds for the map camera target.
 /// Used with [MapLibreMapOptions] to wrap a [LatLngBounds] value. This allows
 /// distinguishing between specifying an unbounded target (null `LatLngBounds`)
@@ -109,3 +121,72 @@ class MinMaxZoomPreference {
     return 'MinMaxZoomPreference(minZoom: $minZoom, maxZoom: $maxZoom)';
   }
 }
+
+/// How often, and for how small a change, the map reports a camera move while
+/// `trackCameraPosition` is on. Android only.
+///
+/// A move is reported at most [maxEventsPerSecond] times a second, and only
+/// once one of the camera's fields has changed by at least its threshold; a
+/// field that changed less keeps its last reported value until it does. The
+/// last move before the camera comes to rest is always reported.
+@immutable
+class CameraMoveThrottle {
+  const CameraMoveThrottle({
+    this.maxEventsPerSecond,
+    this.minZoomDelta = 0,
+    this.minBearingDelta = 0,
+    this.minTiltDelta = 0,
+    this.minTargetDelta = 0,
+  }) : assert(maxEventsPerSecond == null || maxEventsPerSecond > 0);
+
+  /// The most camera moves reported in a second, or null if unlimited.
+  final int? maxEventsPerSecond;
+
+  /// The smallest change of zoom level that is reported.
+  final double minZoomDelta;
+
+  /// The smallest change of bearing that is reported, in degrees.
+  final double minBearingDelta;
+
+  /// The smallest change of tilt that is reported, in degrees.
+  final double minTiltDelta;
+
+  /// The smallest move of the camera target that is reported, in logical
+  /// pixels at the current zoom.
+  final double minTargetDelta;
+
+  dynamic toJson() => <dynamic>[
+    maxEventsPerSecond,
+    minZoomDelta,
+    minBearingDelta,
+    minTiltDelta,
+    minTargetDelta,
+  ];
+
+  @override
+  bool operator ==(Object other) =>
+      identical(this, other) ||
+      other is CameraMoveThrottle &&
+          runtimeType == other.runtimeType &&
+          maxEventsPerSecond == other.maxEventsPerSecond &&
+          minZoomDelta == other.minZoomDelta &&
+          minBearingDelta == other.minBearingDelta &&
+          minTiltDelta == other.minTiltDelta &&
+          minTargetDelta == other.minTargetDelta;
+
+  @override
+  int get hashCode => Object.hash(
+    maxEventsPerSecond,
+    minZoomDelta,
+    minBearingDelta,
+    minTiltDelta,
+    minTargetDelta,
+  );
+
+  @override
+  String toString() {
+    return 'CameraMoveThrottle(maxEventsPerSecond: $maxEventsPerSecond, '
+        'minZoomDelta: $minZoomDelta, minBearingDelta: $minBearingDelta, '
+        'minTiltDelta: $minTiltDelta, minTargetDelta: $minTargetDelta)';
+  }
+}
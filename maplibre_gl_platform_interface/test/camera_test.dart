@@ -1,3 +1,5 @@
+import 'dart:typed_data';
+
 import 'package:flutter_test/flutter_test.dart';
 import 'package:maplibre_gl_platform_interface/maplibre_gl_platform_interface.dart';
 
@@ -49,6 +51,21 @@ void main() {
       expect(restored, original);
     });
 
+    test('fromMap reads the packed list Android sends', () {
+      final restored = CameraPosition.fromMap(
+        Float64List.fromList([10.0, 20.0, 15.0, 45.0, 30.0]),
+      );
+      expect(
+        restored,
+        const CameraPosition(
+          bearing: 45.0,
+          target: LatLng(10.0, 20.0),
+          tilt: 30.0,
+          zoom: 15.0,
+        ),
+      );
+    });
+
     test('fromMap with null returns null', () {
       expect(CameraPosition.fromMap(null), isNull);
     });
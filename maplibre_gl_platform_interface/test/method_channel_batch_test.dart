@@ -0,0 +1,132 @@
+import 'package:flutter/foundation.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:maplibre_gl_platform_interface/maplibre_gl_platform_interface.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  group('MethodChannel batch', () {
+    late MapLibreMethodChannel platform;
+    late List<MethodCall> methodCalls;
+
+    setUp(() async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.android;
+      platform = MapLibreMethodChannel();
+      methodCalls = [];
+
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(
+            const MethodChannel('plugins.flutter.io/maplibre_gl_0'),
+            (methodCall) async {
+              methodCalls.add(methodCall);
+              if (methodCall.method != 'map#batch') {
+                return null;
+              }
+              final calls = methodCall.arguments['calls'] as List;
+              return [
+                for (final call in calls)
+                  switch ((call as Map)['method']) {
+                    'style#getLayerIds' => <String, dynamic>{
+                      'result': <String, dynamic>{
+                        'layers': ['a', 'b'],
+                      },
+                    },
+                    'style#removeLayer' => <String, dynamic>{
+                      'error': <String, dynamic>{
+                        'code': 'STYLE_NOT_READY',
+                        'message': 'not ready',
+                        'details': null,
+                      },
+                    },
+                    'map#unknown' => <String, dynamic>{'notImplemented': true},
+                    _ => <String, dynamic>{'result': null},
+                  },
+              ];
+            },
+          );
+
+      await platform.initPlatform(0);
+      methodCalls.clear();
+    });
+
+    tearDown(() {
+      debugDefaultTargetPlatformOverride = null;
+    });
+
+    test('sends the calls made in body as one map#batch message', () async {
+      await platform.batch(() {
+        platform.setLayerVisibility('layer-1', false);
+        platform.setLayerProperties('layer-2', {'fill-opacity': 0.5});
+      });
+
+      expect(methodCalls.length, 1);
+      expect(methodCalls[0].method, 'map#batch');
+      final calls = methodCalls[0].arguments['calls'] as List;
+      expect(calls.map((c) => c['method']), [
+        'layer#setVisibility',
+        'layer#setProperties',
+      ]);
+      expect(calls[0]['arguments'], {'layerId': 'layer-1', 'visible': false});
+    });
+
+    test('completes each call with its own reply', () async {
+      late Future<List> layerIds;
+      late Future<void> removal;
+      final batch = platform.batch(() {
+        layerIds = platform.getLayerIds();
+        removal = platform.removeLayer('layer-1');
+      });
+      // Listened to before the batch is answered, so the error is handled.
+      final removalFails = expectLater(
+        removal,
+        throwsA(
+          isA<PlatformException>().having(
+            (e) => e.code,
+            'code',
+            'STYLE_NOT_READY',
+          ),
+        ),
+      );
+
+      expect(await layerIds, ['a', 'b']);
+      await removalFails;
+      await batch;
+    });
+
+    test('fails the queued calls when body throws', () async {
+      late Future<void> visibility;
+      final batch = platform.batch(() {
+        visibility = platform.setLayerVisibility('layer-1', false);
+        throw StateError('body failed');
+      });
+      final visibilityFails = expectLater(visibility, throwsStateError);
+
+      await expectLater(batch, throwsStateError);
+      await visibilityFails;
+      expect(methodCalls, isEmpty);
+    });
+
+    test('sends calls outside body on their own', () async {
+      await platform.batch(() {});
+      await platform.setLayerVisibility('layer-1', true);
+
+      expect(methodCalls.map((c) => c.method), ['layer#setVisibility']);
+    });
+
+    test('sends the calls one by one off Android', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+
+      await platform.batch(() {
+        platform.setLayerVisibility('layer-1', false);
+        platform.setLayerVisibility('layer-2', false);
+      });
+      await pumpEventQueue();
+
+      expect(methodCalls.map((c) => c.method), [
+        'layer#setVisibility',
+        'layer#setVisibility',
+      ]);
+    });
+  });
+}
@@ -1,4 +1,5 @@
 import 'dart:math';
+import 'dart:typed_data';
 
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
@@ -57,6 +58,37 @@ void main() {
       expect(received!.zoom, 15.0);
     });
 
+    test('binary camera moves update the last full position', () async {
+      final received = <CameraPosition>[];
+      platform.onCameraMovePlatform.add(received.add);
+
+      Future<void> sendCameraMove(int flags, List<double> values) async {
+        final data = ByteData(1 + values.length * 8)..setUint8(0, flags);
+        for (var i = 0; i < values.length; i++) {
+          data.setFloat64(1 + i * 8, values[i], Endian.little);
+        }
+        await TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+            .handlePlatformMessage(
+              'plugins.flutter.io/maplibre_gl_0/camera',
+              data,
+              (_) {},
+            );
+      }
+
+      // Only the zoom, with nothing to apply it to yet: dropped.
+      await sendCameraMove(2, [3.0]);
+      await sendCameraMove(15, [10.0, 20.0, 15.0, 45.0, 30.0]);
+      await sendCameraMove(1 | 2, [11.0, 21.0, 16.0]);
+
+      expect(received, hasLength(2));
+      expect(received[0].target, const LatLng(10.0, 20.0));
+      expect(received[0].zoom, 15.0);
+      expect(received[1].target, const LatLng(11.0, 21.0));
+      expect(received[1].zoom, 16.0);
+      expect(received[1].bearing, 45.0);
+      expect(received[1].tilt, 30.0);
+    });
+
     test('camera#onIdle fires onCameraIdlePlatform', () async {
       CameraPosition? received;
       platform.onCameraIdlePlatform.add((pos) => received = pos);
@@ -143,6 +175,55 @@ void main() {
       expect(received!['latLng'], isA<LatLng>());
     });
 
+    test('feature#onTap decodes the tap candidates', () async {
+      Map<String, dynamic>? received;
+      platform.onFeatureTappedPlatform.add((data) => received = data);
+
+      await simulateNativeCallback('feature#onTap', {
+        'id': 'feature-1',
+        'x': 100.0,
+        'y': 200.0,
+        'lng': 20.0,
+        'lat': 10.0,
+        'layerId': 'my-layer',
+        'candidates': [
+          {
+            'id': 'feature-1',
+            'distance': 0,
+            'feature': '{"type":"Feature","id":"feature-1","properties":{}}',
+          },
+          {'id': null, 'distance': 3.5, 'feature': '{"type":"Feature"}'},
+        ],
+      });
+
+      final candidates = received!['candidates'] as List;
+      expect(candidates, hasLength(2));
+      expect(candidates[0]['id'], 'feature-1');
+      expect(candidates[0]['distance'], 0.0);
+      expect(candidates[0]['feature'], {
+        'type': 'Feature',
+        'id': 'feature-1',
+        'properties': <String, dynamic>{},
+      });
+      expect(candidates[1]['id'], isNull);
+    });
+
+    test('feature#onTap leaves candidates out when none are sent', () async {
+      Map<String, dynamic>? received;
+      platform.onFeatureTappedPlatform.add((data) => received = data);
+
+      await simulateNativeCallback('feature#onTap', {
+        'id': 'feature-1',
+        'x': 100.0,
+        'y': 200.0,
+        'lng': 20.0,
+        'lat': 10.0,
+        'layerId': 'my-layer',
+      });
+
+      expect(received!.containsKey('candidates'), isFalse);
+    });
+
     test('feature#onDrag fires onFeatureDraggedPlatform', () async {
       Map<String, dynamic>? received;
       platform.onFeatureDraggedPlatform.add((data) => received = data);
@@ -1,3 +1,6 @@
+import 'dart:math';
+import 'dart:typed_data';
+
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
 import 'package:maplibre_gl_platform_interface/maplibre_gl_platform_interface.dart';
@@ -29,6 +32,13 @@ void main() {
                     'tilt': 30.0,
                     'zoom': 15.0,
                   };
+                case 'map#toLatLngBatch':
+                  final points = (methodCall.arguments as Map)['points'];
+                  return Float64List.fromList([
+                    for (final value in points as Float64List) value * 10,
+                  ]);
+                case 'map#getVisibleRegion':
+                  return Float64List.fromList([10.0, 20.0, 30.0, 40.0]);
                 case 'map#update':
                   return <String, dynamic>{
                     'bearing': 0.0,
@@ -136,6 +146,32 @@ void main() {
       expect(result.zoom, 15.0);
     });
 
+    test('toLatLngBatch packs the points and unpacks the reply', () async {
+      final result = await platform.toLatLngBatch(const [
+        Point(1, 2),
+        Point(3.5, 4),
+      ]);
+
+      expect(methodCalls.single.method, 'map#toLatLngBatch');
+      expect(
+        (methodCalls.single.arguments as Map)['points'],
+        Float64List.fromList([1, 2, 3.5, 4]),
+      );
+      expect(result, const [LatLng(10, 20), LatLng(35, 40)]);
+    });
+
+    test('getVisibleRegion reads the packed bounds', () async {
+      final result = await platform.getVisibleRegion();
+
+      expect(
+        result,
+        LatLngBounds(
+          southwest: const LatLng(10.0, 20.0),
+          northeast: const LatLng(30.0, 40.0),
+        ),
+      );
+    });
+
     test('setTrackingCameraOptions sends tilt and duration', () async {
       final result = await platform.setTrackingCameraOptions(
         tilt: 45.0,
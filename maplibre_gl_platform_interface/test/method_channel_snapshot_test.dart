@@ -64,6 +64,24 @@ void main() {
       expect(result, fakePng);
     });
 
+    test('takeSnapshot sends the encoding only when not the default', () async {
+      await platform.takeSnapshot(
+        format: SnapshotFormat.webp,
+        quality: 70,
+        pixelRatio: 1,
+        scale: 0.5,
+      );
+      await platform.takeSnapshot();
+
+      expect(methodCalls[0].arguments, {
+        'format': 'webp',
+        'quality': 70,
+        'pixelRatio': 1.0,
+        'scale': 0.5,
+      });
+      expect(methodCalls[1].arguments, isEmpty);
+    });
+
     test('takeSnapshot throws when platform returns null', () async {
       TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
           .setMockMethodCallHandler(
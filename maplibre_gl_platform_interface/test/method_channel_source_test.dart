@@ -1,5 +1,8 @@
+import 'dart:async';
 import 'dart:convert';
+import 'dart:math';
 
+import 'package:flutter/foundation.dart';
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
 import 'package:maplibre_gl_platform_interface/maplibre_gl_platform_interface.dart';
@@ -25,6 +28,23 @@ void main() {
                 case 'map#editGeoJsonSource':
                 case 'map#editGeoJsonUrl':
                   return <Object?, Object?>{'result': true};
+                case 'map#getPerformanceCounters':
+                  return <Object?, Object?>{'geojson.updatesDropped': 3};
+                case 'map#querySourceFeatures':
+                  final feature = {
+                    'type': 'Feature',
+                    'id': '1',
+                    'geometry': geometry('Point', [1.0, 2.0]),
+                    'properties': {'name': 'a'},
+                  };
+                  if (methodCall.arguments['binary'] == true) {
+                    return <Object?, Object?>{
+                      'featuresBinary': encodeGeoJsonBinary(feature),
+                    };
+                  }
+                  return <Object?, Object?>{
+                    'features': [jsonEncode(feature)],
+                  };
                 default:
                   return null;
               }
@@ -46,6 +66,41 @@ void main() {
       expect(args['geojson'], jsonEncode(geojson));
     });
 
+    test('querySourceFeatures decodes a binary reply when asked for', () async {
+      final json = await platform.querySourceFeatures('test-source', null, null);
+
+      MapLibreMethodChannel.useBinaryFeatureReplies = true;
+      addTearDown(() => MapLibreMethodChannel.useBinaryFeatureReplies = false);
+      final binary = await platform.querySourceFeatures(
+        'test-source',
+        null,
+        null,
+      );
+
+      expect((methodCalls[0].arguments as Map).containsKey('binary'), isFalse);
+      expect((methodCalls[1].arguments as Map)['binary'], isTrue);
+      expect(binary, json);
+    });
+
+    test('querySourceFeatures sends the projection only when narrowed',
+        () async {
+      await platform.querySourceFeatures('test-source', null, null);
+      await platform.querySourceFeatures(
+        'test-source',
+        null,
+        null,
+        includeGeometry: false,
+        properties: ['name'],
+      );
+
+      final defaults = methodCalls[0].arguments as Map;
+      expect(defaults.containsKey('includeGeometry'), isFalse);
+      expect(defaults.containsKey('properties'), isFalse);
+      final narrowed = methodCalls[1].arguments as Map;
+      expect(narrowed['includeGeometry'], isFalse);
+      expect(narrowed['properties'], ['name']);
+    });
+
     test('setGeoJsonSource sends correct method and arguments', () async {
       final geojson = {'type': 'FeatureCollection', 'features': <dynamic>[]};
       await platform.setGeoJsonSource('test-source', geojson);
@@ -57,6 +112,220 @@ void main() {
       expect(args['geojson'], jsonEncode(geojson));
     });
 
+    test(
+      'useBinaryGeoJson sends geojsonBinary instead of a JSON string',
+      () async {
+        MapLibreMethodChannel.useBinaryGeoJson = true;
+        addTearDown(() => MapLibreMethodChannel.useBinaryGeoJson = false);
+        final geojson = featureCollection(geometry('Point', [1.0, 2.0]));
+
+        await platform.addGeoJsonSource('test-source', geojson);
+        await platform.setGeoJsonSource('test-source', geojson);
+
+        expect(methodCalls.map((c) => c.method), [
+          'source#addGeoJson',
+          'source#setGeoJson',
+        ]);
+        for (final call in methodCalls) {
+          final args = call.arguments as Map;
+          expect(args['sourceId'], 'test-source');
+          expect(args.containsKey('geojson'), isFalse);
+          expect(args['geojsonBinary'], encodeGeoJsonBinary(geojson));
+        }
+      },
+    );
+
+    test('useBinaryGeoJson is ignored off Android', () async {
+      MapLibreMethodChannel.useBinaryGeoJson = true;
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      addTearDown(() {
+        MapLibreMethodChannel.useBinaryGeoJson = false;
+        debugDefaultTargetPlatformOverride = null;
+      });
+      final geojson = featureCollection(geometry('Point', [1.0, 2.0]));
+
+      await platform.setGeoJsonSource('test-source', geojson);
+
+      final args = methodCalls.single.arguments as Map;
+      expect(args['geojson'], jsonEncode(geojson));
+      expect(args.containsKey('geojsonBinary'), isFalse);
+    });
+
+    test('applyFeatureDiff sends each feature list as a collection', () async {
+      final feature = {
+        'type': 'Feature',
+        'id': 'a',
+        'properties': <String, dynamic>{},
+        'geometry': geometry('Point', [1.0, 2.0]),
+      };
+      await platform.applyFeatureDiff(
+        'test-source',
+        updated: [feature],
+        removed: ['b'],
+      );
+
+      expect(methodCalls.single.method, 'source#applyFeatureDiff');
+      final args = methodCalls.single.arguments as Map;
+      expect(args['sourceId'], 'test-source');
+      expect(args.containsKey('added'), isFalse);
+      expect(
+        args['updated'],
+        jsonEncode({
+          'type': 'FeatureCollection',
+          'features': [feature],
+        }),
+      );
+      expect(args['removed'], ['b']);
+    });
+
+    test('applyFeatureDiff skips the channel for an empty diff', () async {
+      await platform.applyFeatureDiff('test-source');
+
+      expect(methodCalls, isEmpty);
+    });
+
+    test('getPerformanceCounters reads the Android counters', () async {
+      expect(await platform.getPerformanceCounters(), {
+        'geojson.updatesDropped': 3,
+      });
+      expect(methodCalls.single.method, 'map#getPerformanceCounters');
+    });
+
+    test('getPerformanceCounters is empty off Android', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      addTearDown(() => debugDefaultTargetPlatformOverride = null);
+
+      expect(await platform.getPerformanceCounters(), isEmpty);
+      expect(methodCalls, isEmpty);
+    });
+
+    test('addImages sends one call on Android', () async {
+      final a = Uint8List.fromList([1]);
+      final b = Uint8List.fromList([2, 3]);
+
+      await platform.addImages({'a': a, 'b': b}, sdf: true);
+
+      expect(methodCalls.single.method, 'style#addImages');
+      final args = methodCalls.single.arguments as Map;
+      expect(args['names'], ['a', 'b']);
+      expect(args['images'], [a, b]);
+      expect(args['sdf'], isTrue);
+    });
+
+    test('addImages adds the images one by one off Android', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      addTearDown(() => debugDefaultTargetPlatformOverride = null);
+
+      await platform.addImages({'a': Uint8List(1), 'b': Uint8List(1)});
+
+      expect(methodCalls.map((call) => call.method), [
+        'style#addImage',
+        'style#addImage',
+      ]);
+    });
+
+    test('updateImageSource packs the corners on Android only', () async {
+      const quad = LatLngQuad(
+        topLeft: LatLng(4, 1),
+        topRight: LatLng(4, 2),
+        bottomRight: LatLng(3, 2),
+        bottomLeft: LatLng(3, 1),
+      );
+
+      await platform.updateImageSource('image', null, quad);
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      addTearDown(() => debugDefaultTargetPlatformOverride = null);
+      await platform.updateImageSource('image', null, quad);
+
+      expect(
+        (methodCalls[0].arguments as Map)['coordinates'],
+        Float64List.fromList([4, 1, 4, 2, 3, 2, 3, 1]),
+      );
+      expect((methodCalls[1].arguments as Map)['coordinates'], quad.toList());
+    });
+
+    test('updateImageSourceFrame streams RGBA frames on Android', () async {
+      const channel = 'plugins.flutter.io/maplibre_gl_0/imageFrames';
+      final messenger =
+          TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger;
+      late Uint8List sent;
+      messenger.setMockMessageHandler(channel, (message) async {
+        sent = Uint8List.fromList(message!.buffer.asUint8List(
+          message.offsetInBytes,
+          message.lengthInBytes,
+        ));
+        return ByteData(17)
+          ..setUint8(0, 0)
+          ..setInt64(1, 2000000, Endian.little)
+          ..setInt64(9, 500000, Endian.little);
+      });
+      addTearDown(() => messenger.setMockMessageHandler(channel, null));
+
+      final pixels = Uint8List.fromList(List.generate(8, (i) => i));
+      final timings = await platform.updateImageSourceFrame(
+        'radar',
+        ImageSourceFrame.rgba(pixels, width: 2, height: 1),
+      );
+
+      final header = ByteData.sublistView(sent);
+      expect(header.getUint8(0), 1);
+      expect(header.getUint32(1, Endian.little), 5);
+      expect(utf8.decode(sent.sublist(5, 10)), 'radar');
+      expect(header.getUint32(10, Endian.little), 2);
+      expect(header.getUint32(14, Endian.little), 1);
+      expect(sent.sublist(18), pixels);
+      expect(timings!.decode, const Duration(milliseconds: 2));
+      expect(timings.commit, const Duration(microseconds: 500));
+      expect(methodCalls, isEmpty);
+    });
+
+    test('updateImageSourceFrame reports a missing source', () async {
+      const channel = 'plugins.flutter.io/maplibre_gl_0/imageFrames';
+      final messenger =
+          TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger;
+      messenger.setMockMessageHandler(
+        channel,
+        (message) async => ByteData(17)..setUint8(0, 2),
+      );
+      addTearDown(() => messenger.setMockMessageHandler(channel, null));
+
+      await expectLater(
+        platform.updateImageSourceFrame(
+          'radar',
+          ImageSourceFrame.encoded(Uint8List(4)),
+        ),
+        throwsA(
+          isA<PlatformException>().having(
+            (e) => e.code,
+            'code',
+            'SOURCE_NOT_FOUND',
+          ),
+        ),
+      );
+    });
+
+    test('updateImageSourceFrame falls back off Android', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      addTearDown(() => debugDefaultTargetPlatformOverride = null);
+      final bytes = Uint8List(4);
+
+      final timings = await platform.updateImageSourceFrame(
+        'radar',
+        ImageSourceFrame.encoded(bytes),
+      );
+
+      expect(timings, isNull);
+      expect(methodCalls.single.method, 'style#updateImageSource');
+      expect((methodCalls.single.arguments as Map)['bytes'], bytes);
+      expect(
+        () => platform.updateImageSourceFrame(
+          'radar',
+          ImageSourceFrame.rgba(Uint8List(4), width: 1, height: 1),
+        ),
+        throwsUnsupportedError,
+      );
+    });
+
     test('addSource sends correct method with serialized properties', () async {
       const props = VectorSourceProperties(
         url: 'https://example.com/tiles.json',
@@ -296,6 +565,63 @@ void main() {
       expect((methodCalls[1].arguments as Map)['geojson'], jsonEncode(small));
     });
 
+    // Android orders writes to a source itself and coalesces them per frame,
+    // which it can only do when a write is sent before the last is answered.
+    test('a GeoJSON write is sent before the last one is answered', () async {
+      final replies = Completer<void>();
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(
+            const MethodChannel('plugins.flutter.io/maplibre_gl_0'),
+            (methodCall) async {
+              methodCalls.add(methodCall);
+              await replies.future;
+              return null;
+            },
+          );
+
+      final first = platform.setGeoJsonSource(
+        'same-source',
+        featureCollection(geometry('Point', [0.0, 0.0])),
+      );
+      final second = platform.setGeoJsonSource(
+        'same-source',
+        featureCollection(geometry('Point', [1.0, 1.0])),
+      );
+      await pumpEventQueue();
+
+      expect(methodCalls.map((call) => call.method), [
+        'source#setGeoJson',
+        'source#setGeoJson',
+      ]);
+      replies.complete();
+      await Future.wait([first, second]);
+    });
+
+    test('off Android a GeoJSON write waits for the last reply', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      addTearDown(() => debugDefaultTargetPlatformOverride = null);
+      final replies = Completer<void>();
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(
+            const MethodChannel('plugins.flutter.io/maplibre_gl_0'),
+            (methodCall) async {
+              methodCalls.add(methodCall);
+              await replies.future;
+              return null;
+            },
+          );
+
+      final small = featureCollection(geometry('Point', [0.0, 0.0]));
+      final first = platform.setGeoJsonSource('same-source', small);
+      final second = platform.setGeoJsonSource('same-source', small);
+      await pumpEventQueue();
+
+      expect(methodCalls.length, 1);
+      replies.complete();
+      await Future.wait([first, second]);
+      expect(methodCalls.length, 2);
+    });
+
     test(
       'a failed write does not block the next write to the same source',
       () async {
@@ -323,6 +649,149 @@ void main() {
     );
   });
 
+  group('querySourceFeaturesStream', () {
+    const channelName = 'plugins.flutter.io/maplibre_gl_0/querySourceFeatures_0';
+    late MapLibreMethodChannel platform;
+    late List<MethodCall> methodCalls;
+    late _ChunkedFeatures source;
+
+    Map<String, dynamic> feature(String id) => {
+      'type': 'Feature',
+      'id': id,
+      'properties': <String, dynamic>{},
+    };
+
+    setUp(() async {
+      platform = MapLibreMethodChannel();
+      methodCalls = [];
+      source = _ChunkedFeatures([feature('a'), feature('b'), feature('c')]);
+
+      final messenger =
+          TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger;
+      messenger.setMockMethodCallHandler(
+        const MethodChannel('plugins.flutter.io/maplibre_gl_0'),
+        (methodCall) async {
+          methodCalls.add(methodCall);
+          switch (methodCall.method) {
+            case 'map#querySourceFeaturesStream':
+              source.chunkSize = methodCall.arguments['chunkSize'] as int;
+              return <Object?, Object?>{'count': source.features.length};
+            case 'map#querySourceFeaturesStream#next':
+              source.sendNextChunk();
+              return null;
+            case 'map#querySourceFeatures':
+              return <Object?, Object?>{
+                'features': [for (final f in source.features) jsonEncode(f)],
+              };
+            default:
+              return null;
+          }
+        },
+      );
+      messenger.setMockStreamHandler(const EventChannel(channelName), source);
+      addTearDown(
+        () => messenger.setMockStreamHandler(
+          const EventChannel(channelName),
+          null,
+        ),
+      );
+
+      await platform.initPlatform(0);
+      methodCalls.clear();
+    });
+
+    test('delivers the features in chunks, one request each', () async {
+      final chunks = await platform
+          .querySourceFeaturesStream('tiles', 'points', null, chunkSize: 2)
+          .toList();
+
+      expect(chunks, [
+        [feature('a'), feature('b')],
+        [feature('c')],
+      ]);
+      final start = methodCalls.first.arguments as Map;
+      expect(start['channelName'], channelName);
+      expect(start['chunkSize'], 2);
+      expect(
+        methodCalls.where(
+          (call) => call.method == 'map#querySourceFeaturesStream#next',
+        ),
+        hasLength(2),
+      );
+    });
+
+    test('asks for nothing while paused', () async {
+      final received = <List>[];
+      final subscription = platform
+          .querySourceFeaturesStream('tiles', 'points', null, chunkSize: 2)
+          .listen(received.add);
+      subscription.pause();
+      await pumpEventQueue();
+      expect(source.sent, 0);
+
+      subscription.resume();
+      await pumpEventQueue();
+      expect(received, hasLength(2));
+    });
+
+    test('cancelling releases the native side', () async {
+      late StreamSubscription<List> subscription;
+      subscription = platform
+          .querySourceFeaturesStream('tiles', 'points', null, chunkSize: 1)
+          .listen((_) => subscription.cancel());
+      await pumpEventQueue();
+
+      expect(source.cancelled, isTrue);
+      expect(source.sent, lessThan(3));
+    });
+
+    test('sends the limit and the projection along', () async {
+      await platform
+          .querySourceFeaturesStream(
+            'tiles',
+            'points',
+            null,
+            limit: 10,
+            includeGeometry: false,
+            properties: ['name'],
+          )
+          .drain<void>();
+
+      final start = methodCalls.first.arguments as Map;
+      expect(start['limit'], 10);
+      expect(start['includeGeometry'], isFalse);
+      expect(start['properties'], ['name']);
+    });
+
+    test('rejects a chunk size below 1', () {
+      expect(
+        () => platform.querySourceFeaturesStream('tiles', null, null,
+            chunkSize: 0),
+        throwsArgumentError,
+      );
+    });
+
+    test('splits a whole query on other platforms', () async {
+      debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+      addTearDown(() => debugDefaultTargetPlatformOverride = null);
+
+      final chunks = await platform
+          .querySourceFeaturesStream(
+            'tiles',
+            'points',
+            null,
+            chunkSize: 2,
+            limit: 2,
+          )
+          .toList();
+
+      expect(chunks, [
+        [feature('a'), feature('b')],
+      ]);
+      expect(methodCalls.single.method, 'map#querySourceFeatures');
+    });
+  });
+
   // The heuristic deciding whether to offload is where correctness lives: an
   // area with a huge single ring must be treated as large even though its
   // top-level `coordinates` array holds one entry (#366).
@@ -462,6 +931,134 @@ void main() {
       );
     });
   });
+
+  group('encodeGeoJsonBinary', () {
+    test('packs a feature into the documented layout', () {
+      final bytes = encodeGeoJsonBinary({
+        'type': 'Feature',
+        'id': 7,
+        'properties': {'name': 'a', 'n': 3, 'ok': true},
+        'geometry': geometry('Point', [1.5, -2]),
+      });
+      final data = ByteData.sublistView(bytes);
+      var offset = 0;
+      int u8() => data.getUint8(offset++);
+      int u32() {
+        final value = data.getUint32(offset, Endian.little);
+        offset += 4;
+        return value;
+      }
+
+      double f64() {
+        final value = data.getFloat64(offset, Endian.little);
+        offset += 8;
+        return value;
+      }
+
+      String string() {
+        final length = u32();
+        final value = utf8.decode(bytes.sublist(offset, offset + length));
+        offset += length;
+        return value;
+      }
+
+      expect(u8(), 1);
+      expect(List.generate(u32(), (_) => string()), [
+        '7',
+        'name',
+        'a',
+        'n',
+        'ok',
+      ]);
+      expect(u32(), 1);
+      expect([u8(), u32()], [1, 0]);
+      expect([u8(), u32(), u8(), f64(), f64()], [1, 1, 2, 1.5, -2.0]);
+      expect(u32(), 3);
+      expect([u32(), u8(), u32()], [1, 5, 2]);
+      expect(u32(), 3);
+      expect(u8(), 3);
+      expect(data.getInt64(offset, Endian.little), 3);
+      offset += 8;
+      expect([u32(), u8()], [4, 2]);
+      expect(offset, bytes.length);
+    });
+
+    test('stores each string once however often it is used', () {
+      final feature = {
+        'type': 'Feature',
+        'properties': {'kind': 'road'},
+        'geometry': geometry('LineString', ring(2)),
+      };
+      final one = encodeGeoJsonBinary({
+        'type': 'FeatureCollection',
+        'features': [feature],
+      });
+      final two = encodeGeoJsonBinary({
+        'type': 'FeatureCollection',
+        'features': [feature, feature],
+      });
+      final perFeature = one.length - 1 - 4 - (4 + 4) - (4 + 4) - 4;
+      expect(two.length, one.length + perFeature);
+    });
+
+    test('rejects bare geometries', () {
+      expect(
+        () => encodeGeoJsonBinary(geometry('Point', [0, 0])),
+        throwsArgumentError,
+      );
+    });
+  });
+
+  group('decodeGeoJsonBinaryFeatures', () {
+    test('reads back what encodeGeoJsonBinary wrote', () {
+      final features = [
+        {
+          'type': 'Feature',
+          'id': '7',
+          'geometry': geometry('Polygon', [ring(4)]),
+          'properties': {
+            'name': 'a',
+            'n': 3,
+            'x': 1.5,
+            'ok': true,
+            'none': null,
+            'tags': ['b', 'c'],
+          },
+        },
+        {
+          'type': 'Feature',
+          'geometry': geometry('MultiPoint', [
+            [1.0, 2.0, 3.0],
+            [4.0, 5.0],
+          ]),
+          'properties': <String, dynamic>{},
+        },
+        {'type': 'Feature', 'properties': <String, dynamic>{}},
+      ];
+
+      final decoded = decodeGeoJsonBinaryFeatures(
+        encodeGeoJsonBinary({'type': 'FeatureCollection', 'features': features}),
+      );
+
+      expect(decoded, jsonDecode(jsonEncode(features)));
+    });
+
+    test('rejects a truncated body', () {
+      final bytes = encodeGeoJsonBinary(
+        featureCollection(geometry('Point', [1.0, 2.0])),
+      );
+      final truncated = Uint8List.sublistView(bytes, 0, bytes.length - 4);
+
+      expect(() => decodeGeoJsonBinaryFeatures(truncated), throwsRangeError);
+    });
+
+    test('rejects an unknown version', () {
+      expect(
+        () => decodeGeoJsonBinaryFeatures(Uint8List.fromList([9])),
+        throwsFormatException,
+      );
+    });
+  });
 }
 
 /// A list of [count] distinct positions.
@@ -481,3 +1078,47 @@ Map<String, dynamic> featureCollection(Map<String, dynamic> geom) => {
     {'type': 'Feature', 'properties': <String, dynamic>{}, 'geometry': geom},
   ],
 };
+
+/// Android's side of a feature stream: a chunk per request, then the end.
+class _ChunkedFeatures extends MockStreamHandler {
+  _ChunkedFeatures(this.features);
+
+  final List<Map<String, dynamic>> features;
+  int chunkSize = 1;
+  int sent = 0;
+  bool cancelled = false;
+  MockStreamHandlerEventSink? _sink;
+  bool _requested = false;
+  int _next = 0;
+
+  void sendNextChunk() {
+    final sink = _sink;
+    if (sink == null) {
+      _requested = true;
+      return;
+    }
+    final end = min(_next + chunkSize, features.length);
+    sink.success(<Object?, Object?>{
+      'features': [for (final f in features.sublist(_next, end)) jsonEncode(f)],
+    });
+    _next = end;
+    sent++;
+    if (_next >= features.length) {
+      sink.endOfStream();
+    }
+  }
+
+  @override
+  void onListen(Object? arguments, MockStreamHandlerEventSink events) {
+    _sink = events;
+    if (_requested) {
+      _requested = false;
+      sendNextChunk();
+    }
+  }
+
+  @override
+  void onCancel(Object? arguments) {
+    cancelled = true;
+  }
+}
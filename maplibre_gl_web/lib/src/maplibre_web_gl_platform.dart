@@ -657,8 +657,10 @@ class MapLibreMapController extends MapLibrePlatform
   Future<List<Map<String, dynamic>>> queryRenderedFeatures(
     Point<double> point,
     List<String> layerIds,
-    List<Object>? filter,
-  ) async {
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
     if (!_map.isStyleLoaded()) {
       // Style is not loaded yet, return empty list
       print(
@@ -682,16 +684,7 @@ class MapLibreMapController extends MapLibrePlatform
     return _map
         .queryRenderedFeatures(geometry, options)
         .map(
-          (feature) => <String, dynamic>{
-            'type': 'Feature',
-            'id': feature.id,
-            'geometry': <String, dynamic>{
-              'type': feature.geometry.type,
-              'coordinates': feature.geometry.coordinates,
-            },
-            'properties': feature.properties,
-            'source': feature.source,
-          },
+          (feature) => _queriedFeature(feature, includeGeometry, properties),
         )
         .toList();
   }
@@ -700,8 +693,10 @@ class MapLibreMapController extends MapLibrePlatform
   Future<List> queryRenderedFeaturesInRect(
     Rect rect,
     List<String> layerIds,
-    String? filter,
-  ) async {
+    String? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
     if (!_map.isStyleLoaded()) {
       // Style is not loaded yet, return empty list
       print(
@@ -730,16 +725,7 @@ class MapLibreMapController extends MapLibrePlatform
     return _map
         .queryRenderedFeatures(geometry, options)
         .map(
-          (feature) => <String, dynamic>{
-            'type': 'Feature',
-            'id': feature.id,
-            'geometry': <String, dynamic>{
-              'type': feature.geometry.type,
-              'coordinates': feature.geometry.coordinates,
-            },
-            'properties': feature.properties,
-            'source': feature.source,
-          },
+          (feature) => _queriedFeature(feature, includeGeometry, properties),
         )
         .toList();
   }
@@ -748,8 +734,10 @@ class MapLibreMapController extends MapLibrePlatform
   Future<List> querySourceFeatures(
     String sourceId,
     String? sourceLayerId,
-    List<Object>? filter,
-  ) async {
+    List<Object>? filter, {
+    bool includeGeometry = true,
+    List<String>? properties,
+  }) async {
     // A source is resolved by id out of the style, so without a style there is
     // no source to query. Answering with an empty list would look like a
     // source that holds no features, which the caller cannot tell apart, so
@@ -777,20 +765,45 @@ class MapLibreMapController extends MapLibrePlatform
     return _map
         .querySourceFeatures(sourceId, parameters)
         .map(
-          (feature) => <String, dynamic>{
-            'type': 'Feature',
-            'id': feature.id,
-            'geometry': <String, dynamic>{
-              'type': feature.geometry.type,
-              'coordinates': feature.geometry.coordinates,
-            },
-            'properties': feature.properties,
-            'source': feature.source,
-          },
+          (feature) => _queriedFeature(feature, includeGeometry, properties),
         )
         .toList();
   }
 
+  /// What the feature queries answer with for [feature], trimmed to what the
+  /// query asked for. Listed properties are read one by one, so the rest are
+  /// never converted out of JavaScript; like the native side, a listed key
+  /// the feature does not have is left out.
+  Map<String, dynamic> _queriedFeature(
+    Feature feature,
+    bool includeGeometry,
+    List<String>? properties,
+  ) {
+    final Map<String, dynamic> featureProperties;
+    if (properties == null) {
+      featureProperties = feature.properties;
+    } else {
+      featureProperties = <String, dynamic>{};
+      for (final key in properties) {
+        final value = feature.getProperty(key);
+        if (value != null) {
+          featureProperties[key] = value;
+        }
+      }
+    }
+    return <String, dynamic>{
+      'type': 'Feature',
+      'id': feature.id,
+      if (includeGeometry)
+        'geometry': <String, dynamic>{
+          'type': feature.geometry.type,
+          'coordinates': feature.geometry.coordinates,
+        },
+      'properties': featureProperties,
+      'source': feature.source,
+    };
+  }
+
   /// Resolves the GeoJSON source a cluster-inspection call addresses.
   GeoJsonSource _clusterSource(String sourceId, String methodName) {
     final source = _map.getSource(sourceId);
@@ -1519,6 +1532,20 @@ class MapLibreMapController extends MapLibrePlatform
         .toList(growable: false);
   }
 
+  @override
+  Future<List<LatLng>> toLatLngBatch(
+    Iterable<Point<num>> screenLocations,
+  ) async {
+    return screenLocations
+        .map((screenLocation) {
+          final lngLat = _map.unproject(
+            geo_point.Point(screenLocation.x, screenLocation.y),
+          );
+          return LatLng(lngLat.lat as double, lngLat.lng as double);
+        })
+        .toList(growable: false);
+  }
+
   @override
   Future<double> getMetersPerPixelAtLatitude(double latitude) async {
     //https://wiki.openstreetmap.org/wiki/Zoom_levels
@@ -2156,6 +2183,60 @@ class MapLibreMapController extends MapLibrePlatform
     }
   }
 
+  @override
+  Future<void> applyFeatureDiff(
+    String sourceId, {
+    List<Map<String, dynamic>> added = const [],
+    List<Map<String, dynamic>> updated = const [],
+    List<String> removed = const [],
+  }) async {
+    final source = _map.getSource(sourceId) as GeoJsonSource?;
+    final data = _addedFeaturesByLayer[sourceId];
+    if (source == null || data == null) return;
+
+    final features = <Feature?>[...data.features];
+    final indexById = <String, int>{};
+    for (var i = 0; i < features.length; i++) {
+      final id = features[i]!.id;
+      if (id != null) indexById.putIfAbsent(id.toString(), () => i);
+    }
+
+    var changed = false;
+    for (final geojsonFeature in added) {
+      final feature = _makeFeature(geojsonFeature);
+      final index = indexById[feature.id?.toString()];
+      if (index != null) {
+        features[index] = feature;
+      } else {
+        if (feature.id != null) {
+          indexById[feature.id.toString()] = features.length;
+        }
+        features.add(feature);
+      }
+      changed = true;
+    }
+    for (final geojsonFeature in updated) {
+      final feature = _makeFeature(geojsonFeature);
+      final index = indexById[feature.id?.toString()];
+      if (index != null) {
+        features[index] = feature;
+        changed = true;
+      }
+    }
+    for (final id in removed) {
+      final index = indexById.remove(id);
+      if (index != null) {
+        features[index] = null;
+        changed = true;
+      }
+    }
+    if (!changed) return;
+
+    final newData = FeatureCollection(features: features.nonNulls.toList());
+    _addedFeaturesByLayer[sourceId] = newData;
+    await source.setData(newData);
+  }
+
   @override
   Future<void> setFeatureState(
     String sourceId,
@@ -2258,6 +2339,12 @@ class MapLibreMapController extends MapLibrePlatform
     return sourceIds;
   }
 
+  @override
+  Future<void> batch(void Function() body) async => body();
+
+  @override
+  Future<Map<String, int>> getPerformanceCounters() async => const {};
+
   @override
   Future<Map<String, dynamic>?> getLayerProperties(String layerId) async {
     // The serialized style already holds each layer in MapLibre style-spec
@@ -2354,7 +2441,14 @@ class MapLibreMapController extends MapLibrePlatform
   }
 
   @override
-  Future<Uint8List> takeSnapshot({int? width, int? height}) async {
+  Future<Uint8List> takeSnapshot({
+    int? width,
+    int? height,
+    SnapshotFormat format = SnapshotFormat.png,
+    int quality = 100,
+    double? pixelRatio,
+    double scale = 1,
+  }) async {
     ui.Size? originalSize;
 
     // If custom size requested, temporarily resize the map
@@ -2371,7 +2465,7 @@ class MapLibreMapController extends MapLibrePlatform
     final completer = Completer<String>();
     _map.once('render', (_) {
       final canvas = _map.getCanvas();
-      final dataUrl = canvas.toDataUrl('image/png');
+      final dataUrl = canvas.toDataUrl('image/${format.name}', quality / 100);
       completer.complete(dataUrl);
     });
     _map.triggerRepaint();
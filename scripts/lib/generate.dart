@@ -81,6 +81,7 @@ Future<void> main() async {
           "type": type,
           "typePascal": ReCase(type).pascalCase,
           "typeCamel": ReCase(type).camelCase,
+          "typeConstant": ReCase(type).constantCase,
           "paint_properties": buildStyleProperties(styleJson, "paint_$type"),
           "layout_properties": buildStyleProperties(styleJson, "layout_$type"),
           "paint_properties_android": buildStyleProperties(